@@ -0,0 +1,167 @@
+package address.data;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks the single-entry operations of {@link AddressBook} on address books of increasing
+ * size. Run with {@code -prof gc} to report the bytes allocated by every operation as well as its
+ * throughput; the largest address books need a heap of several gigabytes. Every operation runs on a
+ * single thread; {@link ConcurrentAccessBenchmark} measures lookups from several threads at once.
+ *
+ * @author Poleon Banouvong
+ * @since 2026-10-17
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class AddressBookBenchmark {
+  /** The number of entries looked up, added and removed in turn */
+  private static final int KEY_COUNT = 1 << 12;
+
+  /** The number of entries in the address book */
+  @Param({"1000", "100000", "1000000", "10000000"})
+  public int size;
+
+  /** How the address book stores its entries */
+  @Param({"HEAP", "OFF_HEAP"})
+  public StorageEngine storageEngine;
+
+  /** The address book */
+  private AddressBook addressBook;
+
+  /** Entries in the address book */
+  private ArrayList<AddressEntry> presentEntries;
+
+  /** Entries not in the address book */
+  private ArrayList<AddressEntry> absentEntries;
+
+  /** The next entry to use, cycling through the keys */
+  private int keyNumber;
+
+  /** Fills the address book with generated entries */
+  @Setup
+  public void setUp() {
+    AddressDataGenerator generator = new AddressDataGenerator();
+    ArrayList<AddressEntry> addressEntries = generator.entries(0, size);
+    addressBook = AddressBook.getAddressBook();
+    addressBook.clear();
+    addressBook.setStorageEngine(storageEngine);
+    addressBook.addAll(addressEntries);
+
+    presentEntries = new ArrayList<AddressEntry>(KEY_COUNT);
+
+    for (int i = 0; i < KEY_COUNT; i++) {
+      presentEntries.add(addressEntries.get((int) ((long) i * size / KEY_COUNT)));
+    }
+
+    absentEntries = generator.entries(size, KEY_COUNT);
+    keyNumber = 0;
+  }
+
+  /**
+   * Returns the index of the next key
+   *
+   * @return The index
+   */
+  private int nextKey() {
+    keyNumber = (keyNumber + 1) & (KEY_COUNT - 1);
+    return keyNumber;
+  }
+
+  /**
+   * Adds an entry that isn't in the address book, then removes it again. Every comparison used to
+   * case-fold both names; caching the folded names on {@link AddressEntry} took this from 115k to
+   * 251k operations per second at 1M entries, and from 3.2 kB to 40 bytes allocated per operation.
+   *
+   * @return {@code true} if both succeeded
+   */
+  @Benchmark
+  public boolean addThenRemove() {
+    AddressEntry addressEntry = absentEntries.get(nextKey());
+    return addressBook.add(addressEntry) & addressBook.remove(addressEntry);
+  }
+
+  /**
+   * Removes an entry that is in the address book, then adds it again
+   *
+   * @return {@code true} if both succeeded
+   */
+  @Benchmark
+  public boolean removeThenAdd() {
+    AddressEntry addressEntry = presentEntries.get(nextKey());
+    return addressBook.remove(addressEntry) & addressBook.add(addressEntry);
+  }
+
+  /**
+   * Looks up an entry that is in the address book
+   *
+   * @return {@code true}
+   */
+  @Benchmark
+  public boolean containsPresent() {
+    return addressBook.contains(presentEntries.get(nextKey()));
+  }
+
+  /**
+   * Looks up an entry that isn't in the address book
+   *
+   * @return {@code false}
+   */
+  @Benchmark
+  public boolean containsAbsent() {
+    return addressBook.contains(absentEntries.get(nextKey()));
+  }
+
+  /**
+   * Finds the entries whose last name starts with the first three letters of an entry's
+   *
+   * @return The matching entries
+   */
+  @Benchmark
+  public ArrayList<AddressEntry> find() {
+    return addressBook.find(presentEntries.get(nextKey()).getLastName().substring(0, 3));
+  }
+
+  /**
+   * Writes the listing of the whole address book to a stream that discards it
+   *
+   * @param blackhole Consumes the listing
+   * @throws IOException Never
+   */
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public void list(Blackhole blackhole) throws IOException {
+    addressBook.writeListing(
+        new OutputStream() {
+          @Override
+          public void write(int b) {
+            blackhole.consume(b);
+          }
+
+          @Override
+          public void write(byte[] bytes, int offset, int length) {
+            blackhole.consume(bytes);
+          }
+        });
+  }
+}
@@ -0,0 +1,114 @@
+package address.data;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares the batch operations of {@link AddressBook} with adding and removing the same entries
+ * one at a time. Every benchmark adds a batch of entries and removes it again, so the address book
+ * is the same size for every invocation.
+ *
+ * @author Poleon Banouvong
+ * @since 2026-10-17
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class BatchBenchmark {
+  /** The number of entries in the address book */
+  @Param({"1000", "100000", "1000000"})
+  public int size;
+
+  /** The number of entries in a batch */
+  @Param({"1000", "100000"})
+  public int batchSize;
+
+  /** How the address book stores its entries */
+  @Param({"HEAP", "OFF_HEAP"})
+  public StorageEngine storageEngine;
+
+  /** The address book */
+  private AddressBook addressBook;
+
+  /** Entries not in the address book */
+  private ArrayList<AddressEntry> batch;
+
+  /** Changes adding the batch */
+  private ArrayList<AddressChange> additions;
+
+  /** Changes removing the batch */
+  private ArrayList<AddressChange> removals;
+
+  /** Fills the address book with generated entries and generates the batch */
+  @Setup
+  public void setUp() {
+    addressBook = AddressBook.getAddressBook();
+    addressBook.clear();
+    addressBook.setStorageEngine(storageEngine);
+    AddressDataGenerator generator = new AddressDataGenerator();
+    addressBook.addAll(generator.entries(0, size));
+
+    batch = generator.entries(size, batchSize);
+    additions = new ArrayList<AddressChange>(batchSize);
+    removals = new ArrayList<AddressChange>(batchSize);
+
+    for (AddressEntry addressEntry : batch) {
+      additions.add(AddressChange.add(addressEntry));
+      removals.add(AddressChange.remove(addressEntry));
+    }
+  }
+
+  /**
+   * Adds and removes the batch one entry at a time
+   *
+   * @param blackhole Consumes the outcomes
+   */
+  @Benchmark
+  public void oneAtATime(Blackhole blackhole) {
+    for (AddressEntry addressEntry : batch) {
+      blackhole.consume(addressBook.add(addressEntry));
+    }
+
+    for (AddressEntry addressEntry : batch) {
+      blackhole.consume(addressBook.remove(addressEntry));
+    }
+  }
+
+  /**
+   * Adds and removes the batch with {@link AddressBook#addAll} and {@link AddressBook#removeAll}
+   *
+   * @param blackhole Consumes the outcomes
+   */
+  @Benchmark
+  public void addAllRemoveAll(Blackhole blackhole) {
+    blackhole.consume(addressBook.addAll(batch));
+    blackhole.consume(addressBook.removeAll(batch));
+  }
+
+  /**
+   * Adds and removes the batch with {@link AddressBook#applyChanges}
+   *
+   * @param blackhole Consumes the outcomes
+   */
+  @Benchmark
+  public void applyChanges(Blackhole blackhole) {
+    blackhole.consume(addressBook.applyChanges(additions));
+    blackhole.consume(addressBook.applyChanges(removals));
+  }
+}
@@ -0,0 +1,284 @@
+package address.data;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.ThreadParams;
+
+/**
+ * Measures how the reads of {@link AddressBook} scale with the number of threads sharing its
+ * read-write lock, and how much a writer holds them up. The lookups run at 1, 2, 4 and 8 threads,
+ * whose throughput is the total of every thread; on a machine with fewer cores than threads the
+ * extra threads can only share the cores. The grouped benchmarks run three readers against one
+ * writer that removes and adds entries the readers never look up.
+ *
+ * @author Poleon Banouvong
+ * @since 2026-10-17
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class ConcurrentAccessBenchmark {
+  /** The number of entries looked up, and the number removed and added, in turn */
+  private static final int KEY_COUNT = 1 << 12;
+
+  /** The number of entries in the address book */
+  @Param({"100000", "1000000"})
+  public int size;
+
+  /** How the address book stores its entries */
+  @Param({"HEAP", "OFF_HEAP"})
+  public StorageEngine storageEngine;
+
+  /** The address book */
+  private AddressBook addressBook;
+
+  /** Entries in the address book that are only looked up */
+  private ArrayList<AddressEntry> readEntries;
+
+  /** Entries in the address book that the writer removes and adds */
+  private ArrayList<AddressEntry> writtenEntries;
+
+  /** Fills the address book with generated entries */
+  @Setup
+  public void setUp() {
+    ArrayList<AddressEntry> addressEntries = new AddressDataGenerator().entries(0, size);
+    addressBook = AddressBook.getAddressBook();
+    addressBook.clear();
+    addressBook.setStorageEngine(storageEngine);
+    addressBook.addAll(addressEntries);
+
+    readEntries = new ArrayList<AddressEntry>(KEY_COUNT);
+    writtenEntries = new ArrayList<AddressEntry>(KEY_COUNT);
+
+    // alternate entries, so that the writer's entries are spread among the readers'
+    for (int i = 0; i < KEY_COUNT; i++) {
+      int index = 2 * (int) ((long) i * (size / 2) / KEY_COUNT);
+      readEntries.add(addressEntries.get(index));
+      writtenEntries.add(addressEntries.get(index + 1));
+    }
+  }
+
+  /** The keys one thread cycles through, starting at a different key in every thread */
+  @State(Scope.Thread)
+  public static class Cursor {
+    /** The next key to use */
+    private int keyNumber;
+
+    /**
+     * Starts the thread at its own key
+     *
+     * @param threadParams The thread's place among the benchmark threads
+     */
+    @Setup
+    public void setUp(ThreadParams threadParams) {
+      keyNumber = threadParams.getThreadIndex() * (KEY_COUNT / threadParams.getThreadCount());
+    }
+
+    /**
+     * Returns the index of the next key
+     *
+     * @return The index
+     */
+    private int nextKey() {
+      keyNumber = (keyNumber + 1) & (KEY_COUNT - 1);
+      return keyNumber;
+    }
+  }
+
+  /**
+   * Looks up an entry that is in the address book
+   *
+   * @param cursor The thread's keys
+   * @return {@code true}
+   */
+  private boolean contains(Cursor cursor) {
+    return addressBook.contains(readEntries.get(cursor.nextKey()));
+  }
+
+  /**
+   * Finds the entries whose last name starts with the first three letters of an entry's
+   *
+   * @param cursor The thread's keys
+   * @return The matching entries
+   */
+  private ArrayList<AddressEntry> find(Cursor cursor) {
+    return addressBook.find(readEntries.get(cursor.nextKey()).getLastName().substring(0, 3));
+  }
+
+  /**
+   * Looks up entries from a single thread
+   *
+   * @param cursor The thread's keys
+   * @return {@code true}
+   */
+  @Benchmark
+  @Threads(1)
+  public boolean containsPresent1Thread(Cursor cursor) {
+    return contains(cursor);
+  }
+
+  /**
+   * Looks up entries from 2 threads
+   *
+   * @param cursor The thread's keys
+   * @return {@code true}
+   */
+  @Benchmark
+  @Threads(2)
+  public boolean containsPresent2Threads(Cursor cursor) {
+    return contains(cursor);
+  }
+
+  /**
+   * Looks up entries from 4 threads
+   *
+   * @param cursor The thread's keys
+   * @return {@code true}
+   */
+  @Benchmark
+  @Threads(4)
+  public boolean containsPresent4Threads(Cursor cursor) {
+    return contains(cursor);
+  }
+
+  /**
+   * Looks up entries from 8 threads
+   *
+   * @param cursor The thread's keys
+   * @return {@code true}
+   */
+  @Benchmark
+  @Threads(8)
+  public boolean containsPresent8Threads(Cursor cursor) {
+    return contains(cursor);
+  }
+
+  /**
+   * Finds entries by last name prefix from a single thread
+   *
+   * @param cursor The thread's keys
+   * @return The matching entries
+   */
+  @Benchmark
+  @Threads(1)
+  public ArrayList<AddressEntry> find1Thread(Cursor cursor) {
+    return find(cursor);
+  }
+
+  /**
+   * Finds entries by last name prefix from 2 threads
+   *
+   * @param cursor The thread's keys
+   * @return The matching entries
+   */
+  @Benchmark
+  @Threads(2)
+  public ArrayList<AddressEntry> find2Threads(Cursor cursor) {
+    return find(cursor);
+  }
+
+  /**
+   * Finds entries by last name prefix from 4 threads
+   *
+   * @param cursor The thread's keys
+   * @return The matching entries
+   */
+  @Benchmark
+  @Threads(4)
+  public ArrayList<AddressEntry> find4Threads(Cursor cursor) {
+    return find(cursor);
+  }
+
+  /**
+   * Finds entries by last name prefix from 8 threads
+   *
+   * @param cursor The thread's keys
+   * @return The matching entries
+   */
+  @Benchmark
+  @Threads(8)
+  public ArrayList<AddressEntry> find8Threads(Cursor cursor) {
+    return find(cursor);
+  }
+
+  /**
+   * Looks up entries while another thread changes the address book
+   *
+   * @param cursor The thread's keys
+   * @return {@code true}
+   */
+  @Benchmark
+  @Group("containsWhileWriting")
+  @GroupThreads(3)
+  public boolean containsReader(Cursor cursor) {
+    return contains(cursor);
+  }
+
+  /**
+   * Removes an entry and adds it again while other threads look up entries
+   *
+   * @param cursor The thread's keys
+   * @return {@code true} if both succeeded
+   */
+  @Benchmark
+  @Group("containsWhileWriting")
+  @GroupThreads(1)
+  public boolean containsWriter(Cursor cursor) {
+    return removeThenAdd(cursor);
+  }
+
+  /**
+   * Finds entries by last name prefix while another thread changes the address book
+   *
+   * @param cursor The thread's keys
+   * @return The matching entries
+   */
+  @Benchmark
+  @Group("findWhileWriting")
+  @GroupThreads(3)
+  public ArrayList<AddressEntry> findReader(Cursor cursor) {
+    return find(cursor);
+  }
+
+  /**
+   * Removes an entry and adds it again while other threads find entries
+   *
+   * @param cursor The thread's keys
+   * @return {@code true} if both succeeded
+   */
+  @Benchmark
+  @Group("findWhileWriting")
+  @GroupThreads(1)
+  public boolean findWriter(Cursor cursor) {
+    return removeThenAdd(cursor);
+  }
+
+  /**
+   * Removes one of the written entries and adds it again
+   *
+   * @param cursor The thread's keys
+   * @return {@code true} if both succeeded
+   */
+  private boolean removeThenAdd(Cursor cursor) {
+    AddressEntry addressEntry = writtenEntries.get(cursor.nextKey());
+    return addressBook.remove(addressEntry) & addressBook.add(addressEntry);
+  }
+}
@@ -0,0 +1,84 @@
+package address.data;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the latency distribution of {@link AddressBook#fuzzyFind} for misspelled last names, on
+ * address books of increasing size. The fuzzy index is built during setup, so only lookups are
+ * measured.
+ *
+ * @author Poleon Banouvong
+ * @since 2026-10-17
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class FuzzyFindBenchmark {
+  /** The number of misspelled names looked up in turn */
+  private static final int KEY_COUNT = 1 << 10;
+
+  /** The number of entries in the address book */
+  @Param({"10000", "100000", "1000000"})
+  public int size;
+
+  /** The largest edit distance of a match */
+  @Param({"1", "2"})
+  public int maximumDistance;
+
+  /** The address book */
+  private AddressBook addressBook;
+
+  /** Last names of entries in the address book, with one letter changed */
+  private ArrayList<String> misspelledNames;
+
+  /** The next name to look up, cycling through the keys */
+  private int keyNumber;
+
+  /** Fills the address book with generated entries and builds the fuzzy index */
+  @Setup
+  public void setUp() {
+    ArrayList<AddressEntry> addressEntries = new AddressDataGenerator().entries(0, size);
+    addressBook = AddressBook.getAddressBook();
+    addressBook.clear();
+    addressBook.addAll(addressEntries);
+    misspelledNames = new ArrayList<String>(KEY_COUNT);
+
+    for (int i = 0; i < KEY_COUNT; i++) {
+      String lastName = addressEntries.get((int) ((long) i * size / KEY_COUNT)).getLastName();
+      int position = i % lastName.length();
+      char letter = (lastName.charAt(position) == 'x') ? 'y' : 'x';
+      misspelledNames.add(
+          lastName.substring(0, position) + letter + lastName.substring(position + 1));
+    }
+
+    addressBook.fuzzyFind(misspelledNames.getFirst(), maximumDistance, 10);
+    keyNumber = 0;
+  }
+
+  /**
+   * Finds the ten best matches for a misspelled last name
+   *
+   * @return The matching entries
+   */
+  @Benchmark
+  public ArrayList<AddressEntry> fuzzyFind() {
+    keyNumber = (keyNumber + 1) & (KEY_COUNT - 1);
+    return addressBook.fuzzyFind(misspelledNames.get(keyNumber), maximumDistance, 10);
+  }
+}
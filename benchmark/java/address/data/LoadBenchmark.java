@@ -0,0 +1,98 @@
+package address.data;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks reading a file of generated address entries into an empty {@link AddressBook}. Run
+ * with {@code -prof gc} to report the bytes allocated by every load.
+ *
+ * @author Poleon Banouvong
+ * @since 2026-10-17
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class LoadBenchmark {
+  /** The number of entries in the file */
+  @Param({"1000", "100000", "1000000", "10000000"})
+  public int size;
+
+  /** The file of generated entries */
+  private Path file;
+
+  /** The address book */
+  private AddressBook addressBook;
+
+  /**
+   * Writes the file of generated entries
+   *
+   * @throws IOException If the file could not be written
+   */
+  @Setup
+  public void setUp() throws IOException {
+    file = Files.createTempFile("addressBook", ".txt");
+
+    if (!new AddressDataGenerator().writeFile(file.toString(), size)) {
+      throw new IOException("Could not write " + file);
+    }
+
+    addressBook = AddressBook.getAddressBook();
+  }
+
+  /** Empties the address book before every load */
+  @Setup(Level.Invocation)
+  public void clear() {
+    addressBook.clear();
+  }
+
+  /**
+   * Deletes the file of generated entries
+   *
+   * @throws IOException If the file could not be deleted
+   */
+  @TearDown
+  public void tearDown() throws IOException {
+    Files.deleteIfExists(file);
+  }
+
+  /**
+   * Reads the file a line at a time with {@link AddressBook#readFromFile}
+   *
+   * @return The added entries
+   */
+  @Benchmark
+  public ArrayList<AddressEntry> readFromFile() {
+    return addressBook.readFromFile(file.toString());
+  }
+
+  /**
+   * Reads the file in parallel chunks with {@link AddressBook#loadFromFile}
+   *
+   * @return The added entries
+   */
+  @Benchmark
+  public ArrayList<AddressEntry> loadFromFile() {
+    return addressBook.loadFromFile(file.toString());
+  }
+}
@@ -0,0 +1,215 @@
+package address.data;
+
+import com.sun.management.OperatingSystemMXBean;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.util.ArrayList;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that an address book of a million entries behaves like a small one, on both storage
+ * engines. These tests take minutes, so they run with {@code ./gradlew perfTest} rather than with
+ * the unit tests.
+ *
+ * @author Poleon Banouvong
+ * @since 2026-10-17
+ */
+class LargeAddressBookPerfTest {
+  /** The number of entries in the address book */
+  private static final int SIZE = 1_000_000;
+
+  /** The numbers of entries the retained heap is measured at */
+  private static final int[] RETAINED_HEAP_SIZES = {1_000_000, 10_000_000};
+
+  /** A generous estimate of the memory an entry stored on the heap needs while it is added */
+  private static final long HEAP_BYTES_PER_ENTRY = 1000;
+
+  /** The {@link AddressBook} singleton */
+  private final AddressBook addressBook = AddressBook.getAddressBook();
+
+  /** Empties the address book after every test */
+  @AfterEach
+  public void tearDown() {
+    addressBook.clear();
+    addressBook.setStorageEngine(StorageEngine.HEAP);
+  }
+
+  /**
+   * Returns entries with distinct names, spread over 1000 last names
+   *
+   * @return An {@link ArrayList} containing the entries
+   */
+  private static ArrayList<AddressEntry> entries() {
+    ArrayList<AddressEntry> addressEntries = new ArrayList<AddressEntry>(SIZE);
+
+    for (int i = 0; i < SIZE; i++) {
+      addressEntries.add(
+          AddressEntry.builder()
+              .firstName("First" + i)
+              .lastName("Last" + (i % 1000))
+              .street(i + " Main Street")
+              .city("City" + (i % 100))
+              .state("State" + (i % 50))
+              .zip(10000 + i % 90000)
+              .phone(String.format("%010d", i))
+              .email("first" + i + "@example.com")
+              .build());
+    }
+
+    return addressEntries;
+  }
+
+  /** Tests a million entries added, found, streamed and removed on both storage engines */
+  @Test
+  public void testMillionEntries() {
+    ArrayList<AddressEntry> addressEntries = entries();
+
+    for (StorageEngine storageEngine : StorageEngine.values()) {
+      addressBook.clear();
+      addressBook.setStorageEngine(storageEngine);
+
+      boolean[] outcomes = addressBook.addAll(addressEntries);
+      assertEquals(SIZE, addressBook.size());
+      assertTrue(outcomes[SIZE - 1]);
+
+      assertEquals(SIZE / 1000, addressBook.find("Last999").size());
+      assertEquals(SIZE, addressBook.parallelStream().count());
+      assertEquals(SIZE / 100, addressBook.query(new AddressQuery().city("city7")).size());
+
+      addressBook.removeAll(addressEntries.subList(0, SIZE / 2));
+      assertEquals(SIZE / 2, addressBook.size());
+      assertFalse(addressBook.contains(addressEntries.getFirst()));
+      assertTrue(addressBook.contains(addressEntries.getLast()));
+    }
+  }
+
+  /**
+   * Measures the heap each storage engine retains after a full garbage collection. The off-heap
+   * store keeps its entries out of the heap, but the secondary and full-text indexes hold on to the
+   * entries it creates for them, so it is measured with them too, at a million entries only. Once
+   * built, the full-text index is kept up to date for as long as the address book lives, so the
+   * indexes are measured last. Sizes this machine doesn't have the memory to store on the heap are
+   * skipped.
+   */
+  @Test
+  public void testRetainedHeap() {
+    long[] entriesHeaps = new long[StorageEngine.values().length];
+
+    for (int size : RETAINED_HEAP_SIZES) {
+      for (StorageEngine storageEngine : StorageEngine.values()) {
+        if ((storageEngine == StorageEngine.HEAP) && (size * HEAP_BYTES_PER_ENTRY > memory())) {
+          System.out.println(storageEngine + ", " + size + " entries: skipped, too little memory");
+          continue;
+        }
+
+        addressBook.clear();
+        addressBook.setStorageEngine(storageEngine);
+        long emptyHeap = retainedHeap();
+        fill(size);
+        long entriesHeap = retainedHeap() - emptyHeap;
+        printRetainedHeap(storageEngine, size, "no indexes", entriesHeap);
+
+        if (size == SIZE) {
+          entriesHeaps[storageEngine.ordinal()] = entriesHeap;
+        }
+      }
+    }
+
+    long heapEntriesHeap = entriesHeaps[StorageEngine.HEAP.ordinal()];
+    assertTrue(entriesHeaps[StorageEngine.OFF_HEAP.ordinal()] < heapEntriesHeap / 10);
+
+    for (StorageEngine storageEngine : StorageEngine.values()) {
+      addressBook.clear();
+      addressBook.setStorageEngine(storageEngine);
+      long emptyHeap = retainedHeap();
+      fill(SIZE);
+      addressBook.setIndexingEnabled(true);
+      addressBook.search("main", false);
+      long indexesHeap = retainedHeap() - emptyHeap;
+      printRetainedHeap(storageEngine, SIZE, "indexes", indexesHeap);
+      addressBook.setIndexingEnabled(false);
+
+      // the indexes hold every entry, so they retain more than the entries of the heap store
+      assertTrue(indexesHeap > heapEntriesHeap);
+    }
+  }
+
+  /**
+   * Fills the address book with generated entries, a million at a time so that the generated
+   * entries aren't all on the heap at once
+   *
+   * @param size The number of entries
+   */
+  private void fill(int size) {
+    AddressDataGenerator generator = new AddressDataGenerator();
+
+    for (int first = 0; first < size; first += SIZE) {
+      addressBook.addAll(generator.entries(first, Math.min(SIZE, size - first)));
+    }
+
+    assertEquals(size, addressBook.size());
+  }
+
+  /**
+   * Returns the heap in use after a full garbage collection
+   *
+   * @return The heap in use, in bytes
+   */
+  private static long retainedHeap() {
+    // one collection can leave garbage that finalization or reference processing only frees later
+    for (int i = 0; i < 3; i++) {
+      System.gc();
+    }
+
+    return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+  }
+
+  /**
+   * Returns the memory available to the heap: its maximum size, or the machine's memory if that is
+   * smaller
+   *
+   * @return The memory, in bytes
+   */
+  private static long memory() {
+    OperatingSystemMXBean operatingSystem =
+        (OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+    return Math.min(Runtime.getRuntime().maxMemory(), operatingSystem.getTotalMemorySize());
+  }
+
+  /**
+   * Prints a retained heap measurement
+   *
+   * @param storageEngine The storage engine
+   * @param size The number of entries
+   * @param indexes Which indexes were built
+   * @param bytes The retained heap, in bytes
+   */
+  private static void printRetainedHeap(
+      StorageEngine storageEngine, int size, String indexes, long bytes) {
+    System.out.println(
+        storageEngine + ", " + size + " entries, " + indexes + ": " + (bytes >> 20) + " MB");
+  }
+
+  /** Tests that a million entries survive being written to a file and loaded again */
+  @Test
+  public void testMillionEntriesFileRoundTrip(@TempDir Path directory) {
+    String fileName = directory.resolve("addressBook.txt").toString();
+    addressBook.addAll(entries());
+    String listing = addressBook.list();
+
+    assertTrue(addressBook.writeToFile(fileName));
+    addressBook.clear();
+
+    LoadStatistics statistics = new LoadStatistics();
+    assertEquals(SIZE, addressBook.loadFromFile(fileName, statistics).size());
+    assertEquals(SIZE, statistics.getEntriesAdded());
+    assertEquals(0, statistics.getMalformedRecords());
+    assertEquals(listing, addressBook.list());
+  }
+}
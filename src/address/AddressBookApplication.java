@@ -1,6 +1,14 @@
 package address;
 
 import address.data.AddressBook;
+import address.data.StorageEngine;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
 import java.util.InputMismatchException;
 import java.util.Scanner;
 
@@ -12,7 +20,21 @@ import java.util.Scanner;
  */
 public class AddressBookApplication {
   /**
-   * Application runner
+   * Application runner. Supports the following command-line arguments:
+   *
+   * <ul>
+   *   <li>{@code --snapshot <file>}: restores the address book from a binary snapshot file on
+   *       startup if it exists, and saves the address book to it on exit; a snapshot that exists
+   *       but can't be restored is left alone
+   *   <li>{@code --journal <file>}: replays a write-ahead log on startup, after restoring the
+   *       snapshot, and records every change in it, so that changes survive a crash
+   *   <li>{@code --storage heap|off-heap}: chooses how entries are stored; {@code off-heap} keeps
+   *       entry fields outside the Java heap, for very large address books
+   *   <li>{@code --metrics}: measures the latency of every address book operation, and publishes
+   *       the metrics over JMX
+   *   <li>{@code --batch <file>}: runs the commands in a file, or in standard input if the file is
+   *       {@code -}, instead of showing the menu; see {@link Menu#runCommands} for the commands
+   * </ul>
    *
    * @param args Command-line arguments to the application
    */
@@ -20,50 +42,173 @@ public class AddressBookApplication {
     Scanner inputScanner = new Scanner(System.in);
     AddressBook addressBook = AddressBook.getAddressBook();
     char actionCharacter = 0;
+    String snapshotFileName = null;
+    String journalFileName = null;
+    String batchFileName = null;
 
-    while (actionCharacter != 'f') {
-      Menu.displayMenu();
-      System.out.print("\nPlease make a selection: ");
-
-      try {
-        String nextLine = inputScanner.nextLine();
-
-        if (nextLine.length() == 1) {
-          actionCharacter = nextLine.charAt(0);
-        } else {
-          actionCharacter = 0;
-        }
-      } catch (InputMismatchException ignored) {
-        actionCharacter = 0;
-      }
+    for (int i = 0; i < args.length; i++) {
+      switch (args[i]) {
+        case "--snapshot":
+          if (i + 1 < args.length) {
+            snapshotFileName = args[++i];
+          }
 
-      switch (actionCharacter) {
-        case 'a': // read from file
-          Menu.promptAddEntriesFromFile(inputScanner, addressBook);
           break;
-        case 'b': // new address entry
-          Menu.promptAddEntry(inputScanner, addressBook);
-          break;
-        case 'c': // remove address entry
-          Menu.promptRemoveEntry(inputScanner, addressBook);
+        case "--journal":
+          if (i + 1 < args.length) {
+            journalFileName = args[++i];
+          }
+
           break;
-        case 'd': // find address entries
-          Menu.promptFindEntries(inputScanner, addressBook);
+        case "--storage":
+          if ((i + 1 < args.length) && args[i + 1].equals("off-heap")) {
+            addressBook.setStorageEngine(StorageEngine.OFF_HEAP);
+            i++;
+          } else if ((i + 1 < args.length) && args[i + 1].equals("heap")) {
+            addressBook.setStorageEngine(StorageEngine.HEAP);
+            i++;
+          } else {
+            // leave the next argument to be read as an argument of its own
+            System.out.println("Ignoring unknown storage engine, expected heap or off-heap");
+          }
+
           break;
-        case 'e': // list address entries
-          System.out.println('\n' + addressBook.list());
+        case "--batch":
+          if (i + 1 < args.length) {
+            batchFileName = args[++i];
+          }
+
           break;
-        case 'f': // exit
-          System.out.println("Exiting...");
+        case "--metrics":
+          addressBook.getMetrics().setEnabled(true);
+
+          if (!addressBook.getMetrics().registerMBean()) {
+            System.out.println("Could not publish metrics over JMX");
+          }
+
           break;
-        default: // invalid selection
-          System.out.println("Please make a valid selection!");
+        default: // unknown argument
+          System.out.println("Ignoring unknown argument: " + args[i]);
           break;
       }
+    }
+
+    if ((snapshotFileName != null) && Files.exists(Path.of(snapshotFileName))) {
+      if (addressBook.loadSnapshot(snapshotFileName)) {
+        System.out.printf(
+            "Restored %d entries from %s\n\n", addressBook.size(), snapshotFileName);
+      } else {
+        // saving on exit would overwrite the snapshot that couldn't be read with what was loaded
+        System.out.printf(
+            "Could not restore entries from %s; it will not be saved on exit\n\n",
+            snapshotFileName);
+        snapshotFileName = null;
+      }
+    }
+
+    if (journalFileName != null) {
+      if (addressBook.openJournal(journalFileName)) {
+        System.out.printf(
+            "Recording changes in %s (%d entries)\n\n", journalFileName, addressBook.size());
+      } else {
+        System.out.printf("Could not open journal %s\n\n", journalFileName);
+      }
+    }
+
+    if (batchFileName != null) {
+      runBatch(batchFileName, addressBook);
+    } else {
+      while (actionCharacter != 'f') {
+        Menu.displayMenu();
+        System.out.print("\nPlease make a selection: ");
+
+        try {
+          String nextLine = inputScanner.nextLine();
+
+          if (nextLine.length() == 1) {
+            actionCharacter = nextLine.charAt(0);
+          } else {
+            actionCharacter = 0;
+          }
+        } catch (InputMismatchException ignored) {
+          actionCharacter = 0;
+        }
+
+        switch (actionCharacter) {
+          case 'a': // read from file
+            Menu.promptAddEntriesFromFile(inputScanner, addressBook);
+            break;
+          case 'b': // new address entry
+            Menu.promptAddEntry(inputScanner, addressBook);
+            break;
+          case 'c': // remove address entry
+            Menu.promptRemoveEntry(inputScanner, addressBook);
+            break;
+          case 'd': // find address entries
+            Menu.promptFindEntries(inputScanner, addressBook);
+            break;
+          case 'e': // list address entries
+            System.out.println();
+            Menu.displayListing(addressBook);
+            break;
+          case 'f': // exit
+            System.out.println("Exiting...");
+            break;
+          case 'g': // save to file
+            Menu.promptSaveEntriesToFile(inputScanner, addressBook);
+            break;
+          case 'h': // search address entries
+            Menu.promptSearchEntries(inputScanner, addressBook);
+            break;
+          case 'i': // show statistics
+            Menu.displayStatistics(addressBook);
+            break;
+          default: // invalid selection
+            System.out.println("Please make a valid selection!");
+            break;
+        }
+
+        System.out.println();
+      }
+    }
+
+    if (snapshotFileName != null) {
+      if (addressBook.saveSnapshot(snapshotFileName)) {
+        System.out.printf("Saved %d entries to %s\n", addressBook.size(), snapshotFileName);
+      } else {
+        System.out.printf("Could not save entries to %s\n", snapshotFileName);
+      }
+    }
 
-      System.out.println();
+    if ((journalFileName != null) && !addressBook.closeJournal()) {
+      System.out.printf("Could not write every change to %s\n", journalFileName);
     }
 
     inputScanner.close();
   }
+
+  /**
+   * Runs the commands in a file, writing their outcomes to standard output in large chunks
+   *
+   * @param fileName The file to read commands from, or {@code -} for standard input
+   * @param addressBook The address book to run the commands on
+   */
+  private static void runBatch(String fileName, AddressBook addressBook) {
+    ConsoleOutput output = new ConsoleOutput();
+
+    try (BufferedReader commands =
+        fileName.equals("-")
+            ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))
+            : Files.newBufferedReader(Path.of(fileName))) {
+      int failedCommands = Menu.runCommands(commands, output, addressBook);
+
+      if (failedCommands != 0) {
+        output.append(failedCommands).append(" commands could not be run\n");
+      }
+    } catch (IOException | InvalidPathException exception) {
+      output.append("Could not run the commands in ").append(fileName).append('\n');
+    }
+
+    output.flush();
+  }
 }
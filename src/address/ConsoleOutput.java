@@ -0,0 +1,196 @@
+package address;
+
+import address.data.AddressEntry;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+
+/**
+ * Collects console output in a reusable buffer and writes it to {@link System#out} in large
+ * chunks, so that printing thousands of entries costs a few writes rather than one flush per line.
+ * Text is encoded straight from the buffer, so appending allocates nothing. Output is only shown
+ * once it is flushed, so flush before prompting for input. Console output is not safe to use from
+ * multiple threads.
+ *
+ * <p>{@link System#out} is looked up whenever the buffer is written out, so output follows {@link
+ * System#setOut}.
+ *
+ * @author Poleon Banouvong
+ * @since 2026-10-17
+ */
+final class ConsoleOutput implements Appendable {
+  /** The number of characters buffered before they are written out */
+  private static final int BUFFER_SIZE = 1 << 15;
+
+  /** The buffered characters */
+  private final char[] characters;
+
+  /** The number of buffered characters */
+  private int length;
+
+  /** The encoded characters waiting to be written */
+  private final ByteBuffer bytes;
+
+  /** Encodes characters in the charset of {@link System#out}, or {@code null} until needed */
+  private CharsetEncoder encoder;
+
+  /** Creates empty console output */
+  ConsoleOutput() {
+    this.characters = new char[BUFFER_SIZE];
+    this.length = 0;
+    this.bytes = ByteBuffer.allocate(4 * BUFFER_SIZE);
+    this.encoder = null;
+  }
+
+  @Override
+  public ConsoleOutput append(CharSequence text) {
+    return (text == null) ? append("null") : append(text, 0, text.length());
+  }
+
+  @Override
+  public ConsoleOutput append(CharSequence text, int start, int end) {
+    if (text == null) {
+      return append("null", start, end);
+    }
+
+    while (start < end) {
+      if (length == characters.length) {
+        drain(false);
+      }
+
+      int count = Math.min(end - start, characters.length - length);
+
+      if (text instanceof String string) {
+        string.getChars(start, start + count, characters, length);
+      } else {
+        for (int i = 0; i < count; i++) {
+          characters[length + i] = text.charAt(start + i);
+        }
+      }
+
+      length += count;
+      start += count;
+    }
+
+    return this;
+  }
+
+  @Override
+  public ConsoleOutput append(char character) {
+    if (length == characters.length) {
+      drain(false);
+    }
+
+    characters[length++] = character;
+    return this;
+  }
+
+  /**
+   * Appends a number in decimal
+   *
+   * @param number The number
+   * @return This console output
+   */
+  public ConsoleOutput append(int number) {
+    if (characters.length - length < 11) {
+      drain(false);
+    }
+
+    long value = number;
+
+    if (value < 0) {
+      characters[length++] = '-';
+      value = -value;
+    }
+
+    int digitCount = 1;
+
+    for (long bound = 10; (bound <= value) && (digitCount < 10); bound *= 10) {
+      digitCount++;
+    }
+
+    for (int position = length + digitCount - 1; position >= length; position--) {
+      characters[position] = (char) ('0' + value % 10);
+      value /= 10;
+    }
+
+    length += digitCount;
+    return this;
+  }
+
+  /**
+   * Appends an address entry, formatted as {@link AddressEntry#toString} formats it
+   *
+   * @param addressEntry The address entry
+   * @return This console output
+   */
+  public ConsoleOutput append(AddressEntry addressEntry) {
+    try {
+      addressEntry.appendTo(this);
+    } catch (IOException exception) {
+      // console output never throws
+      throw new UncheckedIOException(exception);
+    }
+
+    return this;
+  }
+
+  /** Writes every buffered character to {@link System#out} and flushes it */
+  public void flush() {
+    drain(true);
+    System.out.flush();
+  }
+
+  /**
+   * Encodes the buffered characters and writes them to {@link System#out}
+   *
+   * @param endOfOutput {@code false} to keep a trailing half of a surrogate pair buffered until the
+   *     rest of it is appended
+   */
+  private void drain(boolean endOfOutput) {
+    PrintStream output = System.out;
+
+    if ((encoder == null) || !encoder.charset().equals(output.charset())) {
+      encoder =
+          output
+              .charset()
+              .newEncoder()
+              .onMalformedInput(CodingErrorAction.REPLACE)
+              .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    }
+
+    CharBuffer buffered = CharBuffer.wrap(characters, 0, length);
+
+    while (encoder.encode(buffered, bytes, endOfOutput).isOverflow()) {
+      write(output);
+    }
+
+    if (endOfOutput) {
+      while (encoder.flush(bytes).isOverflow()) {
+        write(output);
+      }
+
+      encoder.reset();
+    }
+
+    write(output);
+
+    length = buffered.remaining();
+    System.arraycopy(characters, buffered.position(), characters, 0, length);
+  }
+
+  /**
+   * Writes the encoded characters to a stream
+   *
+   * @param output The stream
+   */
+  private void write(PrintStream output) {
+    output.write(bytes.array(), 0, bytes.position());
+    bytes.clear();
+  }
+}
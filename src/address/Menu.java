@@ -2,7 +2,15 @@ package address;
 
 import address.data.AddressBook;
 import address.data.AddressEntry;
-
+import address.data.AddressPage;
+import address.data.LoadStatistics;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Scanner;
 
@@ -14,6 +22,12 @@ import java.util.Scanner;
  * @since 2024-01-25
  */
 public class Menu {
+  /** The number of entries shown at a time when finding entries */
+  static final int FIND_PAGE_SIZE = 20;
+
+  /** Buffers the output of prompts that print many entries */
+  private static final ConsoleOutput CONSOLE = new ConsoleOutput();
+
   /** Empty constructor explicitly private-protected to prevent creation of Menu instances */
   private Menu() {}
 
@@ -29,6 +43,9 @@ public class Menu {
         d) Find address entries
         e) Address book listing
         f) Quit
+        g) Save address entries to file
+        h) Search all fields
+        i) Show statistics
         ################
         """);
   }
@@ -174,13 +191,14 @@ public class Menu {
     int numberOfAddedEntries = addedEntries.size();
 
     if (numberOfAddedEntries != 0) {
-      System.out.printf(
-          "Added %d %s:\n\n",
-          numberOfAddedEntries, (numberOfAddedEntries == 1) ? "entry" : "entries");
+      CONSOLE.append("Added ").append(numberOfAddedEntries);
+      CONSOLE.append((numberOfAddedEntries == 1) ? " entry:\n\n" : " entries:\n\n");
 
       for (AddressEntry entry : addedEntries) {
-        System.out.println(entry.toString() + ((entry != addedEntries.getLast()) ? '\n' : ""));
+        CONSOLE.append(entry).append((entry != addedEntries.getLast()) ? "\n\n" : "\n");
       }
+
+      CONSOLE.flush();
     } else {
       System.out.println(
           "No entries were added. "
@@ -191,6 +209,25 @@ public class Menu {
     }
   }
 
+  /**
+   * Prompt the user to save all address entries to a file
+   *
+   * @param inputScanner The Scanner to read input from
+   * @param addressBook The address book to save entries from
+   */
+  public static void promptSaveEntriesToFile(Scanner inputScanner, AddressBook addressBook) {
+    String fileName = Menu.promptInput(inputScanner, "File name");
+    int numberOfEntries = addressBook.size();
+
+    if (addressBook.writeToFile(fileName)) {
+      System.out.printf(
+          "Saved %d %s to %s\n",
+          numberOfEntries, (numberOfEntries == 1) ? "entry" : "entries", fileName);
+    } else {
+      System.out.println("Could not save entries; the file may not be writable.");
+    }
+  }
+
   /**
    * Prompt the user to manually add an entry
    *
@@ -198,17 +235,17 @@ public class Menu {
    * @param addressBook The address book to add the entry to
    */
   public static void promptAddEntry(Scanner inputScanner, AddressBook addressBook) {
-    String firstName = Menu.prompt_FirstName(inputScanner);
-    String lastName = Menu.prompt_LastName(inputScanner);
-    String street = Menu.prompt_Street(inputScanner);
-    String city = Menu.prompt_City(inputScanner);
-    String state = Menu.prompt_State(inputScanner);
-    int zip = Menu.prompt_Zip(inputScanner);
-    String phone = Menu.prompt_Phone(inputScanner);
-    String email = Menu.prompt_Email(inputScanner);
-
     AddressEntry newEntry =
-        new AddressEntry(firstName, lastName, street, city, state, zip, phone, email);
+        AddressEntry.builder()
+            .firstName(Menu.prompt_FirstName(inputScanner))
+            .lastName(Menu.prompt_LastName(inputScanner))
+            .street(Menu.prompt_Street(inputScanner))
+            .city(Menu.prompt_City(inputScanner))
+            .state(Menu.prompt_State(inputScanner))
+            .zip(Menu.prompt_Zip(inputScanner))
+            .phone(Menu.prompt_Phone(inputScanner))
+            .email(Menu.prompt_Email(inputScanner))
+            .build();
 
     if (addressBook.add(newEntry)) {
       System.out.println("Successfully added entry");
@@ -279,23 +316,310 @@ public class Menu {
    */
   public static void promptFindEntries(Scanner inputScanner, AddressBook addressBook) {
     String startOfLastName = Menu.promptInput(inputScanner, "Last name starts with");
-    ArrayList<AddressEntry> matchingEntries = addressBook.find(startOfLastName);
+    AddressPage page = addressBook.findPage(startOfLastName, null, FIND_PAGE_SIZE);
+
+    if (page.getEntries().isEmpty()) {
+      System.out.println("There are no matching entries");
+      return;
+    }
+
+    int entryNumber = 1;
+    CONSOLE.append("Found the following entries:\n\n");
+
+    while (true) {
+      for (AddressEntry entry : page.getEntries()) {
+        if (entryNumber != 1) {
+          CONSOLE.append('\n');
+        }
+
+        CONSOLE.append(entryNumber).append(": ").append(entry).append('\n');
+        entryNumber++;
+      }
+
+      if (!page.hasNextPage()) {
+        CONSOLE.flush();
+        break;
+      }
+
+      CONSOLE.append('\n').flush();
+
+      if (!Menu.promptInput(inputScanner, "Show more entries (y/n)").equalsIgnoreCase("y")) {
+        break;
+      }
+
+      page = addressBook.findPage(startOfLastName, page.getNextCursor(), FIND_PAGE_SIZE);
+    }
+  }
+
+  /**
+   * Prompts the user to search every field of the entries for words
+   *
+   * @param inputScanner The Scanner to read input from
+   * @param addressBook The address book to search
+   */
+  public static void promptSearchEntries(Scanner inputScanner, AddressBook addressBook) {
+    String text = Menu.promptInput(inputScanner, "Words to search for");
+    String matchAll = Menu.promptInput(inputScanner, "Match every word (y/n)");
+    printEntries(addressBook.search(text, !matchAll.equalsIgnoreCase("n")));
+  }
+
+  /**
+   * Runs commands without prompting, one per line, and writes their outcomes to an {@link
+   * Appendable}. Blank lines and lines starting with {@code #} are skipped. The commands are:
+   *
+   * <ul>
+   *   <li>{@code load <file>}: adds the entries of a file, parsing it in parallel
+   *   <li>{@code add <first>|<last>|<street>|<city>|<state>|<zip>|<phone>|<email>}: adds an entry
+   *   <li>{@code remove <first>|<last>}: removes the entry with the given names
+   *   <li>{@code find <start of last name>}: lists the entries whose last name starts with a prefix
+   *   <li>{@code list}: lists every entry
+   *   <li>{@code save <file>}: saves every entry to a file
+   * </ul>
+   *
+   * A command that can't be run is reported with its line number, and the commands after it are
+   * still run.
+   *
+   * @param commands The reader to read commands from
+   * @param output The {@link Appendable} to write outcomes to, which should be buffered
+   * @param addressBook The address book to run the commands on
+   * @return The number of commands that couldn't be run
+   * @throws IOException If the commands could not be read or the outcomes could not be written
+   */
+  public static int runCommands(BufferedReader commands, Appendable output, AddressBook addressBook)
+      throws IOException {
+    int failedCommands = 0;
+    int lineNumber = 0;
+    String line;
+
+    while ((line = commands.readLine()) != null) {
+      lineNumber++;
+      line = line.strip();
+
+      if (line.isEmpty() || line.startsWith("#")) {
+        continue;
+      }
+
+      int separator = line.indexOf(' ');
+      String command = (separator < 0) ? line : line.substring(0, separator);
+      String argument = (separator < 0) ? "" : line.substring(separator + 1).strip();
+
+      try {
+        runCommand(command, argument, output, addressBook);
+      } catch (IllegalArgumentException exception) {
+        output.append("Line ").append(Integer.toString(lineNumber)).append(": ");
+        output.append(exception.getMessage()).append('\n');
+        failedCommands++;
+      }
+    }
+
+    return failedCommands;
+  }
+
+  /**
+   * Runs a command
+   *
+   * @param command The name of the command
+   * @param argument The rest of the command line
+   * @param output The {@link Appendable} to write the outcome to
+   * @param addressBook The address book to run the command on
+   * @throws IllegalArgumentException If the command can't be run
+   * @throws IOException If the outcome could not be written
+   */
+  private static void runCommand(
+      String command, String argument, Appendable output, AddressBook addressBook)
+      throws IOException {
+    switch (command) {
+      case "load":
+        requireArgument(command, argument);
+        LoadStatistics statistics = new LoadStatistics();
+
+        if (!isRegularFile(argument)) {
+          throw new IllegalArgumentException("Could not load entries from " + argument);
+        }
+
+        addressBook.loadFromFile(argument, statistics);
+        output.append(statistics.toString()).append('\n');
+        break;
+      case "add":
+        String[] fields = fields(argument, 8, "add");
+        int zip;
+
+        try {
+          zip = Integer.parseInt(fields[5]);
+        } catch (NumberFormatException exception) {
+          throw new IllegalArgumentException("ZIP code must be a number: " + fields[5]);
+        }
 
+        AddressEntry newEntry =
+            AddressEntry.builder()
+                .firstName(fields[0])
+                .lastName(fields[1])
+                .street(fields[2])
+                .city(fields[3])
+                .state(fields[4])
+                .zip(zip)
+                .phone(fields[6])
+                .email(fields[7])
+                .build();
+
+        if (addressBook.add(newEntry)) {
+          output.append("Added ").append(fields[0]).append(' ').append(fields[1]).append('\n');
+        } else {
+          output.append("Could not add ").append(fields[0]).append(' ').append(fields[1]);
+          output.append("; this may be a duplicate entry\n");
+        }
+
+        break;
+      case "remove":
+        String[] names = fields(argument, 2, "remove");
+        AddressEntry removedEntry =
+            AddressEntry.builder().firstName(names[0]).lastName(names[1]).build();
+
+        if (addressBook.remove(removedEntry)) {
+          output.append("Removed ").append(names[0]).append(' ').append(names[1]).append('\n');
+        } else {
+          output.append("No entry for ").append(names[0]).append(' ').append(names[1]);
+          output.append('\n');
+        }
+
+        break;
+      case "find":
+        requireArgument(command, argument);
+        ArrayList<AddressEntry> matchingEntries = addressBook.find(argument);
+        output.append("Found ").append(Integer.toString(matchingEntries.size()));
+        output.append((matchingEntries.size() == 1) ? " entry\n" : " entries\n");
+        int entryNumber = 1;
+
+        for (AddressEntry entry : matchingEntries) {
+          output.append(Integer.toString(entryNumber)).append(": ");
+          entry.appendTo(output);
+          output.append("\n\n");
+          entryNumber++;
+        }
+
+        break;
+      case "list":
+        addressBook.list(output);
+        output.append((addressBook.size() > 0) ? "\n\n" : "");
+        break;
+      case "save":
+        requireArgument(command, argument);
+        int numberOfEntries = addressBook.size();
+
+        if (!addressBook.writeToFile(argument)) {
+          throw new IllegalArgumentException("Could not save entries to " + argument);
+        }
+
+        output.append("Saved ").append(Integer.toString(numberOfEntries));
+        output.append((numberOfEntries == 1) ? " entry to " : " entries to ");
+        output.append(argument).append('\n');
+        break;
+      default: // unknown command
+        throw new IllegalArgumentException("Unknown command: " + command);
+    }
+  }
+
+  /**
+   * Checks that a command has an argument
+   *
+   * @param command The name of the command
+   * @param argument The argument of the command
+   * @throws IllegalArgumentException If the argument is empty
+   */
+  private static void requireArgument(String command, String argument) {
+    if (argument.isEmpty()) {
+      throw new IllegalArgumentException("Missing argument for " + command);
+    }
+  }
+
+  /**
+   * Splits the argument of a command into fields separated by {@code |}
+   *
+   * @param argument The argument of the command
+   * @param count The number of fields the command takes
+   * @param command The name of the command
+   * @return The fields, with surrounding whitespace removed
+   * @throws IllegalArgumentException If the argument doesn't have that many non-blank fields
+   */
+  private static String[] fields(String argument, int count, String command) {
+    String[] fields = argument.split("\\|", -1);
+
+    if (fields.length != count) {
+      throw new IllegalArgumentException(
+          String.format(
+              "%s takes %d fields separated by |, not %d", command, count, fields.length));
+    }
+
+    for (int i = 0; i < count; i++) {
+      fields[i] = fields[i].strip();
+
+      if (fields[i].isEmpty()) {
+        throw new IllegalArgumentException(command + " field " + (i + 1) + " is blank");
+      }
+    }
+
+    return fields;
+  }
+
+  /**
+   * Returns if a file name names a regular file
+   *
+   * @param fileName The file name
+   * @return {@code true} if the file exists and is a regular file
+   */
+  private static boolean isRegularFile(String fileName) {
+    try {
+      return Files.isRegularFile(Path.of(fileName));
+    } catch (InvalidPathException exception) {
+      return false;
+    }
+  }
+
+  /**
+   * Prints a numbered listing of every entry
+   *
+   * @param addressBook The address book to list the entries of
+   */
+  public static void displayListing(AddressBook addressBook) {
+    try {
+      addressBook.list(CONSOLE);
+    } catch (IOException exception) {
+      // console output never throws
+      throw new UncheckedIOException(exception);
+    }
+
+    CONSOLE.append('\n').flush();
+  }
+
+  /**
+   * Prints the address book's metrics: its size, and the latencies of its operations if they are
+   * being measured
+   *
+   * @param addressBook The address book to print the metrics of
+   */
+  public static void displayStatistics(AddressBook addressBook) {
+    System.out.println(addressBook.getMetrics().report());
+  }
+
+  /**
+   * Prints numbered entries, or a message if there are none
+   *
+   * @param matchingEntries The entries to print
+   */
+  private static void printEntries(ArrayList<AddressEntry> matchingEntries) {
     if (matchingEntries.isEmpty()) {
       System.out.println("There are no matching entries");
     } else {
       int entryNumber = 1;
-      System.out.println("Found the following entries:\n");
+      CONSOLE.append("Found the following entries:\n\n");
 
       for (AddressEntry entry : matchingEntries) {
-        System.out.println(
-            entryNumber
-                + ": "
-                + entry.toString()
-                + ((entry != matchingEntries.getLast()) ? '\n' : ""));
-
+        CONSOLE.append(entryNumber).append(": ").append(entry);
+        CONSOLE.append((entry != matchingEntries.getLast()) ? "\n\n" : "\n");
         entryNumber++;
       }
+
+      CONSOLE.flush();
     }
   }
 }
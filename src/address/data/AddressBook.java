@@ -1,65 +1,203 @@
 package address.data;
 
 import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.TreeSet;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
- * Holds a list of address entries
+ * Holds a list of address entries. The address book is safe to use from multiple threads: lookups
+ * share a read lock and run concurrently with each other, while changes take the write lock.
  *
  * @author Poleon Banouvong
  * @since 2024-01-25
  */
 public class AddressBook {
   /** The address entry list */
-  private final TreeSet<AddressEntry> addressEntryList;
+  private EntryStore addressEntryList;
 
-  /** The AddressBook singleton */
-  private static AddressBook addressBook = null;
+  /** Secondary indexes over the address entry list, or {@code null} if indexing is disabled */
+  private SecondaryIndexes secondaryIndexes;
+
+  /** Guards the address entry list and the secondary indexes */
+  private final ReentrantReadWriteLock lock;
+
+  /** Counts last names for {@link #autocomplete}, or {@code null} until it is first needed */
+  private NameTrie lastNameTrie;
+
+  /** Counts first names for {@link #autocompleteFirstName}, or {@code null} until it is needed */
+  private NameTrie firstNameTrie;
+
+  /** Indexes last names for {@link #fuzzyFind}, or {@code null} until it is first needed */
+  private FuzzyNameIndex fuzzyNameIndex;
+
+  /** Indexes the words of every field for {@link #search}, or {@code null} until it is needed */
+  private FullTextIndex fullTextIndex;
+
+  /** The write-ahead log changes are recorded in, or {@code null} if there is none */
+  private AddressBookJournal journal;
+
+  /** The latencies of operations, measured only while enabled */
+  private final AddressBookMetrics metrics;
+
+  /** The default time changes are batched for before the journal is forced to disk */
+  public static final long DEFAULT_JOURNAL_SYNC_INTERVAL_MILLIS = 10;
+
+  /** The default journal size at which the journal is compacted */
+  public static final long DEFAULT_JOURNAL_COMPACTION_THRESHOLD = 64L << 20;
+
+  /** Holds the AddressBook singleton, which is created when this class is first used */
+  private static class Holder {
+    /** The AddressBook singleton */
+    private static final AddressBook ADDRESS_BOOK = new AddressBook();
+  }
 
   /**
    * Creates a new address book. This constructor is private-protected to enforce the singleton
    * pattern.
    */
   private AddressBook() {
-    addressEntryList = new TreeSet<AddressEntry>();
+    addressEntryList = new TreeEntryStore();
+    secondaryIndexes = null;
+    lock = new ReentrantReadWriteLock();
+    lastNameTrie = null;
+    firstNameTrie = null;
+    fuzzyNameIndex = null;
+    fullTextIndex = null;
+    journal = null;
+    metrics = new AddressBookMetrics(this);
   }
 
   /**
-   * Returns the AddressBook singleton, or creates and returns a new AddressBook singleton if it
-   * hasn't been created
+   * Returns the AddressBook singleton, creating it the first time this is called. The singleton is
+   * created by the class loader, so it is safely published to every thread.
    */
   public static AddressBook getAddressBook() {
-    if (addressBook == null) {
-      addressBook = new AddressBook();
-    }
+    return Holder.ADDRESS_BOOK;
+  }
 
-    return addressBook;
+  /**
+   * Returns the metrics of the address book. Operation latencies are only measured after {@link
+   * AddressBookMetrics#setEnabled} is called.
+   *
+   * @return The metrics
+   */
+  public AddressBookMetrics getMetrics() {
+    return metrics;
   }
 
-  /** Clears all {@link AddressEntry}s from the address entry list */
+  /**
+   * Clears all {@link AddressEntry}s from the address entry list. Unlike the other changes, clearing
+   * isn't refused when the journal can't be written.
+   */
   public void clear() {
-    addressEntryList.clear();
+    lock.writeLock().lock();
+
+    try {
+      addressEntryList.clear();
+
+      if (secondaryIndexes != null) {
+        secondaryIndexes.clear();
+      }
+
+      if (lastNameTrie != null) {
+        lastNameTrie.clear();
+      }
+
+      if (firstNameTrie != null) {
+        firstNameTrie.clear();
+      }
+
+      if (fuzzyNameIndex != null) {
+        fuzzyNameIndex.clear();
+      }
+
+      if (fullTextIndex != null) {
+        fullTextIndex.clear();
+      }
+
+      if (journal != null) {
+        journal.logClear();
+      }
+    } finally {
+      unlockWriteLock();
+    }
   }
 
   /**
    * Adds an address entry to the address book
    *
    * @param addressEntry The address entry to add
-   * @return {@code true} if the address entry was not already in the address book
+   * @return {@code true} if the address entry was not already in the address book, and the journal
+   *     can be written if one is open
    */
   public boolean add(AddressEntry addressEntry) {
-    return addressEntryList.add(addressEntry);
+    long metricsStartTime = metrics.startTime();
+    lock.writeLock().lock();
+
+    try {
+      if (journalRefusesChanges()) {
+        return false;
+      }
+
+      boolean entryWasAdded = addressEntryList.add(addressEntry);
+
+      if (entryWasAdded) {
+        entryAdded(addressEntry);
+      }
+
+      return entryWasAdded;
+    } finally {
+      unlockWriteLock();
+      metrics.record(AddressOperation.ADD, metricsStartTime);
+    }
   }
 
   /**
    * Removes an address entry from the address book
    *
    * @param addressEntry The address entry to remove
-   * @return {@code true} if the address entry was in the address book
+   * @return {@code true} if the address entry was in the address book, and the journal can be
+   *     written if one is open
    */
   public boolean remove(AddressEntry addressEntry) {
-    return addressEntryList.remove(addressEntry);
+    long metricsStartTime = metrics.startTime();
+    lock.writeLock().lock();
+
+    try {
+      if (journalRefusesChanges()) {
+        return false;
+      }
+
+      // the indexes need the stored entry, whose other fields may differ from the given one
+      AddressEntry storedEntry = addressEntryList.ceiling(addressEntry);
+
+      if ((storedEntry == null) || !storedEntry.equals(addressEntry)) {
+        return false;
+      }
+
+      addressEntryList.remove(storedEntry);
+      entryRemoved(storedEntry);
+
+      return true;
+    } finally {
+      unlockWriteLock();
+      metrics.record(AddressOperation.REMOVE, metricsStartTime);
+    }
   }
 
   /**
@@ -69,140 +207,1541 @@ public class AddressBook {
    * @return {@code true} if the address entry is in the address book
    */
   public boolean contains(AddressEntry addressEntry) {
-    return addressEntryList.contains(addressEntry);
+    long metricsStartTime = metrics.startTime();
+    lock.readLock().lock();
+
+    try {
+      return addressEntryList.contains(addressEntry);
+    } finally {
+      lock.readLock().unlock();
+      metrics.record(AddressOperation.CONTAINS, metricsStartTime);
+    }
   }
 
-  /** Prints out all address book entries */
-  public String list() {
-    int addressNumber = 1;
-    String listing = "";
+  /**
+   * Returns the number of entries in the address book
+   *
+   * @return The number of entries
+   */
+  public int size() {
+    lock.readLock().lock();
+
+    try {
+      return addressEntryList.size();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Returns a sequential stream of the address book entries, in address book order. The stream
+   * sees the entries as they are when its terminal operation starts, and isn't affected by changes
+   * made while it runs: when it starts, it copies the order of the entries under the read lock, one
+   * reference or row number per entry, so even a stream that only looks at a few entries takes time
+   * and memory proportional to the size of the address book. Use {@link #find} or {@link #listPage}
+   * to look at a few entries of a large address book.
+   *
+   * @return A {@link Stream} of the entries
+   */
+  public Stream<AddressEntry> stream() {
+    return StreamSupport.stream(this::spliterator, EntrySpliterator.CHARACTERISTICS, false);
+  }
+
+  /**
+   * Returns a parallel stream of the address book entries, in address book order. The entries are
+   * split between threads in balanced halves. The stream sees the entries as they are when its
+   * terminal operation starts, and isn't affected by changes made while it runs; like {@link
+   * #stream}, it copies the order of the entries when it starts.
+   *
+   * @return A parallel {@link Stream} of the entries
+   */
+  public Stream<AddressEntry> parallelStream() {
+    return StreamSupport.stream(this::spliterator, EntrySpliterator.CHARACTERISTICS, true);
+  }
 
-    for (AddressEntry addressEntry : addressEntryList) {
-      listing +=
-          (addressNumber
-              + ": "
-              + addressEntry.toString()
-              + ((addressEntry != addressEntryList.getLast()) ? "\n\n" : ""));
+  /**
+   * Returns a spliterator over the entries as they are now, for {@link #stream}
+   *
+   * @return The spliterator
+   */
+  private Spliterator<AddressEntry> spliterator() {
+    lock.readLock().lock();
 
-      addressNumber++;
+    try {
+      return addressEntryList.snapshotSpliterator();
+    } finally {
+      lock.readLock().unlock();
     }
+  }
+
+  /**
+   * Enables or disables the secondary indexes used by {@link #query}. Enabling indexing builds the
+   * indexes from the current entries; after that, they are kept up to date as entries are added and
+   * removed. Disabling indexing drops the indexes. The indexes hold every entry, so with the {@link
+   * StorageEngine#OFF_HEAP} engine they keep entries on the heap that the store doesn't.
+   *
+   * @param enabled {@code true} to enable indexing, {@code false} to disable it
+   */
+  public void setIndexingEnabled(boolean enabled) {
+    lock.writeLock().lock();
 
-    return listing;
+    try {
+      if (!enabled) {
+        secondaryIndexes = null;
+      } else if (secondaryIndexes == null) {
+        secondaryIndexes = new SecondaryIndexes();
+
+        for (AddressEntry addressEntry : addressEntryList) {
+          secondaryIndexes.add(addressEntry);
+        }
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
   }
 
   /**
-   * Adds and returns a list of address entries read from a file
+   * Changes how the address book stores its entries, moving the current entries to the new
+   * storage engine
    *
-   * @param fileName The file to read address entries from
-   * @return An {@link ArrayList} containing the added entries
+   * @param storageEngine The storage engine to use
    */
-  public ArrayList<AddressEntry> readFromFile(String fileName) {
-    if (fileName.isBlank()) {
-      return new ArrayList<AddressEntry>();
+  public void setStorageEngine(StorageEngine storageEngine) {
+    lock.writeLock().lock();
+
+    try {
+      if (storageEngine == getStorageEngine()) {
+        return;
+      }
+
+      EntryStore entryStore =
+          (storageEngine == StorageEngine.OFF_HEAP)
+              ? new OffHeapEntryStore()
+              : new TreeEntryStore();
+      entryStore.addAllSorted(
+          new ArrayList<AddressEntry>(addressEntryList),
+          Collections.newSetFromMap(new IdentityHashMap<AddressEntry, Boolean>()));
+      addressEntryList = entryStore;
+
+      if (secondaryIndexes != null) {
+        // index the entries of the new storage engine rather than those of the old one
+        secondaryIndexes = null;
+        setIndexingEnabled(true);
+      }
+    } finally {
+      lock.writeLock().unlock();
     }
+  }
 
-    ArrayList<AddressEntry> addressEntries = new ArrayList<AddressEntry>();
-    FileReader fileReader;
-    BufferedReader bufferedFileReader;
+  /**
+   * Returns how the address book stores its entries
+   *
+   * @return The storage engine in use
+   */
+  public StorageEngine getStorageEngine() {
+    lock.readLock().lock();
 
     try {
-      fileReader = new FileReader(fileName);
-      bufferedFileReader = new BufferedReader(fileReader);
+      return (addressEntryList instanceof OffHeapEntryStore)
+          ? StorageEngine.OFF_HEAP
+          : StorageEngine.HEAP;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
 
-      AddressEntry nextEntry = new AddressEntry();
-      int addressEntryFieldNumber = 0;
-      boolean malformedEntry = false;
-      String addressFieldLine;
+  /**
+   * Returns if the secondary indexes used by {@link #query} are enabled
+   *
+   * @return {@code true} if indexing is enabled
+   */
+  public boolean isIndexingEnabled() {
+    lock.readLock().lock();
 
-      while (bufferedFileReader.ready()) {
-        addressFieldLine = bufferedFileReader.readLine();
+    try {
+      return secondaryIndexes != null;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
 
-        if (!addressFieldLine.isBlank()) {
-          switch (addressEntryFieldNumber) {
-            case 0: // first name
-              nextEntry.setFirstName(addressFieldLine);
-              break;
-            case 1: // last name
-              nextEntry.setLastName(addressFieldLine);
-              break;
-            case 2: // street
-              nextEntry.setStreet(addressFieldLine);
-              break;
-            case 3: // city
-              nextEntry.setCity(addressFieldLine);
-              break;
-            case 4: // state
-              nextEntry.setState(addressFieldLine);
-              break;
-            case 5: // zip code
-              try {
-                int zip = Integer.parseInt(addressFieldLine);
-                nextEntry.setZip(zip);
-              } catch (NumberFormatException exception) {
-                malformedEntry = true;
-              }
+  /**
+   * Returns the most common last names starting with a prefix, ignoring case. This is meant to be
+   * called on every keystroke: the names are counted in a trie that is built on the first call and
+   * kept up to date as entries are added and removed, so a call only visits the names it returns.
+   *
+   * @param prefix The prefix to complete
+   * @param limit The maximum number of names to return
+   * @return The names and the number of entries with each, most common first, with names that are
+   *     equally common in alphabetical order
+   */
+  public ArrayList<NameCompletion> autocomplete(String prefix, int limit) {
+    return autocomplete(prefix, limit, false);
+  }
 
-              break;
-            case 6: // phone
-              nextEntry.setPhone(addressFieldLine);
-              break;
-            case 7: // email
-              nextEntry.setEmail(addressFieldLine);
-              break;
-            default: // unknown field number
-              break;
-          }
+  /**
+   * Returns the most common first names starting with a prefix, ignoring case, like {@link
+   * #autocomplete}
+   *
+   * @param prefix The prefix to complete
+   * @param limit The maximum number of names to return
+   * @return The names and the number of entries with each, most common first, with names that are
+   *     equally common in alphabetical order
+   */
+  public ArrayList<NameCompletion> autocompleteFirstName(String prefix, int limit) {
+    return autocomplete(prefix, limit, true);
+  }
 
-          if (malformedEntry) {
-            bufferedFileReader.close();
-            return addressEntries;
-          }
+  /**
+   * Returns an estimate of the heap used by the name counts behind {@link #autocomplete} and {@link
+   * #autocompleteFirstName}
+   *
+   * @return The estimated number of bytes, or 0 if neither has been called yet
+   */
+  public long getAutocompleteMemoryUsage() {
+    lock.readLock().lock();
 
-          if (addressEntryFieldNumber == 7) {
-            // 7 is the last field number
-            boolean entryWasAdded = addressEntryList.add(nextEntry);
+    try {
+      long memoryUsage = 0;
 
-            if (entryWasAdded) {
-              addressEntries.add(nextEntry);
-            }
+      if (lastNameTrie != null) {
+        memoryUsage += lastNameTrie.memoryUsage();
+      }
 
-            nextEntry = new AddressEntry();
-            addressEntryFieldNumber = 0;
+      if (firstNameTrie != null) {
+        memoryUsage += firstNameTrie.memoryUsage();
+      }
+
+      return memoryUsage;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Returns the most common last or first names starting with a prefix, building the trie of those
+   * names if this is the first call for them
+   *
+   * @param prefix The prefix to complete
+   * @param limit The maximum number of names to return
+   * @param firstNames {@code true} to complete first names, {@code false} for last names
+   * @return The names and the number of entries with each
+   */
+  private ArrayList<NameCompletion> autocomplete(String prefix, int limit, boolean firstNames) {
+    String key = AddressEntry.sortKey(prefix).trim();
+
+    lock.readLock().lock();
+
+    try {
+      NameTrie nameTrie = firstNames ? firstNameTrie : lastNameTrie;
+
+      if (nameTrie != null) {
+        return nameTrie.complete(key, limit);
+      }
+    } finally {
+      lock.readLock().unlock();
+    }
+
+    lock.writeLock().lock();
+
+    try {
+      NameTrie nameTrie = firstNames ? firstNameTrie : lastNameTrie;
+
+      if (nameTrie == null) {
+        nameTrie = new NameTrie();
+
+        for (AddressEntry addressEntry : addressEntryList) {
+          if (firstNames) {
+            nameTrie.add(addressEntry.getFirstNameKey(), addressEntry.getFirstName());
           } else {
-            addressEntryFieldNumber++;
+            nameTrie.add(addressEntry.getLastNameKey(), addressEntry.getLastName());
           }
         }
+
+        if (firstNames) {
+          firstNameTrie = nameTrie;
+        } else {
+          lastNameTrie = nameTrie;
+        }
       }
-    } catch (IOException exception) {
-      return new ArrayList<AddressEntry>();
+
+      return nameTrie.complete(key, limit);
+    } finally {
+      lock.writeLock().unlock();
     }
+  }
 
-    return addressEntries;
+  /**
+   * Returns address entries whose last name is spelled like, or sounds like, a possibly misspelled
+   * last name, ignoring case. Distinct last names are indexed in sorted order and by their Soundex
+   * codes on the first call, and the index is kept up to date as entries are added and removed, so
+   * last names sharing a prefix that is already too far from the given one are skipped together.
+   *
+   * @param lastName The last name to match
+   * @param maximumDistance The largest number of inserted, deleted or substituted characters in a
+   *     last name that doesn't sound like the given one, and the largest difference in length of
+   *     one that does
+   * @param limit The maximum number of entries to return
+   * @return An {@link ArrayList} containing the matching entries, best match first: by edit
+   *     distance, then last names that sound alike, then in address book order
+   */
+  public ArrayList<AddressEntry> fuzzyFind(String lastName, int maximumDistance, int limit) {
+    long metricsStartTime = metrics.startTime();
+
+    try {
+      return fuzzyFindEntries(lastName, maximumDistance, limit);
+    } finally {
+      metrics.record(AddressOperation.FUZZY_FIND, metricsStartTime);
+    }
   }
 
   /**
-   * Returns a list of address entries whose last name starts with the provided string
+   * Finds the entries whose last name is spelled like, or sounds like, a last name, building the
+   * fuzzy name index on first use
    *
-   * @param startOfLastName The prefix to match last names against
-   * @return An {@link ArrayList} containing the matching entries
+   * @param lastName The last name to match, which may be misspelled
+   * @param maximumDistance The largest edit distance of a match that doesn't sound alike
+   * @param limit The largest number of entries to return
+   * @return The matching entries
    */
-  public ArrayList<AddressEntry> find(String startOfLastName) {
-    startOfLastName = startOfLastName.toLowerCase().trim();
+  private ArrayList<AddressEntry> fuzzyFindEntries(
+      String lastName, int maximumDistance, int limit) {
+    String lastNameKey = AddressEntry.sortKey(lastName).trim();
 
-    if (startOfLastName.isEmpty()) {
+    if (lastNameKey.isEmpty() || (limit <= 0)) {
       return new ArrayList<AddressEntry>();
     }
 
+    lock.readLock().lock();
+
+    try {
+      if (fuzzyNameIndex != null) {
+        return fuzzyMatches(lastNameKey, maximumDistance, limit);
+      }
+    } finally {
+      lock.readLock().unlock();
+    }
+
+    lock.writeLock().lock();
+
+    try {
+      if (fuzzyNameIndex == null) {
+        fuzzyNameIndex = new FuzzyNameIndex();
+
+        for (AddressEntry addressEntry : addressEntryList) {
+          fuzzyNameIndex.add(addressEntry.getLastNameKey());
+        }
+      }
+
+      return fuzzyMatches(lastNameKey, maximumDistance, limit);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Returns address entries whose last name matches a last name in the fuzzy name index. Must be
+   * called with the lock held.
+   *
+   * @param lastNameKey The case-folded last name to match
+   * @param maximumDistance The largest edit distance of a last name that doesn't sound alike
+   * @param limit The maximum number of entries to return
+   * @return An {@link ArrayList} containing the matching entries, best match first
+   */
+  private ArrayList<AddressEntry> fuzzyMatches(
+      String lastNameKey, int maximumDistance, int limit) {
     ArrayList<AddressEntry> addressEntries = new ArrayList<AddressEntry>();
 
-    for (AddressEntry addressEntry : addressEntryList) {
-      String lastNameLower = addressEntry.getLastName().toLowerCase();
+    for (String matchingName : fuzzyNameIndex.match(lastNameKey, maximumDistance)) {
+      // entries with the same last name are next to each other, after an empty first name
+      AddressEntry firstPossibleMatch = AddressEntry.builder().lastName(matchingName).build();
+
+      for (AddressEntry addressEntry : addressEntryList.tailSet(firstPossibleMatch)) {
+        if (!addressEntry.getLastNameKey().equals(matchingName)) {
+          break;
+        }
 
-      if (lastNameLower.startsWith(startOfLastName)) {
         addressEntries.add(addressEntry);
+
+        if (addressEntries.size() == limit) {
+          return addressEntries;
+        }
       }
     }
 
     return addressEntries;
   }
+
+  /**
+   * Returns address entries containing words that start with the given words, in any field and
+   * ignoring case. Text is split into words at every character that isn't a letter or a digit, and
+   * a phone number is also a single word of its digits. The words of every entry are indexed on
+   * the first call, and the index is kept up to date as entries are added and removed. Like the
+   * secondary indexes, the index holds every entry.
+   *
+   * @param text The words to search for
+   * @param matchAll {@code true} to return entries matching every word, {@code false} to return
+   *     entries matching any of them
+   * @return An {@link ArrayList} containing the matching entries, in address book order
+   */
+  public ArrayList<AddressEntry> search(String text, boolean matchAll) {
+    long metricsStartTime = metrics.startTime();
+
+    try {
+      return searchEntries(text, matchAll);
+    } finally {
+      metrics.record(AddressOperation.SEARCH, metricsStartTime);
+    }
+  }
+
+  /**
+   * Finds the entries matching the words of a text, building the full-text index on first use
+   *
+   * @param text The words to search for
+   * @param matchAll {@code true} to match every word, {@code false} to match any word
+   * @return The matching entries, in address book order
+   */
+  private ArrayList<AddressEntry> searchEntries(String text, boolean matchAll) {
+    ArrayList<AddressEntry> addressEntries = null;
+    lock.readLock().lock();
+
+    try {
+      if (fullTextIndex != null) {
+        addressEntries = fullTextIndex.search(text, matchAll);
+      }
+    } finally {
+      lock.readLock().unlock();
+    }
+
+    if (addressEntries == null) {
+      lock.writeLock().lock();
+
+      try {
+        if (fullTextIndex == null) {
+          fullTextIndex = new FullTextIndex();
+
+          for (AddressEntry addressEntry : addressEntryList) {
+            fullTextIndex.add(addressEntry);
+          }
+        }
+
+        addressEntries = fullTextIndex.search(text, matchAll);
+      } finally {
+        lock.writeLock().unlock();
+      }
+    }
+
+    // the index numbers entries in the order they were added
+    addressEntries.sort(null);
+
+    return addressEntries;
+  }
+
+  /**
+   * Returns a list of address entries matching a query. If indexing is enabled, the most selective
+   * index for the query is used to find candidates; otherwise, every entry is checked.
+   *
+   * @param query The query to match entries against
+   * @return An {@link ArrayList} containing the matching entries, in address book order
+   */
+  public ArrayList<AddressEntry> query(AddressQuery query) {
+    long metricsStartTime = metrics.startTime();
+    lock.readLock().lock();
+
+    try {
+      Collection<AddressEntry> candidates = null;
+
+      if (secondaryIndexes != null) {
+        candidates = secondaryIndexes.candidates(query);
+      }
+
+      if (candidates == null) {
+        candidates = addressEntryList;
+      }
+
+      ArrayList<AddressEntry> addressEntries = new ArrayList<AddressEntry>();
+
+      for (AddressEntry addressEntry : candidates) {
+        if (query.matches(addressEntry)) {
+          addressEntries.add(addressEntry);
+        }
+      }
+
+      return addressEntries;
+    } finally {
+      lock.readLock().unlock();
+      metrics.record(AddressOperation.QUERY, metricsStartTime);
+    }
+  }
+
+  /**
+   * Returns a numbered listing of all address book entries
+   *
+   * @return The listing, or an empty string if the address book is empty
+   */
+  public String list() {
+    StringBuilder listing = new StringBuilder();
+
+    try {
+      list(listing);
+    } catch (IOException exception) {
+      // StringBuilder never throws
+      throw new UncheckedIOException(exception);
+    }
+
+    return listing.toString();
+  }
+
+  /**
+   * Writes a numbered listing of all address book entries directly into an {@link Appendable}.
+   * Entries are written one at a time, so the listing never has to be held in memory as a whole.
+   *
+   * @param output The {@link Appendable} to write the listing to
+   * @throws IOException If the {@link Appendable} could not be written to
+   */
+  public void list(Appendable output) throws IOException {
+    long metricsStartTime = metrics.startTime();
+    lock.readLock().lock();
+
+    try {
+      int addressNumber = 1;
+
+      for (AddressEntry addressEntry : addressEntryList) {
+        if (addressNumber != 1) {
+          output.append("\n\n");
+        }
+
+        output.append(Integer.toString(addressNumber)).append(": ");
+        addressEntry.appendTo(output);
+        addressNumber++;
+      }
+    } finally {
+      lock.readLock().unlock();
+      metrics.record(AddressOperation.LIST, metricsStartTime);
+    }
+  }
+
+  /**
+   * Writes a numbered listing of all address book entries to an {@link OutputStream} as UTF-8. The
+   * stream is flushed but not closed.
+   *
+   * @param outputStream The {@link OutputStream} to write the listing to
+   * @throws IOException If the {@link OutputStream} could not be written to
+   */
+  public void writeListing(OutputStream outputStream) throws IOException {
+    Writer writer =
+        new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), 1 << 16);
+
+    list(writer);
+    writer.flush();
+  }
+
+  /**
+   * Adds and returns a list of address entries read from a file
+   *
+   * @param fileName The file to read address entries from
+   * @return An {@link ArrayList} containing the added entries
+   */
+  public ArrayList<AddressEntry> readFromFile(String fileName) {
+    long metricsStartTime = metrics.startTime();
+
+    try {
+      return readFile(fileName);
+    } finally {
+      metrics.record(AddressOperation.READ_FROM_FILE, metricsStartTime);
+    }
+  }
+
+  /**
+   * Reads address entries from a file one line at a time and adds them
+   *
+   * @param fileName The file to read
+   * @return The entries that were added
+   */
+  private ArrayList<AddressEntry> readFile(String fileName) {
+    if (fileName.isBlank()) {
+      return new ArrayList<AddressEntry>();
+    }
+
+    ArrayList<AddressEntry> readEntries = new ArrayList<AddressEntry>();
+    FileReader fileReader;
+    BufferedReader bufferedFileReader;
+
+    try {
+      fileReader = new FileReader(fileName);
+      bufferedFileReader = new BufferedReader(fileReader);
+
+      AddressEntry.Builder nextEntry = AddressEntry.builder();
+      int addressEntryFieldNumber = 0;
+      boolean malformedEntry = false;
+      String addressFieldLine;
+
+      while (bufferedFileReader.ready()) {
+        addressFieldLine = bufferedFileReader.readLine();
+
+        if (!addressFieldLine.isBlank()) {
+          switch (addressEntryFieldNumber) {
+            case 0: // first name
+              nextEntry.firstName(addressFieldLine);
+              break;
+            case 1: // last name
+              nextEntry.lastName(addressFieldLine);
+              break;
+            case 2: // street
+              nextEntry.street(addressFieldLine);
+              break;
+            case 3: // city
+              nextEntry.city(addressFieldLine);
+              break;
+            case 4: // state
+              nextEntry.state(addressFieldLine);
+              break;
+            case 5: // zip code
+              try {
+                int zip = Integer.parseInt(addressFieldLine);
+                nextEntry.zip(zip);
+              } catch (NumberFormatException exception) {
+                malformedEntry = true;
+              }
+
+              break;
+            case 6: // phone
+              nextEntry.phone(addressFieldLine);
+              break;
+            case 7: // email
+              nextEntry.email(addressFieldLine);
+              break;
+            default: // unknown field number
+              break;
+          }
+
+          if (malformedEntry) {
+            bufferedFileReader.close();
+            return addRead(readEntries);
+          }
+
+          if (addressEntryFieldNumber == 7) {
+            // 7 is the last field number
+            readEntries.add(nextEntry.build());
+            nextEntry = AddressEntry.builder();
+            addressEntryFieldNumber = 0;
+          } else {
+            addressEntryFieldNumber++;
+          }
+        }
+      }
+    } catch (IOException exception) {
+      return new ArrayList<AddressEntry>();
+    }
+
+    return addRead(readEntries);
+  }
+
+  /**
+   * Adds the entries read from a file in one batch, so that a storage engine with slow single-entry
+   * changes loads a file in one pass
+   *
+   * @param readEntries The entries read, in the order they were read
+   * @return An {@link ArrayList} containing the entries that were added, in the order they were read
+   */
+  private ArrayList<AddressEntry> addRead(ArrayList<AddressEntry> readEntries) {
+    boolean[] outcomes = addSorted(readEntries);
+    ArrayList<AddressEntry> addedEntries = new ArrayList<AddressEntry>();
+
+    for (int i = 0; i < outcomes.length; i++) {
+      if (outcomes[i]) {
+        addedEntries.add(readEntries.get(i));
+      }
+    }
+
+    return addedEntries;
+  }
+
+  /**
+   * Writes every address book entry to a file, in the format read by {@link #readFromFile}: each
+   * entry is written as 8 lines (first name, last name, street, city, state, ZIP code, phone and
+   * e-mail) followed by a blank line. The file is replaced atomically, so it holds either its old
+   * contents or the complete new listing, even if writing fails partway.
+   *
+   * <p>Entries with a blank field, or a field spanning several lines, cannot be read back.
+   *
+   * @param fileName The file to write address entries to
+   * @return {@code true} if the file was written
+   */
+  public boolean writeToFile(String fileName) {
+    if (fileName.isBlank()) {
+      return false;
+    }
+
+    long metricsStartTime = metrics.startTime();
+    lock.readLock().lock();
+
+    try {
+      BufferedFileOutput.replace(
+          Path.of(fileName),
+          output -> {
+            for (AddressEntry addressEntry : addressEntryList) {
+              writeEntry(output, addressEntry);
+            }
+          });
+
+      return true;
+    } catch (IOException | InvalidPathException exception) {
+      return false;
+    } finally {
+      lock.readLock().unlock();
+      metrics.record(AddressOperation.WRITE_TO_FILE, metricsStartTime);
+    }
+  }
+
+  /**
+   * Writes a binary snapshot of the address book to a file. The file is replaced atomically, like
+   * {@link #writeToFile}.
+   *
+   * @param fileName The file to write the snapshot to
+   * @return {@code true} if the snapshot was written
+   * @see #loadSnapshot
+   */
+  public boolean saveSnapshot(String fileName) {
+    if (fileName.isBlank()) {
+      return false;
+    }
+
+    lock.readLock().lock();
+
+    try {
+      BufferedFileOutput.replace(
+          Path.of(fileName), output -> AddressBookSnapshot.write(output, addressEntryList));
+
+      return true;
+    } catch (IOException | InvalidPathException exception) {
+      return false;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Replaces the contents of the address book with a binary snapshot written by {@link
+   * #saveSnapshot}. As the snapshot is already sorted, the address book is built from it in linear
+   * time. If the snapshot cannot be read, the address book is left unchanged.
+   *
+   * @param fileName The file to read the snapshot from
+   * @return {@code true} if the snapshot was loaded, {@code false} if it could not be read or the
+   *     journal can't be written
+   */
+  public boolean loadSnapshot(String fileName) {
+    if (fileName.isBlank()) {
+      return false;
+    }
+
+    ArrayList<AddressEntry> snapshotEntries;
+
+    try {
+      snapshotEntries = AddressBookSnapshot.read(Path.of(fileName));
+    } catch (IOException | InvalidPathException exception) {
+      return false;
+    }
+
+    boolean sorted = true;
+
+    for (int i = 1; sorted && (i < snapshotEntries.size()); i++) {
+      sorted = snapshotEntries.get(i - 1).compareTo(snapshotEntries.get(i)) < 0;
+    }
+
+    lock.writeLock().lock();
+
+    try {
+      if (journalRefusesChanges()) {
+        return false;
+      }
+
+      clear();
+
+      if (sorted) {
+        addressEntryList.addAllSorted(
+            snapshotEntries,
+            Collections.newSetFromMap(new IdentityHashMap<AddressEntry, Boolean>()));
+        entriesAdded(snapshotEntries);
+      } else {
+        // a snapshot written by another version may be ordered differently
+        addSorted(snapshotEntries);
+      }
+    } finally {
+      unlockWriteLock();
+    }
+
+    return true;
+  }
+
+  /**
+   * Opens a write-ahead log with the default sync interval and compaction threshold
+   *
+   * @param fileName The journal file
+   * @return {@code true} if the journal was replayed and opened
+   * @see #openJournal(String, long, long)
+   */
+  public boolean openJournal(String fileName) {
+    return openJournal(
+        fileName, DEFAULT_JOURNAL_SYNC_INTERVAL_MILLIS, DEFAULT_JOURNAL_COMPACTION_THRESHOLD);
+  }
+
+  /**
+   * Replays a write-ahead log on top of the current entries, then records every later change in it,
+   * so that the address book can be rebuilt after a crash by loading the same snapshot or text file
+   * and opening the journal again. Changes are batched and forced to disk together every sync
+   * interval. When the journal reaches the compaction threshold, and has doubled since it was last
+   * compacted, it is rewritten in the background as the current entries. Replay stops at a record
+   * that was cut short or is corrupt, and that record is discarded. Once the journal can't be
+   * written, changes other than {@link #clear} are refused, and {@link #closeJournal} reports the
+   * failure.
+   *
+   * @param fileName The journal file, which is created if it doesn't exist
+   * @param syncIntervalMillis How long changes are batched for before being forced to disk; 0
+   *     forces every change before it returns
+   * @param compactionThreshold The journal size at which the journal is compacted, in bytes
+   * @return {@code true} if the journal was replayed and opened, {@code false} if it could not be
+   *     read or a journal is already open
+   */
+  public boolean openJournal(String fileName, long syncIntervalMillis, long compactionThreshold) {
+    if (fileName.isBlank() || (syncIntervalMillis < 0)) {
+      return false;
+    }
+
+    lock.writeLock().lock();
+
+    try {
+      if (journal != null) {
+        return false;
+      }
+
+      Path file = Path.of(fileName);
+      long validLength = AddressBookJournal.replay(file, this);
+      journal =
+          new AddressBookJournal(
+              file, validLength, syncIntervalMillis, compactionThreshold, this::compactJournal);
+
+      return true;
+    } catch (IOException | InvalidPathException exception) {
+      return false;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Rewrites the write-ahead log as the current entries, dropping the history of changes
+   *
+   * @return {@code true} if the journal was compacted, {@code false} if it could not be written or
+   *     no journal is open
+   */
+  public boolean compactJournal() {
+    lock.readLock().lock();
+
+    try {
+      if (journal == null) {
+        return false;
+      }
+
+      journal.compact(addressEntryList);
+
+      return true;
+    } catch (IOException exception) {
+      return false;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Forces every pending change to disk and closes the write-ahead log
+   *
+   * @return {@code true} if every change was written, {@code false} if the journal could not be
+   *     written or no journal is open
+   */
+  public boolean closeJournal() {
+    AddressBookJournal closedJournal;
+
+    lock.writeLock().lock();
+
+    try {
+      closedJournal = journal;
+      journal = null;
+    } finally {
+      lock.writeLock().unlock();
+    }
+
+    if (closedJournal == null) {
+      return false;
+    }
+
+    try {
+      // outside the lock, as the flusher may be waiting for it to compact the journal
+      closedJournal.close();
+
+      return true;
+    } catch (IOException exception) {
+      return false;
+    }
+  }
+
+  /**
+   * Writes an address entry as 8 lines followed by a blank line
+   *
+   * @param output The output to write to
+   * @param addressEntry The address entry to write
+   * @throws IOException If the output could not be written
+   */
+  private static void writeEntry(BufferedFileOutput output, AddressEntry addressEntry)
+      throws IOException {
+    String[] fields = {
+      addressEntry.getFirstName(),
+      addressEntry.getLastName(),
+      addressEntry.getStreet(),
+      addressEntry.getCity(),
+      addressEntry.getState(),
+      Integer.toString(addressEntry.getZip()),
+      addressEntry.getPhone(),
+      addressEntry.getEmail()
+    };
+
+    for (String field : fields) {
+      output.putString(field);
+      output.putByte((byte) '\n');
+    }
+
+    output.putByte((byte) '\n');
+  }
+
+  /**
+   * Adds and returns a list of address entries read from a file, parsing the file in parallel. This
+   * is much faster than {@link #readFromFile} for large files: chunks of the file are parsed
+   * concurrently straight from the memory-mapped file, and the parsed entries are merged into the
+   * address book in one sorted pass. Unlike {@link #readFromFile}, a record with a ZIP code that
+   * isn't a number is skipped rather than ending the load.
+   *
+   * @param fileName The file to read address entries from
+   * @return An {@link ArrayList} containing the added entries, in file order
+   */
+  public ArrayList<AddressEntry> loadFromFile(String fileName) {
+    return loadFromFile(fileName, new LoadStatistics());
+  }
+
+  /**
+   * Adds and returns a list of address entries read from a file, parsing the file in parallel, and
+   * records how the load went
+   *
+   * @param fileName The file to read address entries from
+   * @param statistics The statistics to record the outcome of the load in
+   * @return An {@link ArrayList} containing the added entries, in file order
+   * @see #loadFromFile(String)
+   */
+  public ArrayList<AddressEntry> loadFromFile(String fileName, LoadStatistics statistics) {
+    long metricsStartTime = metrics.startTime();
+
+    try {
+      return loadEntries(fileName, statistics);
+    } finally {
+      metrics.record(AddressOperation.LOAD_FROM_FILE, metricsStartTime);
+    }
+  }
+
+  /**
+   * Parses a file in parallel chunks, adds its entries and records the load statistics
+   *
+   * @param fileName The file to load
+   * @param statistics The statistics to record the load in
+   * @return The entries that were added
+   */
+  private ArrayList<AddressEntry> loadEntries(String fileName, LoadStatistics statistics) {
+    long startTime = System.nanoTime();
+
+    if (fileName.isBlank()) {
+      return new ArrayList<AddressEntry>();
+    }
+
+    AddressFileLoader.Result result;
+
+    try {
+      result =
+          AddressFileLoader.parse(
+              Path.of(fileName),
+              ForkJoinPool.commonPool(),
+              AddressFileLoader.RECORDS_PER_CHUNK,
+              this::contains);
+    } catch (IOException | InvalidPathException exception) {
+      return new ArrayList<AddressEntry>();
+    }
+
+    boolean[] outcomes = addSorted(result.entries);
+    ArrayList<AddressEntry> addedEntries = new ArrayList<AddressEntry>(result.entries.size());
+
+    for (int i = 0; i < outcomes.length; i++) {
+      if (outcomes[i]) {
+        addedEntries.add(result.entries.get(i));
+      }
+    }
+
+    statistics.record(
+        result.records,
+        addedEntries.size(),
+        result.malformedRecords,
+        System.nanoTime() - startTime);
+
+    return addedEntries;
+  }
+
+  /**
+   * Adds many address entries at once. The entries are sorted once, then merged with the address
+   * entry list in a single pass when that is cheaper than inserting them one at a time. Like {@link
+   * #add}, entries equal to one already in the address book are not added, and of several equal
+   * entries only the first is added.
+   *
+   * @param addressEntries The address entries to add
+   * @return For every entry, in the order they were given, {@code true} if it was added and {@code
+   *     false} otherwise
+   */
+  public boolean[] addAll(List<AddressEntry> addressEntries) {
+    long metricsStartTime = metrics.startTime();
+
+    try {
+      return addSorted(addressEntries);
+    } finally {
+      metrics.record(AddressOperation.ADD_ALL, metricsStartTime);
+    }
+  }
+
+  /**
+   * Removes many address entries at once. The entries are sorted once, then removed from the
+   * address entry list in a single pass when that is cheaper than removing them one at a time. Like
+   * {@link #remove}, an entry is removed if the address book has an entry equal to it, and of
+   * several equal entries only the first is counted as removed.
+   *
+   * @param addressEntries The address entries to remove
+   * @return For every entry, in the order they were given, {@code true} if it was removed and
+   *     {@code false} otherwise
+   */
+  public boolean[] removeAll(List<AddressEntry> addressEntries) {
+    long metricsStartTime = metrics.startTime();
+
+    try {
+      return removeEntries(addressEntries);
+    } finally {
+      metrics.record(AddressOperation.REMOVE_ALL, metricsStartTime);
+    }
+  }
+
+  /**
+   * Removes a batch of address entries under a single write lock
+   *
+   * @param addressEntries The address entries to remove
+   * @return For every entry, {@code true} if it was removed
+   */
+  private boolean[] removeEntries(List<AddressEntry> addressEntries) {
+    ArrayList<AddressEntry> distinctEntries = sortDistinct(addressEntries);
+    Set<AddressEntry> removedEntries;
+
+    lock.writeLock().lock();
+
+    try {
+      removedEntries = removeDistinct(distinctEntries);
+    } finally {
+      unlockWriteLock();
+    }
+
+    return outcomes(addressEntries, removedEntries);
+  }
+
+  /**
+   * Applies a batch of additions and removals at once, as a single change that no other thread
+   * sees half done. Every removal is applied before every addition, so an entry can be replaced by
+   * removing it and adding its new version in the same batch.
+   *
+   * @param changes The changes to apply
+   * @return For every change, in the order they were given, {@code true} if its entry was added or
+   *     removed and {@code false} otherwise
+   * @see #addAll
+   * @see #removeAll
+   */
+  public boolean[] applyChanges(List<AddressChange> changes) {
+    long metricsStartTime = metrics.startTime();
+
+    try {
+      return applyEntryChanges(changes);
+    } finally {
+      metrics.record(AddressOperation.APPLY_CHANGES, metricsStartTime);
+    }
+  }
+
+  /**
+   * Applies a batch of changes under a single write lock, removals first
+   *
+   * @param changes The changes to apply
+   * @return For every change, {@code true} if it changed the address book
+   */
+  private boolean[] applyEntryChanges(List<AddressChange> changes) {
+    ArrayList<AddressEntry> additions = new ArrayList<AddressEntry>();
+    ArrayList<AddressEntry> removals = new ArrayList<AddressEntry>();
+
+    for (AddressChange change : changes) {
+      (change.isAddition() ? additions : removals).add(change.getEntry());
+    }
+
+    ArrayList<AddressEntry> distinctAdditions = sortDistinct(additions);
+    ArrayList<AddressEntry> distinctRemovals = sortDistinct(removals);
+    Set<AddressEntry> addedEntries;
+    Set<AddressEntry> removedEntries;
+
+    lock.writeLock().lock();
+
+    try {
+      removedEntries = removeDistinct(distinctRemovals);
+      addedEntries = addDistinct(distinctAdditions);
+    } finally {
+      unlockWriteLock();
+    }
+
+    boolean[] additionOutcomes = outcomes(additions, addedEntries);
+    boolean[] removalOutcomes = outcomes(removals, removedEntries);
+    boolean[] outcomes = new boolean[changes.size()];
+    int additionNumber = 0;
+    int removalNumber = 0;
+    int changeNumber = 0;
+
+    for (AddressChange change : changes) {
+      if (change.isAddition()) {
+        outcomes[changeNumber++] = additionOutcomes[additionNumber++];
+      } else {
+        outcomes[changeNumber++] = removalOutcomes[removalNumber++];
+      }
+    }
+
+    return outcomes;
+  }
+
+  /**
+   * Adds many address entries at once
+   *
+   * @param addressEntries The address entries to add
+   * @return For every entry, in the order they were given, {@code true} if it was added
+   * @see #addAll
+   */
+  private boolean[] addSorted(List<AddressEntry> addressEntries) {
+    ArrayList<AddressEntry> distinctEntries = sortDistinct(addressEntries);
+    Set<AddressEntry> addedEntries;
+
+    lock.writeLock().lock();
+
+    try {
+      addedEntries = addDistinct(distinctEntries);
+    } finally {
+      unlockWriteLock();
+    }
+
+    return outcomes(addressEntries, addedEntries);
+  }
+
+  /**
+   * Sorts address entries, keeping only the first of several equal entries
+   *
+   * @param addressEntries The address entries to sort
+   * @return An {@link ArrayList} containing the distinct entries, in address book order
+   */
+  private static ArrayList<AddressEntry> sortDistinct(List<AddressEntry> addressEntries) {
+    AddressEntry[] sortedEntries = addressEntries.toArray(new AddressEntry[0]);
+
+    // the sort is stable, so the first of several equal entries stays first
+    Arrays.parallelSort(sortedEntries);
+
+    ArrayList<AddressEntry> distinctEntries = new ArrayList<AddressEntry>(sortedEntries.length);
+
+    for (AddressEntry addressEntry : sortedEntries) {
+      if (distinctEntries.isEmpty() || !distinctEntries.getLast().equals(addressEntry)) {
+        distinctEntries.add(addressEntry);
+      }
+    }
+
+    return distinctEntries;
+  }
+
+  /**
+   * Adds distinct, sorted address entries to the address entry list and updates the indexes and
+   * the journal for them. Must be called with the write lock held.
+   *
+   * @param distinctEntries The address entries to add, in address book order with no two equal
+   * @return The entries that were added, compared by identity
+   */
+  private Set<AddressEntry> addDistinct(ArrayList<AddressEntry> distinctEntries) {
+    Set<AddressEntry> rejectedEntries =
+        Collections.newSetFromMap(new IdentityHashMap<AddressEntry, Boolean>());
+    Set<AddressEntry> addedEntries =
+        Collections.newSetFromMap(new IdentityHashMap<AddressEntry, Boolean>());
+
+    if (journalRefusesChanges()) {
+      return addedEntries;
+    }
+
+    addressEntryList.addAllSorted(distinctEntries, rejectedEntries);
+    ArrayList<AddressEntry> sortedAddedEntries =
+        new ArrayList<AddressEntry>(distinctEntries.size());
+
+    for (AddressEntry addressEntry : distinctEntries) {
+      if (!rejectedEntries.contains(addressEntry)) {
+        sortedAddedEntries.add(addressEntry);
+        addedEntries.add(addressEntry);
+      }
+    }
+
+    entriesAdded(sortedAddedEntries);
+
+    return addedEntries;
+  }
+
+  /**
+   * Removes distinct, sorted address entries from the address entry list and updates the indexes
+   * and the journal for them. Must be called with the write lock held.
+   *
+   * @param distinctEntries The address entries to remove, in address book order with no two equal
+   * @return The stored entries that were removed
+   */
+  private Set<AddressEntry> removeDistinct(ArrayList<AddressEntry> distinctEntries) {
+    ArrayList<AddressEntry> removedEntries = new ArrayList<AddressEntry>();
+
+    if (journalRefusesChanges()) {
+      return new HashSet<AddressEntry>();
+    }
+
+    addressEntryList.removeAllSorted(distinctEntries, removedEntries);
+    entriesRemoved(removedEntries);
+
+    return new HashSet<AddressEntry>(removedEntries);
+  }
+
+  /**
+   * Returns which of a batch of address entries were changed. Every changed entry is counted once,
+   * for the first of the given entries that matches it.
+   *
+   * @param addressEntries The address entries of the batch, in the order they were given
+   * @param changedEntries The entries that were changed, which are removed from the set
+   * @return For every entry, {@code true} if it was changed and {@code false} otherwise
+   */
+  private static boolean[] outcomes(
+      List<AddressEntry> addressEntries, Set<AddressEntry> changedEntries) {
+    boolean[] outcomes = new boolean[addressEntries.size()];
+    int entryNumber = 0;
+
+    for (AddressEntry addressEntry : addressEntries) {
+      outcomes[entryNumber++] = changedEntries.remove(addressEntry);
+    }
+
+    return outcomes;
+  }
+
+  /**
+   * Returns if changes must be refused because the journal can no longer record them, so that the
+   * address book doesn't drift from what the journal can rebuild. Must be called with the write
+   * lock held.
+   *
+   * @return {@code true} if a journal is open and can't be written
+   */
+  private boolean journalRefusesChanges() {
+    return (journal != null) && !journal.isWritable();
+  }
+
+  /**
+   * Releases the write lock, then writes and forces the changes logged under it if the journal
+   * syncs every change, so that the fsync doesn't hold up other threads. Changes made under a
+   * write lock held further up are synced when that lock is released.
+   */
+  private void unlockWriteLock() {
+    AddressBookJournal lockedJournal = journal;
+    lock.writeLock().unlock();
+
+    if ((lockedJournal != null) && !lock.isWriteLockedByCurrentThread()) {
+      lockedJournal.sync();
+    }
+  }
+
+  /**
+   * Updates the secondary indexes, the name indexes and the journal for an added entry. Must be
+   * called with the write lock held.
+   *
+   * @param addressEntry The added entry
+   */
+  private void entryAdded(AddressEntry addressEntry) {
+    if (secondaryIndexes != null) {
+      secondaryIndexes.add(addressEntry);
+    }
+
+    if (lastNameTrie != null) {
+      lastNameTrie.add(addressEntry.getLastNameKey(), addressEntry.getLastName());
+    }
+
+    if (firstNameTrie != null) {
+      firstNameTrie.add(addressEntry.getFirstNameKey(), addressEntry.getFirstName());
+    }
+
+    if (fuzzyNameIndex != null) {
+      fuzzyNameIndex.add(addressEntry.getLastNameKey());
+    }
+
+    if (fullTextIndex != null) {
+      fullTextIndex.add(addressEntry);
+    }
+
+    if (journal != null) {
+      journal.logAdd(addressEntry);
+    }
+  }
+
+  /**
+   * Updates the secondary indexes, the name indexes and the journal for many added entries at once.
+   * Must be called with the write lock held.
+   *
+   * @param sortedEntries The added entries, in address book order with no two equal
+   */
+  private void entriesAdded(List<AddressEntry> sortedEntries) {
+    if (secondaryIndexes != null) {
+      secondaryIndexes.addAll(sortedEntries);
+    }
+
+    if (lastNameTrie != null) {
+      lastNameTrie.addAll(sortedEntries, false);
+    }
+
+    if (firstNameTrie != null) {
+      firstNameTrie.addAll(sortedEntries, true);
+    }
+
+    if (fuzzyNameIndex != null) {
+      fuzzyNameIndex.addAll(sortedEntries);
+    }
+
+    if (fullTextIndex != null) {
+      fullTextIndex.addAll(sortedEntries);
+    }
+
+    if (journal != null) {
+      for (AddressEntry addressEntry : sortedEntries) {
+        journal.logAdd(addressEntry);
+      }
+    }
+  }
+
+  /**
+   * Updates the secondary indexes, the name indexes and the journal for a removed entry. Must be
+   * called with the write lock held.
+   *
+   * @param addressEntry The removed entry, as it was stored
+   */
+  private void entryRemoved(AddressEntry addressEntry) {
+    if (secondaryIndexes != null) {
+      secondaryIndexes.remove(addressEntry);
+    }
+
+    if (lastNameTrie != null) {
+      lastNameTrie.remove(addressEntry.getLastNameKey());
+    }
+
+    if (firstNameTrie != null) {
+      firstNameTrie.remove(addressEntry.getFirstNameKey());
+    }
+
+    if (fuzzyNameIndex != null) {
+      fuzzyNameIndex.remove(addressEntry.getLastNameKey());
+    }
+
+    if (fullTextIndex != null) {
+      fullTextIndex.remove(addressEntry);
+    }
+
+    if (journal != null) {
+      journal.logRemove(addressEntry);
+    }
+  }
+
+  /**
+   * Updates the secondary indexes, the name indexes and the journal for many removed entries at
+   * once. Must be called with the write lock held.
+   *
+   * @param removedEntries The removed entries, as they were stored
+   */
+  private void entriesRemoved(List<AddressEntry> removedEntries) {
+    if (secondaryIndexes != null) {
+      secondaryIndexes.removeAll(removedEntries);
+    }
+
+    if (lastNameTrie != null) {
+      lastNameTrie.removeAll(removedEntries, false);
+    }
+
+    if (firstNameTrie != null) {
+      firstNameTrie.removeAll(removedEntries, true);
+    }
+
+    if (fuzzyNameIndex != null) {
+      fuzzyNameIndex.removeAll(removedEntries);
+    }
+
+    if (fullTextIndex != null) {
+      fullTextIndex.removeAll(removedEntries);
+    }
+
+    if (journal != null) {
+      for (AddressEntry addressEntry : removedEntries) {
+        journal.logRemove(addressEntry);
+      }
+    }
+  }
+
+  /**
+   * Returns a list of address entries whose last name starts with the provided string
+   *
+   * @param startOfLastName The prefix to match last names against
+   * @return An {@link ArrayList} containing the matching entries
+   */
+  public ArrayList<AddressEntry> find(String startOfLastName) {
+    long metricsStartTime = metrics.startTime();
+
+    try {
+      return findEntries(startOfLastName);
+    } finally {
+      metrics.record(AddressOperation.FIND, metricsStartTime);
+    }
+  }
+
+  /**
+   * Finds the entries whose case-folded last name starts with a prefix
+   *
+   * @param startOfLastName The prefix to match last names against
+   * @return The matching entries
+   */
+  private ArrayList<AddressEntry> findEntries(String startOfLastName) {
+    startOfLastName = AddressEntry.sortKey(startOfLastName).trim();
+
+    if (startOfLastName.isEmpty()) {
+      return new ArrayList<AddressEntry>();
+    }
+
+    ArrayList<AddressEntry> addressEntries = new ArrayList<AddressEntry>();
+
+    // entries are ordered by case-folded last name, so all matches follow the first entry at or
+    // after the prefix itself (with an empty first name, which sorts before any other first name)
+    AddressEntry firstPossibleMatch = AddressEntry.builder().lastName(startOfLastName).build();
+
+    lock.readLock().lock();
+
+    try {
+      for (AddressEntry addressEntry : addressEntryList.tailSet(firstPossibleMatch)) {
+        if (!addressEntry.getLastNameKey().startsWith(startOfLastName)) {
+          break;
+        }
+
+        addressEntries.add(addressEntry);
+      }
+    } finally {
+      lock.readLock().unlock();
+    }
+
+    return addressEntries;
+  }
+
+  /**
+   * Returns a page of the address book listing. Pass {@code null} for the first page and the
+   * previous page's {@link AddressPage#getNextCursor} for the pages after it; only one page of
+   * entries is held in memory at a time.
+   *
+   * @param cursor The cursor of the page, or {@code null} for the first page
+   * @param pageSize The maximum number of entries on the page
+   * @return The page of entries
+   * @throws IllegalArgumentException If the page size isn't positive or the cursor is invalid
+   */
+  public AddressPage listPage(String cursor, int pageSize) {
+    return page("", cursor, pageSize);
+  }
+
+  /**
+   * Returns a page of the address entries whose last name starts with the provided string. Pass
+   * {@code null} for the first page and the previous page's {@link AddressPage#getNextCursor} for
+   * the pages after it; only one page of entries is held in memory at a time.
+   *
+   * @param startOfLastName The prefix to match last names against
+   * @param cursor The cursor of the page, or {@code null} for the first page
+   * @param pageSize The maximum number of entries on the page
+   * @return The page of matching entries
+   * @throws IllegalArgumentException If the page size isn't positive or the cursor is invalid
+   */
+  public AddressPage findPage(String startOfLastName, String cursor, int pageSize) {
+    startOfLastName = AddressEntry.sortKey(startOfLastName).trim();
+
+    if (startOfLastName.isEmpty()) {
+      return new AddressPage(new ArrayList<AddressEntry>(), null);
+    }
+
+    return page(startOfLastName, cursor, pageSize);
+  }
+
+  /**
+   * Returns a page of the address entries whose case-folded last name starts with a prefix. A
+   * cursor is the first and last names of the last entry of the previous page, so the next page
+   * starts right after that entry in address book order, even if it has since been removed.
+   *
+   * @param lastNameKey The case-folded prefix to match last names against
+   * @param cursor The cursor of the page, or {@code null} for the first page
+   * @param pageSize The maximum number of entries on the page
+   * @return The page of matching entries
+   * @throws IllegalArgumentException If the page size isn't positive or the cursor is invalid
+   */
+  private AddressPage page(String lastNameKey, String cursor, int pageSize) {
+    if (pageSize <= 0) {
+      throw new IllegalArgumentException("Page size must be positive: " + pageSize);
+    }
+
+    AddressEntry previousEntry = null;
+
+    if (cursor != null) {
+      previousEntry = AddressEntry.fromPackedBytes(Base64.getUrlDecoder().decode(cursor));
+    }
+
+    AddressEntry firstPossibleMatch = AddressEntry.builder().lastName(lastNameKey).build();
+
+    if ((previousEntry != null) && (previousEntry.compareTo(firstPossibleMatch) > 0)) {
+      firstPossibleMatch = previousEntry;
+    }
+
+    ArrayList<AddressEntry> addressEntries = new ArrayList<AddressEntry>(pageSize);
+    lock.readLock().lock();
+
+    try {
+      for (AddressEntry addressEntry : addressEntryList.tailSet(firstPossibleMatch)) {
+        if (!addressEntry.getLastNameKey().startsWith(lastNameKey)) {
+          break;
+        }
+
+        if (addressEntry.equals(previousEntry)) {
+          continue;
+        }
+
+        if (addressEntries.size() == pageSize) {
+          // there is at least one more entry, so this page isn't the last
+          AddressEntry lastEntry = addressEntries.getLast();
+          byte[] nextCursor =
+              AddressEntry.builder()
+                  .firstName(lastEntry.getFirstName())
+                  .lastName(lastEntry.getLastName())
+                  .build()
+                  .toPackedBytes();
+
+          return new AddressPage(
+              addressEntries, Base64.getUrlEncoder().withoutPadding().encodeToString(nextCursor));
+        }
+
+        addressEntries.add(addressEntry);
+      }
+    } finally {
+      lock.readLock().unlock();
+    }
+
+    return new AddressPage(addressEntries, null);
+  }
 }
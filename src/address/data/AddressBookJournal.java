@@ -0,0 +1,584 @@
+package address.data;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.zip.CRC32;
+
+/**
+ * An append-only write-ahead log of the changes made to an address book. Replaying the log on top
+ * of the state it was started from, or any later state, rebuilds the address book as it was when
+ * the log was last written, so the address book survives a crash without a full re-import.
+ *
+ * <p>Changes are encoded into an in-memory batch as they are made. A background thread writes the
+ * batch and forces it to disk every sync interval, so many changes share one write and one fsync
+ * (group commit). A change is therefore durable at most one sync interval after it was made; with a
+ * sync interval of 0, the address book writes and forces every change with {@link #sync} before it
+ * returns, after releasing its lock so that concurrent changes can share the fsync. Once a batch
+ * has been written, the background thread compacts the log if it has reached the compaction
+ * threshold and has grown to twice its size after the last compaction, so compaction needs a sync
+ * interval above 0.
+ *
+ * <p>Encoding a record can't fail, so the address book logs every change as it makes it. Once the
+ * log can't be written, later records are dropped, {@link #isWritable} reports the failure and
+ * {@link #close} throws it.
+ *
+ * <p>Every record is framed as, in big-endian order, an int length of its body, the CRC-32 of its
+ * body as an int, then the body: an operation byte followed by the entry in the {@link
+ * AddressBookSnapshot} entry format (add), its first and last name (remove), or nothing (clear). A
+ * record cut short by a crash, or one that fails its checksum, ends the replay.
+ *
+ * @author Poleon Banouvong
+ * @since 2026-10-17
+ */
+class AddressBookJournal {
+  /** Adds an entry */
+  static final byte ADD = 1;
+
+  /** Removes the entry with a first and last name */
+  static final byte REMOVE = 2;
+
+  /** Removes every entry */
+  static final byte CLEAR = 3;
+
+  /** The size of the record header: the body length and its checksum */
+  private static final int HEADER_SIZE = 2 * Integer.BYTES;
+
+  /** The size of the buffer the log is read through during replay */
+  private static final int BUFFER_SIZE = 1 << 20;
+
+  /** The batch size at which the flusher is woken before the sync interval is up */
+  private static final int MAXIMUM_BATCH_SIZE = 1 << 20;
+
+  /** How many times its compacted size the log grows to before it is compacted again */
+  private static final int COMPACTION_GROWTH_FACTOR = 2;
+
+  /** The log file */
+  private final Path file;
+
+  /** How long changes are batched before being forced to disk, in milliseconds */
+  private final long syncIntervalMillis;
+
+  /** The log size at which the log is compacted, in bytes */
+  private final long compactionThreshold;
+
+  /** Compacts the log; run by the flusher once the log reaches the compaction threshold */
+  private final Runnable compaction;
+
+  /** Guards the pending batch and the state of the flusher */
+  private final Object batchLock;
+
+  /** Guards the log channel, so that batches and compactions are written one at a time */
+  private final Object channelLock;
+
+  /** The changes that haven't been written yet */
+  private ByteArrayOutputStream pendingBatch;
+
+  /** The batch last written, reused for the next batch */
+  private ByteArrayOutputStream spareBatch;
+
+  /** Encodes the body of a record */
+  private final ByteArrayOutputStream recordBody;
+
+  /** Writes fields into the record body */
+  private final DataOutputStream recordOutput;
+
+  /** Computes record checksums */
+  private final CRC32 checksum;
+
+  /** The log channel, positioned at the end of the log */
+  private FileChannel channel;
+
+  /** The size of the log after it was last compacted, or 0 if it hasn't been compacted */
+  private long compactedSize;
+
+  /** The background thread that writes batches, or {@code null} if every change is synced */
+  private final Thread flusher;
+
+  /** If the log has been closed */
+  private boolean closed;
+
+  /** The first error writing the log, or {@code null} if there was none */
+  private volatile IOException failure;
+
+  /**
+   * Opens a log for appending, after the last complete record in it
+   *
+   * @param file The log file, which is created if it doesn't exist
+   * @param validLength The length of the complete records in the log; anything after it is cut off
+   * @param syncIntervalMillis How long changes are batched before being forced to disk
+   * @param compactionThreshold The log size at which the log is compacted, in bytes
+   * @param compaction Compacts the log
+   * @throws IOException If the log could not be opened
+   */
+  AddressBookJournal(
+      Path file,
+      long validLength,
+      long syncIntervalMillis,
+      long compactionThreshold,
+      Runnable compaction)
+      throws IOException {
+    this.file = file;
+    this.syncIntervalMillis = syncIntervalMillis;
+    this.compactionThreshold = compactionThreshold;
+    this.compaction = compaction;
+    this.batchLock = new Object();
+    this.channelLock = new Object();
+    this.pendingBatch = new ByteArrayOutputStream();
+    this.spareBatch = new ByteArrayOutputStream();
+    this.recordBody = new ByteArrayOutputStream();
+    this.recordOutput = new DataOutputStream(recordBody);
+    this.checksum = new CRC32();
+    this.channel = openChannel(file);
+    this.compactedSize = 0;
+    this.closed = false;
+    this.failure = null;
+
+    // drop a torn record, so that new records don't follow it
+    channel.truncate(validLength);
+    channel.position(validLength);
+
+    if (syncIntervalMillis > 0) {
+      flusher = new Thread(this::runFlusher, "address-book-journal");
+      flusher.setDaemon(true);
+      flusher.start();
+    } else {
+      flusher = null;
+    }
+  }
+
+  /**
+   * Replays a log, applying every complete record in it to an address book. Runs of added entries
+   * are added in batches, which storage engines with slow single-entry changes merge in one pass.
+   *
+   * @param file The log file; a missing file is an empty log
+   * @param addressBook The address book to apply the changes to
+   * @return The length of the complete records in the log
+   * @throws IOException If the log could not be read
+   */
+  static long replay(Path file, AddressBook addressBook) throws IOException {
+    if (!Files.exists(file)) {
+      return 0;
+    }
+
+    long fileLength = Files.size(file);
+    long validLength = 0;
+    CRC32 checksum = new CRC32();
+    byte[] stringBytes = new byte[256];
+    ArrayList<AddressEntry> addedEntries = new ArrayList<AddressEntry>();
+
+    try (DataInputStream input =
+        new DataInputStream(new BufferedInputStream(Files.newInputStream(file), BUFFER_SIZE))) {
+      while (true) {
+        int bodyLength;
+        int expectedChecksum;
+        byte[] body;
+
+        try {
+          bodyLength = input.readInt();
+          expectedChecksum = input.readInt();
+
+          // a length that doesn't fit the rest of the file is a torn header
+          if ((bodyLength <= 0) || (bodyLength > fileLength - validLength - HEADER_SIZE)) {
+            break;
+          }
+
+          body = new byte[bodyLength];
+          input.readFully(body);
+        } catch (EOFException exception) {
+          break;
+        }
+
+        checksum.reset();
+        checksum.update(body);
+
+        if ((int) checksum.getValue() != expectedChecksum) {
+          break;
+        }
+
+        apply(body, addressBook, stringBytes, addedEntries);
+        validLength += HEADER_SIZE + bodyLength;
+      }
+    } finally {
+      addressBook.addAll(addedEntries);
+    }
+
+    return validLength;
+  }
+
+  /**
+   * Applies the body of a record to an address book. Added entries are collected rather than added,
+   * and are added before any other change is applied.
+   *
+   * @param body The record body
+   * @param addressBook The address book to apply the change to
+   * @param stringBytes A scratch buffer for reading strings
+   * @param addedEntries The added entries that haven't been added to the address book yet
+   * @throws IOException If the record body is corrupt
+   */
+  private static void apply(
+      byte[] body,
+      AddressBook addressBook,
+      byte[] stringBytes,
+      ArrayList<AddressEntry> addedEntries)
+      throws IOException {
+    DataInputStream input = new DataInputStream(new ByteArrayInputStream(body));
+
+    try {
+      byte operation = input.readByte();
+
+      if (operation != ADD) {
+        addressBook.addAll(addedEntries);
+        addedEntries.clear();
+      }
+
+      switch (operation) {
+        case ADD:
+          addedEntries.add(AddressBookSnapshot.readEntry(input, stringBytes));
+          break;
+        case REMOVE:
+          AddressEntry removedEntry =
+              AddressEntry.builder()
+                  .firstName(AddressBookSnapshot.readString(input, stringBytes))
+                  .lastName(AddressBookSnapshot.readString(input, stringBytes))
+                  .build();
+          addressBook.remove(removedEntry);
+          break;
+        case CLEAR:
+          addressBook.clear();
+          break;
+        default:
+          throw new IOException("Unknown journal operation");
+      }
+    } catch (EOFException exception) {
+      throw new IOException("Corrupt journal record", exception);
+    }
+  }
+
+  /**
+   * Logs an added entry
+   *
+   * @param addressEntry The added entry
+   */
+  void logAdd(AddressEntry addressEntry) {
+    append(ADD, addressEntry);
+  }
+
+  /**
+   * Logs a removed entry
+   *
+   * @param addressEntry The removed entry
+   */
+  void logRemove(AddressEntry addressEntry) {
+    append(REMOVE, addressEntry);
+  }
+
+  /** Logs that every entry was removed */
+  void logClear() {
+    append(CLEAR, null);
+  }
+
+  /**
+   * Appends a record to the pending batch. The record is dropped if the log can't be written.
+   *
+   * @param operation The operation of the record
+   * @param addressEntry The entry the operation applies to, or {@code null} for a clear
+   */
+  private void append(byte operation, AddressEntry addressEntry) {
+    synchronized (batchLock) {
+      if (closed) {
+        throw new IllegalStateException("The journal is closed");
+      }
+
+      if (failure != null) {
+        return;
+      }
+
+      encodeRecord(operation, addressEntry, pendingBatch);
+
+      if ((flusher != null) && (pendingBatch.size() >= MAXIMUM_BATCH_SIZE)) {
+        batchLock.notifyAll();
+      }
+    }
+  }
+
+  /**
+   * Writes the pending batch and forces it to disk if every change is synced, rather than batched
+   * by the flusher. Called once a change has been logged, without holding the address book lock.
+   */
+  void sync() {
+    if ((flusher != null) || (failure != null)) {
+      return;
+    }
+
+    try {
+      writePendingBatch();
+    } catch (IOException exception) {
+      fail(exception);
+    }
+  }
+
+  /**
+   * Returns if the log can still be written. Changes made after the log failed can't be recovered
+   * from it.
+   *
+   * @return {@code false} if writing the log has failed
+   */
+  boolean isWritable() {
+    return failure == null;
+  }
+
+  /**
+   * Encodes a record into a batch
+   *
+   * @param operation The operation of the record
+   * @param addressEntry The entry the operation applies to, or {@code null} for a clear
+   * @param batch The batch to add the record to
+   */
+  private void encodeRecord(
+      byte operation, AddressEntry addressEntry, ByteArrayOutputStream batch) {
+    recordBody.reset();
+
+    try {
+      recordOutput.writeByte(operation);
+
+      if (operation == ADD) {
+        AddressBookSnapshot.writeEntry(recordOutput, addressEntry);
+      } else if (operation == REMOVE) {
+        AddressBookSnapshot.writeString(recordOutput, addressEntry.getFirstName());
+        AddressBookSnapshot.writeString(recordOutput, addressEntry.getLastName());
+      }
+    } catch (IOException exception) {
+      // ByteArrayOutputStream never throws
+      throw new UncheckedIOException(exception);
+    }
+
+    byte[] body = recordBody.toByteArray();
+    checksum.reset();
+    checksum.update(body);
+    writeInt(batch, body.length);
+    writeInt(batch, (int) checksum.getValue());
+    batch.write(body, 0, body.length);
+  }
+
+  /**
+   * Writes an int in big-endian order to a batch
+   *
+   * @param batch The batch to write to
+   * @param value The int to write
+   */
+  private static void writeInt(ByteArrayOutputStream batch, int value) {
+    batch.write(value >>> 24);
+    batch.write(value >>> 16);
+    batch.write(value >>> 8);
+    batch.write(value);
+  }
+
+  /**
+   * Writes the pending batch to the log and forces it to disk
+   *
+   * @return {@code true} if there was a batch to write
+   * @throws IOException If the log could not be written
+   */
+  private boolean writePendingBatch() throws IOException {
+    synchronized (channelLock) {
+      ByteArrayOutputStream batch;
+
+      synchronized (batchLock) {
+        if (pendingBatch.size() == 0) {
+          return false;
+        }
+
+        batch = pendingBatch;
+        pendingBatch = spareBatch;
+        spareBatch = batch;
+      }
+
+      ByteBuffer bytes = ByteBuffer.wrap(batch.toByteArray());
+
+      while (bytes.hasRemaining()) {
+        channel.write(bytes);
+      }
+
+      channel.force(false);
+      batch.reset();
+
+      return true;
+    }
+  }
+
+  /** Writes batches every sync interval until the log is closed */
+  private void runFlusher() {
+    while (true) {
+      synchronized (batchLock) {
+        try {
+          if (!closed && (pendingBatch.size() < MAXIMUM_BATCH_SIZE)) {
+            batchLock.wait(syncIntervalMillis);
+          }
+        } catch (InterruptedException exception) {
+          return;
+        }
+
+        if (closed) {
+          return;
+        }
+      }
+
+      try {
+        if (writePendingBatch() && needsCompaction()) {
+          compaction.run();
+        }
+      } catch (IOException exception) {
+        fail(exception);
+        return;
+      }
+    }
+  }
+
+  /**
+   * Returns the size of the log file
+   *
+   * @return The size in bytes
+   * @throws IOException If the size could not be read
+   */
+  long size() throws IOException {
+    synchronized (channelLock) {
+      return channel.size();
+    }
+  }
+
+  /**
+   * Returns if the log has reached the compaction threshold and grown enough since it was last
+   * compacted, so that a log whose compacted size is above the threshold isn't compacted after
+   * every batch
+   *
+   * @return {@code true} if the log should be compacted
+   * @throws IOException If the size could not be read
+   */
+  private boolean needsCompaction() throws IOException {
+    synchronized (channelLock) {
+      long size = channel.size();
+
+      return (size >= compactionThreshold) && (size >= COMPACTION_GROWTH_FACTOR * compactedSize);
+    }
+  }
+
+  /**
+   * Replaces the log with a clear followed by an add of every entry, which rebuilds the same
+   * address book in far fewer records. No changes may be logged while the log is being compacted.
+   *
+   * @param addressEntries Every entry in the address book
+   * @throws IOException If the log could not be compacted
+   */
+  void compact(Collection<AddressEntry> addressEntries) throws IOException {
+    checkFailureChecked();
+
+    synchronized (channelLock) {
+      writePendingBatch();
+
+      BufferedFileOutput.replace(
+          file,
+          output -> {
+            ByteArrayOutputStream record = new ByteArrayOutputStream();
+            encodeRecord(CLEAR, null, record);
+
+            for (AddressEntry addressEntry : addressEntries) {
+              encodeRecord(ADD, addressEntry, record);
+              output.putBytes(record.toByteArray(), 0, record.size());
+              record.reset();
+            }
+
+            output.putBytes(record.toByteArray(), 0, record.size());
+          });
+
+      // the old channel still refers to the replaced file
+      channel.close();
+      channel = openChannel(file);
+      compactedSize = channel.size();
+      channel.position(compactedSize);
+    }
+  }
+
+  /**
+   * Writes every pending change, forces it to disk and closes the log
+   *
+   * @throws IOException If the log could not be written or closed
+   */
+  void close() throws IOException {
+    synchronized (batchLock) {
+      if (closed) {
+        return;
+      }
+
+      closed = true;
+      batchLock.notifyAll();
+    }
+
+    if (flusher != null) {
+      try {
+        flusher.join();
+      } catch (InterruptedException exception) {
+        Thread.currentThread().interrupt();
+      }
+    }
+
+    try {
+      if (failure == null) {
+        writePendingBatch();
+      }
+    } finally {
+      synchronized (channelLock) {
+        channel.close();
+      }
+    }
+
+    checkFailureChecked();
+  }
+
+  /**
+   * Records an error writing the log, keeping the first one
+   *
+   * @param exception The error
+   */
+  private void fail(IOException exception) {
+    synchronized (batchLock) {
+      if (failure == null) {
+        failure = exception;
+      }
+    }
+  }
+
+  /**
+   * Throws the first error writing the log, if there was one
+   *
+   * @throws IOException If the log could not be written
+   */
+  private void checkFailureChecked() throws IOException {
+    if (failure != null) {
+      throw new IOException("The journal could not be written", failure);
+    }
+  }
+
+  /**
+   * Opens the log file for writing
+   *
+   * @param file The log file
+   * @return The log channel
+   * @throws IOException If the log could not be opened
+   */
+  private static FileChannel openChannel(Path file) throws IOException {
+    return FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+  }
+}
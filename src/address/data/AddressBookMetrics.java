@@ -0,0 +1,198 @@
+package address.data;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Measures the latency of every {@link AddressOperation} of an address book, and reports them
+ * along with gauges of its size. Measuring is off until it is enabled; while it is off, an
+ * operation only reads one volatile flag. Operations called by other operations, like the
+ * duplicate checks {@link AddressBook#loadFromFile} makes with {@link AddressBook#contains} while
+ * parsing, are measured as well.
+ *
+ * @author Poleon Banouvong
+ * @since 2026-10-17
+ */
+public class AddressBookMetrics implements AddressBookMetricsMXBean {
+  /** The name the metrics are registered under with the platform MBean server */
+  public static final String OBJECT_NAME = "address.data:type=AddressBookMetrics";
+
+  /** The address book the metrics are of */
+  private final AddressBook addressBook;
+
+  /** The latencies of every operation, by {@link AddressOperation#ordinal} */
+  private final LatencyHistogram[] histograms;
+
+  /** Whether operation latencies are measured */
+  private volatile boolean enabled;
+
+  /**
+   * Creates disabled metrics
+   *
+   * @param addressBook The address book the metrics are of
+   */
+  AddressBookMetrics(AddressBook addressBook) {
+    this.addressBook = addressBook;
+    this.histograms = new LatencyHistogram[AddressOperation.values().length];
+    this.enabled = false;
+
+    for (int i = 0; i < histograms.length; i++) {
+      histograms[i] = new LatencyHistogram();
+    }
+  }
+
+  /**
+   * Returns the start time of an operation, to pass to {@link #record}
+   *
+   * @return The current time in nanoseconds, or 0 if latencies aren't measured
+   */
+  long startTime() {
+    return enabled ? System.nanoTime() : 0;
+  }
+
+  /**
+   * Records the latency of an operation
+   *
+   * @param operation The operation
+   * @param startTime The start time returned by {@link #startTime}; nothing is recorded if it is 0
+   */
+  void record(AddressOperation operation, long startTime) {
+    if (startTime != 0) {
+      histograms[operation.ordinal()].record(System.nanoTime() - startTime);
+    }
+  }
+
+  @Override
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  @Override
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  @Override
+  public void reset() {
+    for (LatencyHistogram histogram : histograms) {
+      histogram.reset();
+    }
+  }
+
+  /**
+   * Returns the statistics of an operation
+   *
+   * @param operation The operation
+   * @return The statistics
+   */
+  public OperationStatistics getStatistics(AddressOperation operation) {
+    return histograms[operation.ordinal()].statistics(operation);
+  }
+
+  @Override
+  public List<OperationStatistics> getOperationStatistics() {
+    ArrayList<OperationStatistics> operationStatistics = new ArrayList<OperationStatistics>();
+
+    for (AddressOperation operation : AddressOperation.values()) {
+      OperationStatistics statistics = getStatistics(operation);
+
+      if (statistics.getCount() > 0) {
+        operationStatistics.add(statistics);
+      }
+    }
+
+    return operationStatistics;
+  }
+
+  @Override
+  public int getEntryCount() {
+    return addressBook.size();
+  }
+
+  @Override
+  public String getStorageEngine() {
+    return addressBook.getStorageEngine().name();
+  }
+
+  @Override
+  public long getHeapUsedBytes() {
+    return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+  }
+
+  @Override
+  public long getAutocompleteMemoryBytes() {
+    return addressBook.getAutocompleteMemoryUsage();
+  }
+
+  @Override
+  public long getStringPoolBytesSaved() {
+    return StringPool.getStringPool().getBytesSaved();
+  }
+
+  /**
+   * Registers the metrics with the platform MBean server under {@link #OBJECT_NAME}, so JMX
+   * clients can read them
+   *
+   * @return {@code true} if the metrics are registered
+   */
+  public boolean registerMBean() {
+    try {
+      MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+      ObjectName name = new ObjectName(OBJECT_NAME);
+
+      if (!server.isRegistered(name)) {
+        server.registerMBean(this, name);
+      }
+
+      return true;
+    } catch (JMException exception) {
+      return false;
+    }
+  }
+
+  @Override
+  public String report() {
+    StringBuilder report = new StringBuilder();
+    report.append(
+        String.format(
+            "Entries: %d (%s storage)\nHeap in use: %.1f MB, of which autocompletion %.1f MB\n",
+            getEntryCount(),
+            getStorageEngine(),
+            getHeapUsedBytes() / 1e6,
+            getAutocompleteMemoryBytes() / 1e6));
+    report.append("String pool: ").append(StringPool.getStringPool()).append('\n');
+
+    List<OperationStatistics> operationStatistics = getOperationStatistics();
+
+    if (!enabled && operationStatistics.isEmpty()) {
+      report.append("Latencies aren't measured while metrics are disabled");
+      return report.toString();
+    }
+
+    report.append(
+        String.format(
+            "Latencies in microseconds:\n%-13s %10s %10s %10s %10s %10s %10s %10s",
+            "operation", "count", "mean", "p50", "p90", "p99", "p99.9", "max"));
+
+    for (OperationStatistics statistics : operationStatistics) {
+      report.append('\n').append(statistics);
+    }
+
+    return report.toString();
+  }
+
+  /**
+   * Converts the metrics into an output-friendly report
+   *
+   * @return The report
+   * @see #report
+   */
+  public String toString() {
+    return report();
+  }
+}
@@ -0,0 +1,78 @@
+package address.data;
+
+import java.util.List;
+
+/**
+ * The management interface of {@link AddressBookMetrics}, through which JMX clients such as
+ * JConsole read the address book's metrics
+ *
+ * @author Poleon Banouvong
+ * @since 2026-10-17
+ */
+public interface AddressBookMetricsMXBean {
+  /**
+   * Returns if operation latencies are being measured
+   *
+   * @return {@code true} if latencies are measured
+   */
+  boolean isEnabled();
+
+  /**
+   * Starts or stops measuring operation latencies
+   *
+   * @param enabled {@code true} to measure latencies
+   */
+  void setEnabled(boolean enabled);
+
+  /** Removes every measured latency */
+  void reset();
+
+  /**
+   * Returns the number of entries in the address book
+   *
+   * @return The number of entries
+   */
+  int getEntryCount();
+
+  /**
+   * Returns how the address book stores its entries
+   *
+   * @return The name of the storage engine
+   */
+  String getStorageEngine();
+
+  /**
+   * Returns the heap in use by the whole application, of which the address book is most
+   *
+   * @return The number of bytes in use
+   */
+  long getHeapUsedBytes();
+
+  /**
+   * Returns an estimate of the heap used by the autocompletion indexes
+   *
+   * @return The estimated number of bytes
+   */
+  long getAutocompleteMemoryBytes();
+
+  /**
+   * Returns an estimate of the heap saved by pooling repeated field values
+   *
+   * @return The estimated number of bytes saved
+   */
+  long getStringPoolBytesSaved();
+
+  /**
+   * Returns the statistics of every operation that ran since the metrics were last reset
+   *
+   * @return The statistics, in {@link AddressOperation} order
+   */
+  List<OperationStatistics> getOperationStatistics();
+
+  /**
+   * Returns a report of every metric
+   *
+   * @return The report
+   */
+  String report();
+}
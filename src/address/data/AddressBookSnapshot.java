@@ -0,0 +1,186 @@
+package address.data;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+
+/**
+ * Reads and writes binary snapshots of an address book. A snapshot is much faster to load than the
+ * text format, as it needs no line scanning or number parsing and its entries are already sorted.
+ *
+ * <p>A snapshot holds, in big-endian order:
+ *
+ * <ol>
+ *   <li>the magic number {@link #MAGIC} and the format {@link #VERSION}
+ *   <li>the number of entries, as an int
+ *   <li>every entry in {@link AddressEntry#compareTo} order, as its first name, last name, street,
+ *       city and state, its ZIP code as an int, then its phone number and e-mail address. Every
+ *       string is written as an int length followed by that many bytes of UTF-8.
+ * </ol>
+ *
+ * @author Poleon Banouvong
+ * @since 2026-10-17
+ */
+class AddressBookSnapshot {
+  /** Marks a file as an address book snapshot ("ABSN") */
+  static final int MAGIC = 0x4142534E;
+
+  /** The version of the snapshot format */
+  static final int VERSION = 1;
+
+  /** The size of the buffer snapshots are read through */
+  private static final int BUFFER_SIZE = 1 << 20;
+
+  /** Empty constructor explicitly private-protected to prevent creation of snapshot instances */
+  private AddressBookSnapshot() {}
+
+  /**
+   * Writes a snapshot of address entries
+   *
+   * @param output The output to write to
+   * @param addressEntries The entries to write, in {@link AddressEntry#compareTo} order
+   * @throws IOException If the output could not be written
+   */
+  static void write(BufferedFileOutput output, Collection<AddressEntry> addressEntries)
+      throws IOException {
+    output.putInt(MAGIC);
+    output.putInt(VERSION);
+    output.putInt(addressEntries.size());
+
+    for (AddressEntry addressEntry : addressEntries) {
+      output.putLengthPrefixedString(addressEntry.getFirstName());
+      output.putLengthPrefixedString(addressEntry.getLastName());
+      output.putLengthPrefixedString(addressEntry.getStreet());
+      output.putLengthPrefixedString(addressEntry.getCity());
+      output.putLengthPrefixedString(addressEntry.getState());
+      output.putInt(addressEntry.getZip());
+      output.putLengthPrefixedString(addressEntry.getPhone());
+      output.putLengthPrefixedString(addressEntry.getEmail());
+    }
+  }
+
+  /**
+   * Reads the entries of a snapshot
+   *
+   * @param file The snapshot file
+   * @return The entries, in the order they were written
+   * @throws IOException If the file could not be read, or isn't a snapshot of a supported version
+   */
+  static ArrayList<AddressEntry> read(Path file) throws IOException {
+    try (DataInputStream input =
+        new DataInputStream(new BufferedInputStream(Files.newInputStream(file), BUFFER_SIZE))) {
+      if (input.readInt() != MAGIC) {
+        throw new IOException(file + " is not an address book snapshot");
+      }
+
+      int version = input.readInt();
+
+      if (version != VERSION) {
+        throw new IOException("Unsupported snapshot version " + version + " in " + file);
+      }
+
+      int entryCount = input.readInt();
+
+      if (entryCount < 0) {
+        throw new IOException("Corrupt entry count in " + file);
+      }
+
+      // don't trust a corrupt count with a huge allocation up front
+      ArrayList<AddressEntry> addressEntries =
+          new ArrayList<AddressEntry>(Math.min(entryCount, 1 << 20));
+      byte[] stringBytes = new byte[256];
+
+      for (int i = 0; i < entryCount; i++) {
+        addressEntries.add(readEntry(input, stringBytes));
+      }
+
+      if (input.read() != -1) {
+        throw new IOException("Unexpected data after the last entry in " + file);
+      }
+
+      return addressEntries;
+    } catch (EOFException exception) {
+      throw new IOException(file + " is truncated", exception);
+    }
+  }
+
+  /**
+   * Writes an address entry in the snapshot entry format
+   *
+   * @param output The output to write to
+   * @param addressEntry The address entry to write
+   * @throws IOException If the output could not be written
+   */
+  static void writeEntry(DataOutputStream output, AddressEntry addressEntry) throws IOException {
+    writeString(output, addressEntry.getFirstName());
+    writeString(output, addressEntry.getLastName());
+    writeString(output, addressEntry.getStreet());
+    writeString(output, addressEntry.getCity());
+    writeString(output, addressEntry.getState());
+    output.writeInt(addressEntry.getZip());
+    writeString(output, addressEntry.getPhone());
+    writeString(output, addressEntry.getEmail());
+  }
+
+  /**
+   * Reads an address entry in the snapshot entry format
+   *
+   * @param input The input to read from
+   * @param stringBytes A scratch buffer; strings longer than it are read into a new array
+   * @return The address entry
+   * @throws IOException If the input could not be read
+   */
+  static AddressEntry readEntry(DataInputStream input, byte[] stringBytes) throws IOException {
+    String firstName = readString(input, stringBytes);
+    String lastName = readString(input, stringBytes);
+    String street = readString(input, stringBytes);
+    String city = readString(input, stringBytes);
+    String state = readString(input, stringBytes);
+    int zip = input.readInt();
+    String phone = readString(input, stringBytes);
+    String email = readString(input, stringBytes);
+
+    return new AddressEntry(firstName, lastName, street, city, state, zip, phone, email);
+  }
+
+  /**
+   * Writes a string as UTF-8, preceded by its length in bytes as an int
+   *
+   * @param output The output to write to
+   * @param value The string to write
+   * @throws IOException If the output could not be written
+   */
+  static void writeString(DataOutputStream output, String value) throws IOException {
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    output.writeInt(bytes.length);
+    output.write(bytes);
+  }
+
+  /**
+   * Reads a length-prefixed UTF-8 string
+   *
+   * @param input The input to read from
+   * @param stringBytes A scratch buffer; strings longer than it are read into a new array
+   * @return The string
+   * @throws IOException If the input could not be read
+   */
+  static String readString(DataInputStream input, byte[] stringBytes) throws IOException {
+    int length = input.readInt();
+
+    if (length < 0) {
+      throw new IOException("Corrupt string length " + length);
+    }
+
+    byte[] bytes = (length <= stringBytes.length) ? stringBytes : new byte[length];
+    input.readFully(bytes, 0, length);
+
+    return new String(bytes, 0, length, StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,74 @@
+package address.data;
+
+/**
+ * An address entry to add to or remove from an address book, as part of a batch of changes
+ * applied by {@link AddressBook#applyChanges}
+ *
+ * @author Poleon Banouvong
+ * @since 2026-10-17
+ */
+public class AddressChange {
+  /** {@code true} to add the entry, {@code false} to remove it */
+  private final boolean addition;
+
+  /** The entry to add or remove */
+  private final AddressEntry entry;
+
+  /**
+   * Creates a change. This constructor is private-protected; use {@link #add} or {@link #remove}.
+   *
+   * @param addition {@code true} to add the entry, {@code false} to remove it
+   * @param entry The entry to add or remove
+   */
+  private AddressChange(boolean addition, AddressEntry entry) {
+    this.addition = addition;
+    this.entry = entry;
+  }
+
+  /**
+   * Creates a change that adds an entry
+   *
+   * @param addressEntry The entry to add
+   * @return The change
+   */
+  public static AddressChange add(AddressEntry addressEntry) {
+    return new AddressChange(true, addressEntry);
+  }
+
+  /**
+   * Creates a change that removes an entry
+   *
+   * @param addressEntry The entry to remove
+   * @return The change
+   */
+  public static AddressChange remove(AddressEntry addressEntry) {
+    return new AddressChange(false, addressEntry);
+  }
+
+  /**
+   * Returns if the change adds its entry
+   *
+   * @return {@code true} if the change adds its entry, {@code false} if it removes it
+   */
+  public boolean isAddition() {
+    return addition;
+  }
+
+  /**
+   * Returns the entry to add or remove
+   *
+   * @return The entry
+   */
+  public AddressEntry getEntry() {
+    return entry;
+  }
+
+  /**
+   * Converts the change into an output-friendly string
+   *
+   * @return The change, as a sign followed by the entry's names
+   */
+  public String toString() {
+    return (addition ? "+ " : "- ") + entry.getFirstName() + " " + entry.getLastName();
+  }
+}
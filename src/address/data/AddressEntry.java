@@ -1,46 +1,58 @@
 package address.data;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Locale;
+
 /**
- * Holds address and contact information on a person
+ * Holds address and contact information on a person. Address entries are immutable, so they can be
+ * shared between threads and kept in sorted collections safely; use a {@link Builder} to create
+ * them field by field, or {@link #toBuilder} to create a changed copy.
  *
  * @author Poleon Banouvong
  * @since 2024-01-25
  */
 public class AddressEntry implements Comparable<AddressEntry> {
   /** The first name of the person */
-  private String firstName;
+  private final String firstName;
 
   /** The last name of the person */
-  private String lastName;
+  private final String lastName;
 
   /** The street the person lives on */
-  private String street;
+  private final String street;
 
   /** The city the person lives in */
-  private String city;
+  private final String city;
 
   /** The state the person lives in */
-  private String state;
+  private final String state;
 
   /** The ZIP code where the person lives */
-  private int zip;
+  private final int zip;
 
   /** The phone number of the person */
-  private String phone;
+  private final String phone;
 
   /** The e-mail address of the person */
-  private String email;
+  private final String email;
+
+  /** The case-folded first name, used as the secondary sort key */
+  private final String firstNameKey;
+
+  /** The case-folded last name, used as the primary sort key */
+  private final String lastNameKey;
+
+  /** The cached hash code of the case-folded names */
+  private final int hash;
 
   /** Constructs an address book entry with no prior information */
   public AddressEntry() {
-    this.firstName = "";
-    this.lastName = "";
-    this.street = "";
-    this.city = "";
-    this.state = "";
-    this.zip = 0;
-    this.phone = "";
-    this.email = "";
+    this("", "", "", "", "", 0, "", "");
   }
 
   /**
@@ -64,44 +76,149 @@ public class AddressEntry implements Comparable<AddressEntry> {
       Integer zip,
       String phone,
       String email) {
+    this(firstName, lastName, street, city, state, zip, phone, email, true);
+  }
+
+  /**
+   * Constructs an address book entry, sharing its city and state through the {@link StringPool} or
+   * not
+   *
+   * @param firstName The first name of the person
+   * @param lastName The last name of the person
+   * @param street The street the person lives on
+   * @param city The city the person lives in
+   * @param state The state the person lives in
+   * @param zip The ZIP code where the person lives
+   * @param phone The telephone number of the person
+   * @param email The email address of the person
+   * @param pooled {@code false} to keep the given values, for storage engines that share them
+   *     themselves and create entries on every access
+   */
+  private AddressEntry(
+      String firstName,
+      String lastName,
+      String street,
+      String city,
+      String state,
+      int zip,
+      String phone,
+      String email,
+      boolean pooled) {
     this.firstName = firstName;
     this.lastName = lastName;
     this.street = street;
-    this.city = city;
-    this.state = state;
+    this.city = pooled ? pooled(city) : city;
+    this.state = pooled ? pooled(state) : state;
     this.zip = zip;
     this.phone = phone;
     this.email = email;
+    this.firstNameKey = sortKey(firstName);
+    this.lastNameKey = sortKey(lastName);
+    this.hash = nameHash(firstNameKey, lastNameKey);
+  }
+
+  /**
+   * Creates an address book entry without sharing its city and state through the {@link
+   * StringPool}. Entries created on every access from a storage engine that already shares those
+   * values would only add lookups.
+   *
+   * @param firstName The first name of the person
+   * @param lastName The last name of the person
+   * @param street The street the person lives on
+   * @param city The city the person lives in
+   * @param state The state the person lives in
+   * @param zip The ZIP code where the person lives
+   * @param phone The telephone number of the person
+   * @param email The email address of the person
+   * @return The entry
+   */
+  static AddressEntry unpooled(
+      String firstName,
+      String lastName,
+      String street,
+      String city,
+      String state,
+      int zip,
+      String phone,
+      String email) {
+    return new AddressEntry(firstName, lastName, street, city, state, zip, phone, email, false);
+  }
+
+  /**
+   * Case-folds a name for comparisons. {@link Locale#ROOT} is used so that the ordering of the
+   * address book doesn't depend on the default locale of the machine.
+   *
+   * @param name The name to fold
+   * @return The case-folded name
+   */
+  static String sortKey(String name) {
+    return name.toLowerCase(Locale.ROOT);
+  }
+
+  /**
+   * Returns the shared instance of a city or state. A few thousand of these repeat across millions
+   * of entries, so sharing them keeps large address books much smaller. Streets are nearly all
+   * distinct, so pooling them would only fill the bounded pool and crowd out cities and states.
+   *
+   * @param value The value
+   * @return The pooled instance equal to the value
+   * @see StringPool
+   */
+  private static String pooled(String value) {
+    return StringPool.getStringPool().canonicalize(value);
   }
 
   /**
-   * Calculates a hash code for the address entry. Entries with the same case-normalised first and
-   * last names will have the same hash code.
+   * Hashes the case-folded names without concatenating them. The result is the same as the hash
+   * code of the concatenated string, so existing hash codes are unchanged.
+   *
+   * @param firstNameKey The case-folded first name
+   * @param lastNameKey The case-folded last name
+   * @return The hash code of both names
+   */
+  private static int nameHash(String firstNameKey, String lastNameKey) {
+    int hash = firstNameKey.hashCode();
+
+    for (int i = 0; i < lastNameKey.length(); i++) {
+      hash = 31 * hash + lastNameKey.charAt(i);
+    }
+
+    return hash;
+  }
+
+  /**
+   * Returns the hash code of the address entry. Entries with the same case-normalised first and
+   * last names will have the same hash code. The hash code is cached, so calling this method does
+   * not allocate.
    *
    * @return The hash code
    */
   @Override
   public int hashCode() {
-    String firstNameLower = firstName.toLowerCase();
-    String lastNameLower = lastName.toLowerCase();
-
-    return (firstNameLower + lastNameLower).hashCode();
+    return hash;
   }
 
   /**
-   * Checks if two objects are equal to each other.
+   * Checks if two objects are equal to each other. Two address entries are equal when their
+   * case-normalised first and last names are equal, which is consistent with {@link #compareTo}.
    *
    * @param that The object to compare to
-   * @return {@code false} if the object to compare to is {@code null} or their hash codes aren't
-   *     equal, {@code true} otherwise
+   * @return {@code true} if the object to compare to is an {@link AddressEntry} with the same
+   *     case-normalised first and last names, {@code false} otherwise
    */
   @Override
   public boolean equals(Object that) {
-    if (that != null) {
-      return hashCode() == that.hashCode();
-    } else {
+    if (this == that) {
+      return true;
+    }
+
+    if (!(that instanceof AddressEntry thatEntry)) {
       return false;
     }
+
+    return (hash == thatEntry.hash)
+        && lastNameKey.equals(thatEntry.lastNameKey)
+        && firstNameKey.equals(thatEntry.firstNameKey);
   }
 
   /**
@@ -115,16 +232,10 @@ public class AddressEntry implements Comparable<AddressEntry> {
    */
   @Override
   public int compareTo(AddressEntry that) {
-    String thisLastNameLower = lastName.toLowerCase();
-    String thatLastNameLower = that.lastName.toLowerCase();
-
-    int lastNameComparison = thisLastNameLower.compareTo(thatLastNameLower);
+    int lastNameComparison = lastNameKey.compareTo(that.lastNameKey);
 
     if (lastNameComparison == 0) {
-      String thisFirstNameLower = firstName.toLowerCase();
-      String thatFirstNameLower = that.firstName.toLowerCase();
-
-      return thisFirstNameLower.compareTo(thatFirstNameLower);
+      return firstNameKey.compareTo(that.firstNameKey);
     } else {
       return lastNameComparison;
     }
@@ -136,15 +247,64 @@ public class AddressEntry implements Comparable<AddressEntry> {
    * @return The address entry's information
    */
   public String toString() {
+    StringBuilder output =
+        new StringBuilder(
+            firstName.length()
+                + lastName.length()
+                + street.length()
+                + city.length()
+                + state.length()
+                + phone.length()
+                + email.length()
+                + 20);
+
+    try {
+      appendTo(output);
+    } catch (IOException exception) {
+      // StringBuilder never throws
+      throw new UncheckedIOException(exception);
+    }
+
+    return output.toString();
+  }
+
+  /**
+   * Writes the address entry, formatted as {@link #toString} formats it, directly into an {@link
+   * Appendable}, without formatting it into a string first
+   *
+   * @param output The {@link Appendable} to write the address entry to
+   * @throws IOException If the {@link Appendable} could not be written to
+   */
+  public void appendTo(Appendable output) throws IOException {
     /* Format is:
     FirstName LastName
     Street
-    City, State ZIP
+    City State, ZIP
     Phone
     Email */
-    return String.format(
-        "%s %s\n%s\n%s %s, %d\n%s\n%s",
-        firstName, lastName, street, city, state, zip, phone, email);
+    output.append(firstName).append(' ').append(lastName).append('\n');
+    output.append(street).append('\n');
+    output.append(city).append(' ').append(state).append(", ");
+
+    // written digit by digit, as Appendable has no way to append an int without a string
+    long value = zip;
+
+    if (value < 0) {
+      output.append('-');
+      value = -value;
+    }
+
+    long divisor = 1;
+
+    while (divisor * 10 <= value) {
+      divisor *= 10;
+    }
+
+    for (; divisor > 0; divisor /= 10) {
+      output.append((char) ('0' + (value / divisor) % 10));
+    }
+
+    output.append('\n').append(phone).append('\n').append(email);
   }
 
   /**
@@ -165,6 +325,24 @@ public class AddressEntry implements Comparable<AddressEntry> {
     return lastName;
   }
 
+  /**
+   * Returns the case-folded first name that the address entry is ordered by after its last name
+   *
+   * @return The case-folded first name of the person
+   */
+  String getFirstNameKey() {
+    return firstNameKey;
+  }
+
+  /**
+   * Returns the case-folded last name that the address entry is ordered by
+   *
+   * @return The case-folded last name of the person
+   */
+  String getLastNameKey() {
+    return lastNameKey;
+  }
+
   /**
    * Returns the street of the address entry
    * 
@@ -220,74 +398,294 @@ public class AddressEntry implements Comparable<AddressEntry> {
   }
 
   /**
-   * Sets the first name of the address entry
+   * Returns a builder for an address entry with every field empty
    *
-   * @param firstName The first name of the person
+   * @return The builder
    */
-  public void setFirstName(String firstName) {
-    this.firstName = firstName;
+  public static Builder builder() {
+    return new Builder();
   }
 
   /**
-   * Sets the last name of the address entry
+   * Returns a builder that starts out with the fields of this address entry
    *
-   * @param lastName The last name of the person
+   * @return The builder
    */
-  public void setLastName(String lastName) {
-    this.lastName = lastName;
+  public Builder toBuilder() {
+    return new Builder()
+        .firstName(firstName)
+        .lastName(lastName)
+        .street(street)
+        .city(city)
+        .state(state)
+        .zip(zip)
+        .phone(phone)
+        .email(email);
   }
 
   /**
-   * Sets the street of the address entry
+   * Encodes the address entry compactly: every string as its UTF-8 length as a variable-length int
+   * followed by its UTF-8 bytes, in constructor order, with the ZIP code as a zigzag
+   * variable-length int in its place
    *
-   * @param street The street the person lives on
+   * @return The encoded address entry
+   * @see #fromPackedBytes
    */
-  public void setStreet(String street) {
-    this.street = street;
-  }
+  public byte[] toPackedBytes() {
+    byte[][] fields = new byte[8][];
+    String[] stringFields = {firstName, lastName, street, city, state, null, phone, email};
+    int length = 0;
+
+    for (int i = 0; i < fields.length; i++) {
+      if (i == 5) {
+        fields[i] = varInt((zip << 1) ^ (zip >> 31));
+        length += fields[i].length;
+      } else {
+        fields[i] = stringFields[i].getBytes(StandardCharsets.UTF_8);
+        length += varInt(fields[i].length).length + fields[i].length;
+      }
+    }
 
-  /**
-   * Sets the city of the address entry
-   *
-   * @param city The city the person lives in
-   */
-  public void setCity(String city) {
-    this.city = city;
+    ByteBuffer packedBytes = ByteBuffer.allocate(length);
+
+    for (int i = 0; i < fields.length; i++) {
+      if (i != 5) {
+        packedBytes.put(varInt(fields[i].length));
+      }
+
+      packedBytes.put(fields[i]);
+    }
+
+    return packedBytes.array();
   }
 
   /**
-   * Sets the state of the address entry
+   * Decodes an address entry encoded by {@link #toPackedBytes}
    *
-   * @param state The state the person lives in
+   * @param packedBytes The encoded address entry
+   * @return The address entry
+   * @throws IllegalArgumentException If the bytes are not an encoded address entry
    */
-  public void setState(String state) {
-    this.state = state;
+  public static AddressEntry fromPackedBytes(byte[] packedBytes) {
+    ByteBuffer input = ByteBuffer.wrap(packedBytes);
+    String[] stringFields = new String[8];
+    int zip = 0;
+
+    try {
+      for (int i = 0; i < stringFields.length; i++) {
+        int value = readVarInt(input);
+
+        if (i == 5) {
+          zip = (value >>> 1) ^ -(value & 1);
+        } else {
+          if ((value < 0) || (value > input.remaining())) {
+            throw new IllegalArgumentException("Corrupt field length " + value);
+          }
+
+          stringFields[i] =
+              new String(packedBytes, input.position(), value, StandardCharsets.UTF_8);
+          input.position(input.position() + value);
+        }
+      }
+    } catch (BufferUnderflowException exception) {
+      throw new IllegalArgumentException("Truncated address entry", exception);
+    }
+
+    if (input.hasRemaining()) {
+      throw new IllegalArgumentException("Unexpected data after the address entry");
+    }
+
+    return new AddressEntry(
+        stringFields[0],
+        stringFields[1],
+        stringFields[2],
+        stringFields[3],
+        stringFields[4],
+        zip,
+        stringFields[6],
+        stringFields[7]);
   }
 
   /**
-   * Sets the ZIP code of the address entry
+   * Encodes an int as a variable-length int: 7 bits per byte, low bits first, with the high bit of
+   * every byte but the last set
    *
-   * @param zip The ZIP code where the person lives
+   * @param value The int to encode
+   * @return The encoded int
    */
-  public void setZip(int zip) {
-    this.zip = zip;
+  private static byte[] varInt(int value) {
+    byte[] bytes = new byte[5];
+    int length = 0;
+
+    while ((value & ~0x7F) != 0) {
+      bytes[length++] = (byte) ((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+
+    bytes[length++] = (byte) value;
+
+    return Arrays.copyOf(bytes, length);
   }
 
   /**
-   * Sets the phone number of the address entry
+   * Decodes a variable-length int written by {@link #varInt}
    *
-   * @param phone The phone number of the person
+   * @param input The buffer to read from
+   * @return The decoded int
+   * @throws BufferUnderflowException If the buffer ends within the int
+   * @throws IllegalArgumentException If the int is longer than 5 bytes
    */
-  public void setPhone(String phone) {
-    this.phone = phone;
+  private static int readVarInt(ByteBuffer input) {
+    int value = 0;
+
+    for (int shift = 0; shift < Integer.SIZE; shift += 7) {
+      byte nextByte = input.get();
+      value |= (nextByte & 0x7F) << shift;
+
+      if (nextByte >= 0) {
+        return value;
+      }
+    }
+
+    throw new IllegalArgumentException("Corrupt variable-length int");
   }
 
   /**
-   * Sets the e-mail of the address entry
-   *
-   * @param email The e-mail address of the person
+   * Builds address entries field by field. Fields that are not set are empty, and the ZIP code is
+   * 0.
    */
-  public void setEmail(String email) {
-    this.email = email;
+  public static class Builder {
+    /** The first name of the person */
+    private String firstName;
+
+    /** The last name of the person */
+    private String lastName;
+
+    /** The street the person lives on */
+    private String street;
+
+    /** The city the person lives in */
+    private String city;
+
+    /** The state the person lives in */
+    private String state;
+
+    /** The ZIP code where the person lives */
+    private int zip;
+
+    /** The phone number of the person */
+    private String phone;
+
+    /** The e-mail address of the person */
+    private String email;
+
+    /** Creates a builder with every field empty */
+    private Builder() {
+      this.firstName = "";
+      this.lastName = "";
+      this.street = "";
+      this.city = "";
+      this.state = "";
+      this.zip = 0;
+      this.phone = "";
+      this.email = "";
+    }
+
+    /**
+     * Sets the first name of the address entry
+     *
+     * @param firstName The first name of the person
+     * @return This builder
+     */
+    public Builder firstName(String firstName) {
+      this.firstName = firstName;
+      return this;
+    }
+
+    /**
+     * Sets the last name of the address entry
+     *
+     * @param lastName The last name of the person
+     * @return This builder
+     */
+    public Builder lastName(String lastName) {
+      this.lastName = lastName;
+      return this;
+    }
+
+    /**
+     * Sets the street of the address entry
+     *
+     * @param street The street the person lives on
+     * @return This builder
+     */
+    public Builder street(String street) {
+      this.street = street;
+      return this;
+    }
+
+    /**
+     * Sets the city of the address entry
+     *
+     * @param city The city the person lives in
+     * @return This builder
+     */
+    public Builder city(String city) {
+      this.city = city;
+      return this;
+    }
+
+    /**
+     * Sets the state of the address entry
+     *
+     * @param state The state the person lives in
+     * @return This builder
+     */
+    public Builder state(String state) {
+      this.state = state;
+      return this;
+    }
+
+    /**
+     * Sets the ZIP code of the address entry
+     *
+     * @param zip The ZIP code where the person lives
+     * @return This builder
+     */
+    public Builder zip(int zip) {
+      this.zip = zip;
+      return this;
+    }
+
+    /**
+     * Sets the phone number of the address entry
+     *
+     * @param phone The phone number of the person
+     * @return This builder
+     */
+    public Builder phone(String phone) {
+      this.phone = phone;
+      return this;
+    }
+
+    /**
+     * Sets the e-mail of the address entry
+     *
+     * @param email The e-mail address of the person
+     * @return This builder
+     */
+    public Builder email(String email) {
+      this.email = email;
+      return this;
+    }
+
+    /**
+     * Creates an address entry from the fields set so far
+     *
+     * @return The address entry
+     */
+    public AddressEntry build() {
+      return new AddressEntry(firstName, lastName, street, city, state, zip, phone, email);
+    }
   }
 }
@@ -0,0 +1,528 @@
+package address.data;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Predicate;
+
+/**
+ * Parses address files in parallel. An address file holds records of 8 non-blank lines (first
+ * name, last name, street, city, state, ZIP code, phone and e-mail), with blank lines ignored.
+ *
+ * <p>The file is memory-mapped and scanned once for record boundaries, then split into chunks of
+ * whole records that are parsed concurrently in two passes over the mapped bytes. The first pass
+ * validates ZIP codes and finds duplicate names without decoding any text, by comparing the
+ * case-folded bytes of the names. The second pass decodes only the records that will be kept, and
+ * decodes their names first so that entries already in the address book are skipped before the
+ * rest of their fields are decoded.
+ *
+ * <p>A line counts as blank if it holds only ASCII whitespace; '\r' and '\n' both end a line.
+ *
+ * @author Poleon Banouvong
+ * @since 2026-10-17
+ */
+class AddressFileLoader {
+  /** The number of non-blank lines in a record */
+  static final int LINES_PER_RECORD = 8;
+
+  /** The default number of records parsed by each task */
+  static final int RECORDS_PER_CHUNK = 1 << 14;
+
+  /** The size of the windows the file is mapped in while looking for record boundaries */
+  private static final long SCAN_WINDOW_SIZE = 1L << 28;
+
+  /** The line number of the ZIP code within a record */
+  private static final int ZIP_LINE = 5;
+
+  /** Separates the last name from the first name in a name key; never occurs in UTF-8 */
+  private static final byte NAME_SEPARATOR = (byte) 0xFF;
+
+  /** Empty constructor explicitly private-protected to prevent creation of loader instances */
+  private AddressFileLoader() {}
+
+  /**
+   * Parses the complete records of an address file. Records with a ZIP code that isn't a number
+   * are skipped, as are records whose names have already been seen earlier in the file or are
+   * already stored; an incomplete record at the end of the file is ignored.
+   *
+   * @param file The file to parse
+   * @param pool The pool to parse chunks of the file on
+   * @param recordsPerChunk The number of records parsed by each task
+   * @param isStored Returns if an entry (holding only a first and last name) is already stored
+   * @return The outcome of parsing the file
+   * @throws IOException If the file could not be read
+   */
+  static Result parse(
+      Path file, ForkJoinPool pool, int recordsPerChunk, Predicate<AddressEntry> isStored)
+      throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      long[] chunkStarts = findChunkStarts(channel, (long) recordsPerChunk * LINES_PER_RECORD);
+      ConcurrentHashMap<NameKey, NameKey> firstOccurrences =
+          new ConcurrentHashMap<NameKey, NameKey>();
+      ArrayList<Callable<Chunk>> scanTasks = new ArrayList<Callable<Chunk>>();
+
+      for (int i = 0; i < chunkStarts.length - 1; i++) {
+        long start = chunkStarts[i];
+        long end = chunkStarts[i + 1];
+        long firstRecord = (long) i * recordsPerChunk;
+
+        scanTasks.add(() -> scanChunk(channel, start, end, firstRecord, firstOccurrences));
+      }
+
+      ArrayList<Callable<Chunk>> decodeTasks = new ArrayList<Callable<Chunk>>();
+
+      for (Future<Chunk> future : pool.invokeAll(scanTasks)) {
+        Chunk chunk = future.get();
+        decodeTasks.add(() -> decodeChunk(chunk, firstOccurrences, isStored));
+      }
+
+      Result result = new Result();
+
+      for (Future<Chunk> future : pool.invokeAll(decodeTasks)) {
+        Chunk chunk = future.get();
+        result.entries.addAll(chunk.entries);
+        result.records += chunk.zips.length;
+        result.malformedRecords += chunk.malformedRecords;
+      }
+
+      return result;
+    } catch (InterruptedException exception) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while parsing " + file, exception);
+    } catch (ExecutionException exception) {
+      Throwable cause = exception.getCause();
+
+      if (cause instanceof IOException ioException) {
+        throw ioException;
+      }
+
+      throw new IOException("Could not parse " + file, cause);
+    }
+  }
+
+  /**
+   * Scans a file for the offsets that chunks of whole records start at
+   *
+   * @param channel The file to scan
+   * @param linesPerChunk The number of non-blank lines in a chunk
+   * @return The offset of the start of every chunk, followed by the size of the file
+   * @throws IOException If the file could not be read
+   */
+  private static long[] findChunkStarts(FileChannel channel, long linesPerChunk)
+      throws IOException {
+    long size = channel.size();
+    ArrayList<Long> chunkStarts = new ArrayList<Long>();
+    chunkStarts.add(0L);
+
+    long nonBlankLines = 0;
+    long lineStart = 0;
+    boolean lineHasContent = false;
+
+    for (long windowStart = 0; windowStart < size; windowStart += SCAN_WINDOW_SIZE) {
+      int windowSize = (int) Math.min(SCAN_WINDOW_SIZE, size - windowStart);
+      MappedByteBuffer window =
+          channel.map(FileChannel.MapMode.READ_ONLY, windowStart, windowSize);
+
+      for (int i = 0; i < windowSize; i++) {
+        byte nextByte = window.get(i);
+
+        if ((nextByte == '\n') || (nextByte == '\r')) {
+          if (lineHasContent) {
+            if ((nonBlankLines != 0) && (nonBlankLines % linesPerChunk == 0)) {
+              chunkStarts.add(lineStart);
+            }
+
+            nonBlankLines++;
+          }
+
+          lineStart = windowStart + i + 1;
+          lineHasContent = false;
+        } else if (!lineHasContent && !isAsciiWhitespace(nextByte)) {
+          lineHasContent = true;
+        }
+      }
+    }
+
+    // a final line without a line terminator still belongs to the last chunk
+    if (lineHasContent && (nonBlankLines != 0) && (nonBlankLines % linesPerChunk == 0)) {
+      chunkStarts.add(lineStart);
+    }
+
+    long[] offsets = new long[chunkStarts.size() + 1];
+
+    for (int i = 0; i < chunkStarts.size(); i++) {
+      offsets[i] = chunkStarts.get(i);
+    }
+
+    offsets[offsets.length - 1] = size;
+
+    return offsets;
+  }
+
+  /**
+   * Validates the ZIP codes of the records in a chunk of a file and registers their names, so that
+   * only the first record in the file with each name is kept
+   *
+   * @param channel The file to parse
+   * @param start The offset the chunk starts at
+   * @param end The offset the chunk ends at (exclusive)
+   * @param firstRecord The number of the first record of the chunk within the file
+   * @param firstOccurrences The name key of the earliest record seen so far for every name
+   * @return The scanned chunk
+   * @throws IOException If the file could not be read
+   */
+  private static Chunk scanChunk(
+      FileChannel channel,
+      long start,
+      long end,
+      long firstRecord,
+      ConcurrentHashMap<NameKey, NameKey> firstOccurrences)
+      throws IOException {
+    if (end - start > Integer.MAX_VALUE) {
+      throw new IOException("Records between offsets " + start + " and " + end + " are too long");
+    }
+
+    MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+    RecordReader reader = new RecordReader(buffer);
+    ArrayList<NameKey> keys = new ArrayList<NameKey>();
+    int[] zips = new int[16];
+    long recordNumber = firstRecord;
+
+    while (reader.nextRecord()) {
+      if (keys.size() == zips.length) {
+        zips = Arrays.copyOf(zips, zips.length * 2);
+      }
+
+      NameKey key = null;
+
+      try {
+        zips[keys.size()] = reader.parseZip();
+        key = reader.nameKey(recordNumber);
+        firstOccurrences.merge(key, key, NameKey::earlier);
+      } catch (NumberFormatException exception) {
+        // a malformed record is skipped, and doesn't hide a later record with the same name
+      }
+
+      keys.add(key);
+      recordNumber++;
+    }
+
+    return new Chunk(buffer, keys.toArray(new NameKey[0]), Arrays.copyOf(zips, keys.size()));
+  }
+
+  /**
+   * Decodes the records of a scanned chunk that are kept
+   *
+   * @param chunk The scanned chunk
+   * @param firstOccurrences The name key of the earliest record in the file for every name
+   * @param isStored Returns if an entry (holding only a first and last name) is already stored
+   * @return The chunk, holding its decoded entries
+   */
+  private static Chunk decodeChunk(
+      Chunk chunk,
+      ConcurrentHashMap<NameKey, NameKey> firstOccurrences,
+      Predicate<AddressEntry> isStored) {
+    RecordReader reader = new RecordReader(chunk.buffer);
+
+    for (int i = 0; reader.nextRecord(); i++) {
+      NameKey key = chunk.keys[i];
+
+      if (key == null) {
+        chunk.malformedRecords++;
+        continue;
+      }
+
+      if (firstOccurrences.get(key) != key) {
+        continue;
+      }
+
+      String firstName = reader.decode(0);
+      String lastName = reader.decode(1);
+      AddressEntry names = AddressEntry.builder().firstName(firstName).lastName(lastName).build();
+
+      if (isStored.test(names)) {
+        continue;
+      }
+
+      chunk.entries.add(
+          new AddressEntry(
+              firstName,
+              lastName,
+              reader.decode(2),
+              reader.decode(3),
+              reader.decode(4),
+              chunk.zips[i],
+              reader.decode(6),
+              reader.decode(7)));
+    }
+
+    return chunk;
+  }
+
+  /**
+   * Returns if a byte is an ASCII whitespace character, as defined by {@link
+   * Character#isWhitespace}
+   *
+   * @param value The byte to check
+   * @return {@code true} if the byte is ASCII whitespace
+   */
+  private static boolean isAsciiWhitespace(byte value) {
+    return (value == ' ')
+        || ((value >= 0x09) && (value <= 0x0D))
+        || ((value >= 0x1C) && (value <= 0x1F));
+  }
+
+  /** The outcome of parsing an address file */
+  static class Result {
+    /** The entries to add, in file order */
+    final List<AddressEntry> entries = new ArrayList<AddressEntry>();
+
+    /** The number of complete records in the file */
+    long records = 0;
+
+    /** The number of records skipped because their ZIP code isn't a number */
+    long malformedRecords = 0;
+  }
+
+  /** A chunk of whole records of a file */
+  private static class Chunk {
+    /** The mapped bytes of the chunk */
+    private final MappedByteBuffer buffer;
+
+    /** The name key of every record, or {@code null} for a malformed record */
+    private final NameKey[] keys;
+
+    /** The ZIP code of every record */
+    private final int[] zips;
+
+    /** The entries decoded from the chunk, in file order */
+    private final List<AddressEntry> entries = new ArrayList<AddressEntry>();
+
+    /** The number of malformed records in the chunk */
+    private int malformedRecords = 0;
+
+    /**
+     * Creates a scanned chunk
+     *
+     * @param buffer The mapped bytes of the chunk
+     * @param keys The name key of every record, or {@code null} for a malformed record
+     * @param zips The ZIP code of every record
+     */
+    private Chunk(MappedByteBuffer buffer, NameKey[] keys, int[] zips) {
+      this.buffer = buffer;
+      this.keys = keys;
+      this.zips = zips;
+    }
+  }
+
+  /**
+   * The case-folded names of a record, as UTF-8 bytes, along with the position of the record in the
+   * file. Keys are equal when their names are, whatever their positions.
+   */
+  private static class NameKey {
+    /** The case-folded last name, {@link #NAME_SEPARATOR}, then the case-folded first name */
+    private final byte[] names;
+
+    /** The number of the record within the file */
+    private final long recordNumber;
+
+    /** The hash code of the names */
+    private final int hash;
+
+    /**
+     * Creates a name key
+     *
+     * @param names The case-folded names
+     * @param recordNumber The number of the record within the file
+     */
+    private NameKey(byte[] names, long recordNumber) {
+      this.names = names;
+      this.recordNumber = recordNumber;
+      this.hash = Arrays.hashCode(names);
+    }
+
+    /**
+     * Returns whichever of two keys for the same names comes first in the file
+     *
+     * @param key The first key
+     * @param otherKey The second key
+     * @return The earlier key
+     */
+    private static NameKey earlier(NameKey key, NameKey otherKey) {
+      return (key.recordNumber <= otherKey.recordNumber) ? key : otherKey;
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+
+    @Override
+    public boolean equals(Object that) {
+      return (that instanceof NameKey thatKey) && Arrays.equals(names, thatKey.names);
+    }
+  }
+
+  /** Reads the lines of whole records out of a mapped chunk of a file */
+  private static class RecordReader {
+    /** The mapped bytes of the chunk */
+    private final MappedByteBuffer buffer;
+
+    /** The offset of every line of the current record */
+    private final int[] lineStarts = new int[LINES_PER_RECORD];
+
+    /** The length of every line of the current record */
+    private final int[] lineLengths = new int[LINES_PER_RECORD];
+
+    /** The offset to continue reading lines from */
+    private int position = 0;
+
+    /**
+     * Creates a reader for a chunk
+     *
+     * @param buffer The mapped bytes of the chunk
+     */
+    private RecordReader(MappedByteBuffer buffer) {
+      this.buffer = buffer;
+    }
+
+    /**
+     * Moves to the next complete record of the chunk
+     *
+     * @return {@code false} if there are no complete records left
+     */
+    private boolean nextRecord() {
+      int limit = buffer.limit();
+      int lineNumber = 0;
+
+      while ((lineNumber < LINES_PER_RECORD) && (position < limit)) {
+        int lineStart = position;
+        boolean lineHasContent = false;
+
+        while ((position < limit)
+            && (buffer.get(position) != '\n')
+            && (buffer.get(position) != '\r')) {
+          lineHasContent |= !isAsciiWhitespace(buffer.get(position));
+          position++;
+        }
+
+        if (lineHasContent) {
+          lineStarts[lineNumber] = lineStart;
+          lineLengths[lineNumber] = position - lineStart;
+          lineNumber++;
+        }
+
+        position++;
+      }
+
+      return lineNumber == LINES_PER_RECORD;
+    }
+
+    /**
+     * Decodes a line of the current record
+     *
+     * @param lineNumber The line number within the record
+     * @return The line
+     */
+    private String decode(int lineNumber) {
+      byte[] lineBytes = new byte[lineLengths[lineNumber]];
+      buffer.get(lineStarts[lineNumber], lineBytes);
+
+      return new String(lineBytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Parses the ZIP code of the current record the same way {@link Integer#parseInt(String)}
+     * would, without decoding the line unless it holds non-ASCII characters
+     *
+     * @return The ZIP code
+     * @throws NumberFormatException If the ZIP code isn't a number
+     */
+    private int parseZip() {
+      int start = lineStarts[ZIP_LINE];
+      int end = start + lineLengths[ZIP_LINE];
+      boolean negative = buffer.get(start) == '-';
+      int i = (negative || (buffer.get(start) == '+')) ? start + 1 : start;
+      long value = 0;
+
+      if (i == end) {
+        throw new NumberFormatException("ZIP code has no digits");
+      }
+
+      for (; i < end; i++) {
+        byte digit = buffer.get(i);
+
+        if (digit < 0) {
+          return Integer.parseInt(decode(ZIP_LINE));
+        }
+
+        if ((digit < '0') || (digit > '9') || (value > Integer.MAX_VALUE + 1L)) {
+          throw new NumberFormatException("ZIP code isn't a number");
+        }
+
+        value = value * 10 + (digit - '0');
+      }
+
+      value = negative ? -value : value;
+
+      if ((value < Integer.MIN_VALUE) || (value > Integer.MAX_VALUE)) {
+        throw new NumberFormatException("ZIP code is out of range");
+      }
+
+      return (int) value;
+    }
+
+    /**
+     * Builds the name key of the current record. ASCII names are case-folded byte by byte; names
+     * with other characters are decoded and folded with {@link AddressEntry#sortKey}.
+     *
+     * @param recordNumber The number of the record within the file
+     * @return The name key
+     */
+    private NameKey nameKey(long recordNumber) {
+      byte[] lastName = foldedName(1);
+      byte[] firstName = foldedName(0);
+      byte[] names = new byte[lastName.length + 1 + firstName.length];
+
+      System.arraycopy(lastName, 0, names, 0, lastName.length);
+      names[lastName.length] = NAME_SEPARATOR;
+      System.arraycopy(firstName, 0, names, lastName.length + 1, firstName.length);
+
+      return new NameKey(names, recordNumber);
+    }
+
+    /**
+     * Case-folds a name line of the current record
+     *
+     * @param lineNumber The line number of the name within the record
+     * @return The UTF-8 bytes of the case-folded name
+     */
+    private byte[] foldedName(int lineNumber) {
+      byte[] name = new byte[lineLengths[lineNumber]];
+      buffer.get(lineStarts[lineNumber], name);
+
+      for (int i = 0; i < name.length; i++) {
+        if (name[i] < 0) {
+          return AddressEntry.sortKey(decode(lineNumber)).getBytes(StandardCharsets.UTF_8);
+        }
+
+        if ((name[i] >= 'A') && (name[i] <= 'Z')) {
+          name[i] += 'a' - 'A';
+        }
+      }
+
+      return name;
+    }
+  }
+}
@@ -0,0 +1,73 @@
+package address.data;
+
+/**
+ * The operations of an {@link AddressBook} whose latencies are measured by {@link
+ * AddressBookMetrics}
+ *
+ * @author Poleon Banouvong
+ * @since 2026-10-17
+ */
+public enum AddressOperation {
+  /** {@link AddressBook#add} */
+  ADD("add"),
+
+  /** {@link AddressBook#remove} */
+  REMOVE("remove"),
+
+  /** {@link AddressBook#contains} */
+  CONTAINS("contains"),
+
+  /** {@link AddressBook#find} */
+  FIND("find"),
+
+  /** {@link AddressBook#fuzzyFind} */
+  FUZZY_FIND("fuzzyFind"),
+
+  /** {@link AddressBook#search} */
+  SEARCH("search"),
+
+  /** {@link AddressBook#query} */
+  QUERY("query"),
+
+  /** {@link AddressBook#list(Appendable)}, which every other listing method calls */
+  LIST("list"),
+
+  /** {@link AddressBook#addAll} */
+  ADD_ALL("addAll"),
+
+  /** {@link AddressBook#removeAll} */
+  REMOVE_ALL("removeAll"),
+
+  /** {@link AddressBook#applyChanges} */
+  APPLY_CHANGES("applyChanges"),
+
+  /** {@link AddressBook#readFromFile} */
+  READ_FROM_FILE("readFromFile"),
+
+  /** {@link AddressBook#loadFromFile(String, LoadStatistics)} */
+  LOAD_FROM_FILE("loadFromFile"),
+
+  /** {@link AddressBook#writeToFile} */
+  WRITE_TO_FILE("writeToFile");
+
+  /** The name of the address book method */
+  private final String methodName;
+
+  /**
+   * Creates an operation
+   *
+   * @param methodName The name of the address book method
+   */
+  AddressOperation(String methodName) {
+    this.methodName = methodName;
+  }
+
+  /**
+   * Returns the name of the address book method
+   *
+   * @return The method name
+   */
+  public String getMethodName() {
+    return methodName;
+  }
+}
@@ -0,0 +1,57 @@
+package address.data;
+
+import java.util.ArrayList;
+
+/**
+ * A page of address entries returned by {@link AddressBook#listPage} or {@link
+ * AddressBook#findPage}, with the cursor to pass back for the next page
+ *
+ * @author Poleon Banouvong
+ * @since 2026-10-17
+ */
+public class AddressPage {
+  /** The entries on the page, in address book order */
+  private final ArrayList<AddressEntry> entries;
+
+  /** The cursor for the next page, or {@code null} if this is the last page */
+  private final String nextCursor;
+
+  /**
+   * Creates a page
+   *
+   * @param entries The entries on the page
+   * @param nextCursor The cursor for the next page, or {@code null} if this is the last page
+   */
+  AddressPage(ArrayList<AddressEntry> entries, String nextCursor) {
+    this.entries = entries;
+    this.nextCursor = nextCursor;
+  }
+
+  /**
+   * Returns the entries on the page
+   *
+   * @return An {@link ArrayList} containing the entries, in address book order
+   */
+  public ArrayList<AddressEntry> getEntries() {
+    return entries;
+  }
+
+  /**
+   * Returns the cursor to fetch the next page with. The cursor only records where the page ended
+   * in address book order, so it stays valid as entries are added and removed.
+   *
+   * @return The cursor, or {@code null} if there are no more entries
+   */
+  public String getNextCursor() {
+    return nextCursor;
+  }
+
+  /**
+   * Returns if there are more entries after this page
+   *
+   * @return {@code true} if there is a next page, {@code false} otherwise
+   */
+  public boolean hasNextPage() {
+    return nextCursor != null;
+  }
+}
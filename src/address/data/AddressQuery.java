@@ -0,0 +1,182 @@
+package address.data;
+
+/**
+ * Describes a query for address entries by their contact and location fields. Every criterion
+ * that has been set must match for an entry to match the query; criteria that haven't been set
+ * match any entry.
+ *
+ * <p>E-mail addresses, cities and states are matched case-insensitively. Phone numbers are matched
+ * exactly (ignoring surrounding whitespace).
+ *
+ * @author Poleon Banouvong
+ * @since 2026-10-17
+ */
+public class AddressQuery {
+  /** The case-folded e-mail address to match, or {@code null} to match any */
+  private String email = null;
+
+  /** The phone number to match, or {@code null} to match any */
+  private String phone = null;
+
+  /** The case-folded city to match, or {@code null} to match any */
+  private String city = null;
+
+  /** The case-folded state to match, or {@code null} to match any */
+  private String state = null;
+
+  /** The lowest ZIP code to match (inclusive) */
+  private int zipFrom = Integer.MIN_VALUE;
+
+  /** The highest ZIP code to match (inclusive) */
+  private int zipTo = Integer.MAX_VALUE;
+
+  /** Whether a ZIP code criterion has been set */
+  private boolean hasZip = false;
+
+  /**
+   * Matches entries with an e-mail address
+   *
+   * @param email The e-mail address to match
+   * @return This query
+   */
+  public AddressQuery email(String email) {
+    this.email = emailKey(email);
+    return this;
+  }
+
+  /**
+   * Matches entries with a phone number
+   *
+   * @param phone The phone number to match
+   * @return This query
+   */
+  public AddressQuery phone(String phone) {
+    this.phone = phoneKey(phone);
+    return this;
+  }
+
+  /**
+   * Matches entries in a city
+   *
+   * @param city The city to match
+   * @return This query
+   */
+  public AddressQuery city(String city) {
+    this.city = placeKey(city);
+    return this;
+  }
+
+  /**
+   * Matches entries in a state
+   *
+   * @param state The state to match
+   * @return This query
+   */
+  public AddressQuery state(String state) {
+    this.state = placeKey(state);
+    return this;
+  }
+
+  /**
+   * Matches entries with a ZIP code
+   *
+   * @param zip The ZIP code to match
+   * @return This query
+   */
+  public AddressQuery zip(int zip) {
+    return zipRange(zip, zip);
+  }
+
+  /**
+   * Matches entries with a ZIP code in a range
+   *
+   * @param zipFrom The lowest ZIP code to match (inclusive)
+   * @param zipTo The highest ZIP code to match (inclusive)
+   * @return This query
+   */
+  public AddressQuery zipRange(int zipFrom, int zipTo) {
+    this.zipFrom = zipFrom;
+    this.zipTo = zipTo;
+    this.hasZip = true;
+    return this;
+  }
+
+  /**
+   * Returns if an address entry matches every criterion of the query
+   *
+   * @param addressEntry The address entry to check
+   * @return {@code true} if the address entry matches
+   */
+  public boolean matches(AddressEntry addressEntry) {
+    return ((email == null) || email.equals(emailKey(addressEntry.getEmail())))
+        && ((phone == null) || phone.equals(phoneKey(addressEntry.getPhone())))
+        && ((city == null) || city.equals(placeKey(addressEntry.getCity())))
+        && ((state == null) || state.equals(placeKey(addressEntry.getState())))
+        && (!hasZip || ((addressEntry.getZip() >= zipFrom) && (addressEntry.getZip() <= zipTo)));
+  }
+
+  /** Returns the case-folded e-mail address to match, or {@code null} to match any */
+  String getEmail() {
+    return email;
+  }
+
+  /** Returns the phone number to match, or {@code null} to match any */
+  String getPhone() {
+    return phone;
+  }
+
+  /** Returns the case-folded city to match, or {@code null} to match any */
+  String getCity() {
+    return city;
+  }
+
+  /** Returns the case-folded state to match, or {@code null} to match any */
+  String getState() {
+    return state;
+  }
+
+  /** Returns if a ZIP code criterion has been set */
+  boolean hasZip() {
+    return hasZip;
+  }
+
+  /** Returns the lowest ZIP code to match (inclusive) */
+  int getZipFrom() {
+    return zipFrom;
+  }
+
+  /** Returns the highest ZIP code to match (inclusive) */
+  int getZipTo() {
+    return zipTo;
+  }
+
+  /**
+   * Normalises an e-mail address for matching
+   *
+   * @param email The e-mail address
+   * @return The normalised e-mail address
+   */
+  static String emailKey(String email) {
+    return AddressEntry.sortKey(email.trim());
+  }
+
+  /**
+   * Normalises a phone number for matching
+   *
+   * @param phone The phone number
+   * @return The normalised phone number
+   */
+  static String phoneKey(String phone) {
+    return phone.trim();
+  }
+
+  /**
+   * Normalises a city or state for matching
+   *
+   * @param place The city or state
+   * @return The normalised city or state
+   */
+  static String placeKey(String place) {
+    return AddressEntry.sortKey(place.trim());
+  }
+}
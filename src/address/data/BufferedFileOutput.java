@@ -0,0 +1,289 @@
+package address.data;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Writes bytes and UTF-8 text to a file through a large direct buffer, so that the file is written
+ * in a few large system calls. Files are replaced atomically: output goes to a temporary file next
+ * to the target, which is forced to disk and then renamed over the target, and the directory is
+ * forced to disk after the rename so that the rename survives a crash too. The new file keeps the
+ * permissions of the file it replaces.
+ *
+ * @author Poleon Banouvong
+ * @since 2026-10-17
+ */
+class BufferedFileOutput {
+  /** The size of the output buffer */
+  private static final int BUFFER_SIZE = 1 << 20;
+
+  /** The channel of the file being written */
+  private final FileChannel channel;
+
+  /** The direct buffer output is collected in */
+  private final ByteBuffer buffer;
+
+  /** Encodes strings as UTF-8 */
+  private final CharsetEncoder encoder;
+
+  /** Writes the contents of a file */
+  @FunctionalInterface
+  interface Contents {
+    /**
+     * Writes the contents of a file
+     *
+     * @param output The output to write to
+     * @throws IOException If the output could not be written
+     */
+    void writeTo(BufferedFileOutput output) throws IOException;
+  }
+
+  /**
+   * Creates an output for a file channel
+   *
+   * @param channel The channel of the file to write
+   */
+  private BufferedFileOutput(FileChannel channel) {
+    this.channel = channel;
+    this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    this.encoder =
+        StandardCharsets.UTF_8
+            .newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+  }
+
+  /**
+   * Atomically replaces a file with new contents. If anything goes wrong, the original file is left
+   * untouched.
+   *
+   * @param target The file to replace
+   * @param contents Writes the new contents of the file
+   * @throws IOException If the file could not be written
+   */
+  static void replace(Path target, Contents contents) throws IOException {
+    Path directory = target.toAbsolutePath().getParent();
+    Path temporaryFile = createTemporaryFile(directory, target.getFileName().toString());
+
+    try {
+      copyPermissions(target, temporaryFile);
+
+      try (FileChannel channel =
+          FileChannel.open(
+              temporaryFile, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+        BufferedFileOutput output = new BufferedFileOutput(channel);
+        contents.writeTo(output);
+        output.flush();
+        channel.force(true);
+      }
+
+      try {
+        Files.move(
+            temporaryFile,
+            target,
+            StandardCopyOption.ATOMIC_MOVE,
+            StandardCopyOption.REPLACE_EXISTING);
+      } catch (AtomicMoveNotSupportedException exception) {
+        Files.move(temporaryFile, target, StandardCopyOption.REPLACE_EXISTING);
+      }
+
+      forceDirectory(directory);
+    } finally {
+      Files.deleteIfExists(temporaryFile);
+    }
+  }
+
+  /**
+   * Creates an empty temporary file in a directory. Unlike {@link Files#createTempFile}, which
+   * makes the file readable by its owner only, the file gets the permissions any new file gets.
+   *
+   * @param directory The directory to create the file in
+   * @param prefix The start of the file name
+   * @return The temporary file
+   * @throws IOException If the file could not be created
+   */
+  private static Path createTemporaryFile(Path directory, String prefix) throws IOException {
+    while (true) {
+      Path temporaryFile =
+          directory.resolve(
+              prefix + "." + Long.toHexString(ThreadLocalRandom.current().nextLong()) + ".tmp");
+
+      try {
+        return Files.createFile(temporaryFile);
+      } catch (FileAlreadyExistsException exception) {
+        // try another name
+      }
+    }
+  }
+
+  /**
+   * Gives a file the POSIX permissions of another file, if that file exists and the file system
+   * has POSIX permissions
+   *
+   * @param source The file to copy the permissions of
+   * @param target The file to give the permissions to
+   * @throws IOException If the permissions could not be read or set
+   */
+  private static void copyPermissions(Path source, Path target) throws IOException {
+    if (!Files.exists(source)
+        || !Files.getFileStore(target).supportsFileAttributeView(PosixFileAttributeView.class)) {
+      return;
+    }
+
+    Files.setPosixFilePermissions(target, Files.getPosixFilePermissions(source));
+  }
+
+  /**
+   * Forces a directory's entries to disk, so that a file renamed into it stays renamed after a
+   * crash. Some platforms can't open directories; the rename is as durable as they make it there.
+   *
+   * @param directory The directory to force
+   */
+  private static void forceDirectory(Path directory) {
+    try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+      channel.force(true);
+    } catch (IOException exception) {
+      // directories can't be opened or forced on every platform
+    }
+  }
+
+  /**
+   * Writes a byte
+   *
+   * @param value The byte to write
+   * @throws IOException If the output could not be written
+   */
+  void putByte(byte value) throws IOException {
+    ensureRemaining(Byte.BYTES);
+    buffer.put(value);
+  }
+
+  /**
+   * Writes bytes
+   *
+   * @param bytes The array holding the bytes to write
+   * @param offset The offset of the first byte to write
+   * @param length The number of bytes to write
+   * @throws IOException If the output could not be written
+   */
+  void putBytes(byte[] bytes, int offset, int length) throws IOException {
+    while (length > 0) {
+      ensureRemaining(1);
+
+      int chunkLength = Math.min(length, buffer.remaining());
+      buffer.put(bytes, offset, chunkLength);
+      offset += chunkLength;
+      length -= chunkLength;
+    }
+  }
+
+  /**
+   * Writes an int in big-endian order
+   *
+   * @param value The int to write
+   * @throws IOException If the output could not be written
+   */
+  void putInt(int value) throws IOException {
+    ensureRemaining(Integer.BYTES);
+    buffer.putInt(value);
+  }
+
+  /**
+   * Writes a string as UTF-8
+   *
+   * @param value The string to write
+   * @throws IOException If the output could not be written
+   */
+  void putString(String value) throws IOException {
+    CharBuffer characters = CharBuffer.wrap(value);
+    encoder.reset();
+
+    while (true) {
+      CoderResult result = encoder.encode(characters, buffer, true);
+
+      if (result.isUnderflow()) {
+        break;
+      }
+
+      flush();
+    }
+
+    while (encoder.flush(buffer).isOverflow()) {
+      flush();
+    }
+  }
+
+  /**
+   * Writes a string as UTF-8, preceded by its length in bytes as an int
+   *
+   * @param value The string to write
+   * @throws IOException If the output could not be written
+   */
+  void putLengthPrefixedString(String value) throws IOException {
+    // a char never takes more than 3 bytes of UTF-8
+    long maximumLength = Integer.BYTES + 3L * value.length();
+
+    if (maximumLength > BUFFER_SIZE) {
+      byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+      putInt(bytes.length);
+      flush();
+
+      ByteBuffer bytesBuffer = ByteBuffer.wrap(bytes);
+
+      while (bytesBuffer.hasRemaining()) {
+        channel.write(bytesBuffer);
+      }
+
+      return;
+    }
+
+    ensureRemaining((int) maximumLength);
+
+    // encode straight into the buffer, then fill in the length in front of it
+    int lengthPosition = buffer.position();
+    buffer.position(lengthPosition + Integer.BYTES);
+    putString(value);
+    buffer.putInt(lengthPosition, buffer.position() - lengthPosition - Integer.BYTES);
+  }
+
+  /**
+   * Makes sure the buffer has room for some bytes, writing it out if it doesn't
+   *
+   * @param length The number of bytes that need room
+   * @throws IOException If the output could not be written
+   */
+  private void ensureRemaining(int length) throws IOException {
+    if (buffer.remaining() < length) {
+      flush();
+    }
+  }
+
+  /**
+   * Writes out everything in the buffer
+   *
+   * @throws IOException If the output could not be written
+   */
+  private void flush() throws IOException {
+    buffer.flip();
+
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+
+    buffer.clear();
+  }
+}
@@ -0,0 +1,94 @@
+package address.data;
+
+import java.util.Comparator;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+
+/**
+ * Splits a range of positions in a snapshot of an {@link EntryStore} for streams. Positions are in
+ * {@link AddressEntry#compareTo} order, so the range is split exactly in half every time, and every
+ * part knows its exact size.
+ *
+ * @author Poleon Banouvong
+ * @since 2026-10-17
+ */
+class EntrySpliterator implements Spliterator<AddressEntry> {
+  /** The characteristics of every entry spliterator */
+  static final int CHARACTERISTICS =
+      ORDERED | SORTED | DISTINCT | SIZED | SUBSIZED | NONNULL | IMMUTABLE;
+
+  /** Returns the entry at a position of the snapshot */
+  private final IntFunction<AddressEntry> entries;
+
+  /** The next position */
+  private int position;
+
+  /** The position after the last one */
+  private final int end;
+
+  /**
+   * Creates a spliterator over a range of positions
+   *
+   * @param entries Returns the entry at a position, and must be safe to call from any thread
+   * @param position The first position
+   * @param end The position after the last one
+   */
+  EntrySpliterator(IntFunction<AddressEntry> entries, int position, int end) {
+    this.entries = entries;
+    this.position = position;
+    this.end = end;
+  }
+
+  @Override
+  public boolean tryAdvance(Consumer<? super AddressEntry> action) {
+    if (position >= end) {
+      return false;
+    }
+
+    action.accept(entries.apply(position++));
+
+    return true;
+  }
+
+  @Override
+  public void forEachRemaining(Consumer<? super AddressEntry> action) {
+    while (position < end) {
+      action.accept(entries.apply(position++));
+    }
+  }
+
+  @Override
+  public Spliterator<AddressEntry> trySplit() {
+    int middle = (position + end) >>> 1;
+
+    if (middle <= position) {
+      return null;
+    }
+
+    EntrySpliterator firstHalf = new EntrySpliterator(entries, position, middle);
+    position = middle;
+
+    return firstHalf;
+  }
+
+  @Override
+  public long estimateSize() {
+    return end - position;
+  }
+
+  @Override
+  public int characteristics() {
+    return CHARACTERISTICS;
+  }
+
+  /**
+   * Returns {@code null}, as entries are in their natural order
+   *
+   * @return {@code null}
+   */
+  @Override
+  public Comparator<? super AddressEntry> getComparator() {
+    return null;
+  }
+}
@@ -0,0 +1,61 @@
+package address.data;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.Spliterator;
+
+/**
+ * Stores the entries of an address book in {@link AddressEntry#compareTo} order, with no two
+ * entries equal. This is the storage engine behind {@link AddressBook}; it is not thread-safe, so
+ * the address book guards it with its lock.
+ *
+ * @author Poleon Banouvong
+ * @since 2026-10-17
+ */
+interface EntryStore extends Collection<AddressEntry> {
+  /**
+   * Returns the first stored entry that is equal to or after an entry
+   *
+   * @param addressEntry The entry to search from
+   * @return The stored entry, or {@code null} if every stored entry is before the given one
+   */
+  AddressEntry ceiling(AddressEntry addressEntry);
+
+  /**
+   * Returns the stored entries that are equal to or after an entry, in order
+   *
+   * @param fromEntry The entry to start from
+   * @return The stored entries from the given one on
+   */
+  Iterable<AddressEntry> tailSet(AddressEntry fromEntry);
+
+  /**
+   * Adds many entries at once, merging them into the store in a single pass where that is cheaper
+   * than adding them one at a time
+   *
+   * @param sortedEntries The entries to add, in {@link AddressEntry#compareTo} order with no two
+   *     entries equal
+   * @param rejectedEntries The set to add entries that are already in the store to
+   */
+  void addAllSorted(List<AddressEntry> sortedEntries, Set<AddressEntry> rejectedEntries);
+
+  /**
+   * Removes many entries at once, in a single pass over the store where that is cheaper than
+   * removing them one at a time
+   *
+   * @param sortedEntries The entries to remove, in {@link AddressEntry#compareTo} order with no two
+   *     entries equal
+   * @param removedEntries The list to add the stored entries that were removed to, in order
+   */
+  void removeAllSorted(List<AddressEntry> sortedEntries, List<AddressEntry> removedEntries);
+
+  /**
+   * Returns a spliterator over the entries as they are now. The spliterator is unaffected by later
+   * changes to the store and can be used from any thread without the address book's lock, which
+   * takes copying at least the order of the entries, in linear time.
+   *
+   * @return An {@link EntrySpliterator} over the stored entries
+   */
+  Spliterator<AddressEntry> snapshotSpliterator();
+}
@@ -0,0 +1,322 @@
+package address.data;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.TreeMap;
+
+/**
+ * An inverted index over every field of the indexed entries, for searching by words.
+ *
+ * <p>Fields are split into lowercase words at every character that isn't a letter or a digit; the
+ * ZIP code is a word, and so is the phone number with everything but its digits removed. Every
+ * entry is given a document id, in increasing order, and every word has a posting list of the
+ * documents containing it. As ids only increase, a posting list is stored as the gaps between its
+ * ids, each as a variable-length int, which keeps most gaps to a single byte.
+ *
+ * <p>Removing an entry only marks its document as deleted. Once deleted documents outnumber the
+ * live ones, the index is rebuilt from the live entries.
+ *
+ * @author Poleon Banouvong
+ * @since 2026-10-17
+ */
+class FullTextIndex {
+  /** The number of deleted documents below which the index is never rebuilt */
+  private static final int MINIMUM_REBUILD_DELETIONS = 1024;
+
+  /** The posting lists of every word, in word order so that prefixes are ranges */
+  private final TreeMap<String, PostingList> postingLists;
+
+  /** The entry of every document id, or {@code null} if it was deleted */
+  private final ArrayList<AddressEntry> documents;
+
+  /** The document id of every live entry */
+  private final HashMap<AddressEntry, Integer> documentIds;
+
+  /** The deleted document ids */
+  private final BitSet deletedDocuments;
+
+  /** Creates an empty index */
+  FullTextIndex() {
+    postingLists = new TreeMap<String, PostingList>();
+    documents = new ArrayList<AddressEntry>();
+    documentIds = new HashMap<AddressEntry, Integer>();
+    deletedDocuments = new BitSet();
+  }
+
+  /** Removes every entry */
+  void clear() {
+    postingLists.clear();
+    documents.clear();
+    documentIds.clear();
+    deletedDocuments.clear();
+  }
+
+  /**
+   * Indexes an entry under a new document id
+   *
+   * @param addressEntry The entry
+   */
+  void add(AddressEntry addressEntry) {
+    int documentId = documents.size();
+    documents.add(addressEntry);
+    documentIds.put(addressEntry, documentId);
+
+    for (String word : words(addressEntry)) {
+      postingLists.computeIfAbsent(word, key -> new PostingList()).add(documentId);
+    }
+  }
+
+  /**
+   * Indexes many entries under new document ids, looking up the posting list of every word once
+   * however many of the entries contain it
+   *
+   * @param addressEntries The entries
+   */
+  void addAll(Collection<AddressEntry> addressEntries) {
+    HashMap<String, PostingList> batchPostingLists = new HashMap<String, PostingList>();
+
+    for (AddressEntry addressEntry : addressEntries) {
+      int documentId = documents.size();
+      documents.add(addressEntry);
+      documentIds.put(addressEntry, documentId);
+
+      for (String word : words(addressEntry)) {
+        batchPostingLists
+            .computeIfAbsent(
+                word, key -> postingLists.computeIfAbsent(key, newKey -> new PostingList()))
+            .add(documentId);
+      }
+    }
+  }
+
+  /**
+   * Marks the document of an entry as deleted, rebuilding the index if most documents are
+   *
+   * @param addressEntry The entry
+   */
+  void remove(AddressEntry addressEntry) {
+    if (delete(addressEntry)) {
+      rebuildIfMostlyDeleted();
+    }
+  }
+
+  /**
+   * Marks the documents of many entries as deleted, then rebuilds the index once if most documents
+   * are
+   *
+   * @param addressEntries The entries
+   */
+  void removeAll(Collection<AddressEntry> addressEntries) {
+    boolean deleted = false;
+
+    for (AddressEntry addressEntry : addressEntries) {
+      deleted |= delete(addressEntry);
+    }
+
+    if (deleted) {
+      rebuildIfMostlyDeleted();
+    }
+  }
+
+  /**
+   * Marks the document of an entry as deleted
+   *
+   * @param addressEntry The entry
+   * @return {@code true} if the entry was indexed
+   */
+  private boolean delete(AddressEntry addressEntry) {
+    Integer documentId = documentIds.remove(addressEntry);
+
+    if (documentId == null) {
+      return false;
+    }
+
+    documents.set(documentId, null);
+    deletedDocuments.set(documentId);
+    return true;
+  }
+
+  /** Rebuilds the index from the live entries once deleted documents outnumber them */
+  private void rebuildIfMostlyDeleted() {
+    // every document is either live or deleted, so this counts the deleted ones in constant time
+    int deletedCount = documents.size() - documentIds.size();
+
+    if ((deletedCount > documentIds.size()) && (deletedCount >= MINIMUM_REBUILD_DELETIONS)) {
+      ArrayList<AddressEntry> liveEntries = new ArrayList<AddressEntry>(documentIds.size());
+
+      for (AddressEntry document : documents) {
+        if (document != null) {
+          liveEntries.add(document);
+        }
+      }
+
+      clear();
+      addAll(liveEntries);
+    }
+  }
+
+  /**
+   * Returns the entries matching a text. Every word of the text matches the entries with a word
+   * starting with it.
+   *
+   * @param text The words to search for
+   * @param matchAll {@code true} to return entries matching every word, {@code false} to return
+   *     entries matching any word
+   * @return The matching entries, in no particular order
+   */
+  ArrayList<AddressEntry> search(String text, boolean matchAll) {
+    BitSet matches = null;
+
+    for (String word : split(text)) {
+      BitSet wordMatches = new BitSet(documents.size());
+
+      for (PostingList postingList :
+          postingLists.subMap(word, true, word + Character.MAX_VALUE, true).values()) {
+        postingList.addTo(wordMatches);
+      }
+
+      if (matches == null) {
+        matches = wordMatches;
+      } else if (matchAll) {
+        matches.and(wordMatches);
+      } else {
+        matches.or(wordMatches);
+      }
+    }
+
+    ArrayList<AddressEntry> addressEntries = new ArrayList<AddressEntry>();
+
+    if (matches == null) {
+      return addressEntries;
+    }
+
+    matches.andNot(deletedDocuments);
+
+    for (int id = matches.nextSetBit(0); id >= 0; id = matches.nextSetBit(id + 1)) {
+      addressEntries.add(documents.get(id));
+    }
+
+    return addressEntries;
+  }
+
+  /**
+   * Returns the distinct words of an entry
+   *
+   * @param addressEntry The entry
+   * @return The words
+   */
+  private static Collection<String> words(AddressEntry addressEntry) {
+    LinkedHashSet<String> words = new LinkedHashSet<String>();
+    String[] fields = {
+      addressEntry.getFirstName(),
+      addressEntry.getLastName(),
+      addressEntry.getStreet(),
+      addressEntry.getCity(),
+      addressEntry.getState(),
+      Integer.toString(addressEntry.getZip()),
+      addressEntry.getPhone(),
+      addressEntry.getEmail(),
+      addressEntry.getPhone().replaceAll("[^0-9]", "")
+    };
+
+    for (String field : fields) {
+      words.addAll(split(field));
+    }
+
+    return words;
+  }
+
+  /**
+   * Splits text into lowercase words at every character that isn't a letter or a digit
+   *
+   * @param text The text
+   * @return The words
+   */
+  static ArrayList<String> split(String text) {
+    ArrayList<String> words = new ArrayList<String>();
+    int wordStart = -1;
+
+    for (int i = 0; i <= text.length(); i++) {
+      boolean inWord = (i < text.length()) && Character.isLetterOrDigit(text.charAt(i));
+
+      if (inWord && (wordStart < 0)) {
+        wordStart = i;
+      } else if (!inWord && (wordStart >= 0)) {
+        words.add(text.substring(wordStart, i).toLowerCase(Locale.ROOT));
+        wordStart = -1;
+      }
+    }
+
+    return words;
+  }
+
+  /** The ids of the documents containing a word, as variable-length gaps between increasing ids */
+  private static class PostingList {
+    /** The encoded gaps */
+    private byte[] bytes;
+
+    /** The number of bytes in use */
+    private int length;
+
+    /** The last id added */
+    private int lastId;
+
+    /** Creates an empty posting list */
+    private PostingList() {
+      this.bytes = new byte[4];
+      this.length = 0;
+      this.lastId = -1;
+    }
+
+    /**
+     * Adds an id, which must be larger than every id already added
+     *
+     * @param id The id
+     */
+    private void add(int id) {
+      int gap = id - lastId;
+      lastId = id;
+
+      if (length + 5 > bytes.length) {
+        bytes = Arrays.copyOf(bytes, Math.max(2 * bytes.length, length + 5));
+      }
+
+      while ((gap & ~0x7F) != 0) {
+        bytes[length++] = (byte) ((gap & 0x7F) | 0x80);
+        gap >>>= 7;
+      }
+
+      bytes[length++] = (byte) gap;
+    }
+
+    /**
+     * Sets the bit of every id in the posting list
+     *
+     * @param ids The bits to set
+     */
+    private void addTo(BitSet ids) {
+      int id = -1;
+      int position = 0;
+
+      while (position < length) {
+        int gap = 0;
+        int shift = 0;
+        byte nextByte;
+
+        do {
+          nextByte = bytes[position++];
+          gap |= (nextByte & 0x7F) << shift;
+          shift += 7;
+        } while (nextByte < 0);
+
+        id += gap;
+        ids.set(id);
+      }
+    }
+  }
+}
@@ -0,0 +1,459 @@
+package address.data;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.TreeSet;
+
+/**
+ * Finds case-folded names that are spelled like, or sound like, a misspelled name.
+ *
+ * <p>Every distinct name is kept in sorted order and by its Soundex code. Names are matched by
+ * walking them in sorted order as if they were a trie: the edit distance table of a name is
+ * computed one row per character, only over the band of lengths within the largest distance, the
+ * rows of a prefix are shared by every name starting with it, and once every value of a row is
+ * above the largest distance, every name with that prefix is skipped at once. Names with the same
+ * Soundex code as the query also match however far apart they are spelled, as long as their
+ * lengths are within the largest distance of the query's.
+ *
+ * @author Poleon Banouvong
+ * @since 2026-10-17
+ */
+class FuzzyNameIndex {
+  /** The Soundex digit of every letter from a to z, with 0 for letters that are dropped */
+  private static final String SOUNDEX_DIGITS = "01230120022455012623010202";
+
+  /** The number of entries with every name */
+  private final HashMap<String, Integer> nameCounts;
+
+  /** The names, in sorted order so that names with a common prefix are next to each other */
+  private final TreeSet<String> sortedNames;
+
+  /**
+   * The sorted names as arrays, which are cheaper to walk than the set, or {@code null} after the
+   * names changed. Matching under a shared read lock may build them more than once, but every build
+   * is the same.
+   */
+  private volatile SortedNameSnapshot sortedNameSnapshot;
+
+  /** The names with every Soundex code */
+  private final HashMap<String, HashSet<String>> namesBySoundex;
+
+  /** Creates an empty index */
+  FuzzyNameIndex() {
+    nameCounts = new HashMap<String, Integer>();
+    sortedNames = new TreeSet<String>();
+    namesBySoundex = new HashMap<String, HashSet<String>>();
+  }
+
+  /** Removes every name */
+  void clear() {
+    nameCounts.clear();
+    sortedNames.clear();
+    sortedNameSnapshot = null;
+    namesBySoundex.clear();
+  }
+
+  /**
+   * Counts a name once more, indexing it if it is new
+   *
+   * @param name The case-folded name
+   */
+  void add(String name) {
+    add(name, 1);
+  }
+
+  /**
+   * Counts the last names of many entries, indexing every new name once however many entries have
+   * it
+   *
+   * @param addressEntries The entries
+   */
+  void addAll(Collection<AddressEntry> addressEntries) {
+    countLastNames(addressEntries).forEach(this::add);
+  }
+
+  /**
+   * Counts a name a number of times more, indexing it if it is new
+   *
+   * @param name The case-folded name
+   * @param times The number of times to count the name
+   */
+  private void add(String name, int times) {
+    if (nameCounts.merge(name, times, Integer::sum) > times) {
+      return;
+    }
+
+    sortedNames.add(name);
+    sortedNameSnapshot = null;
+    namesBySoundex.computeIfAbsent(soundex(name), key -> new HashSet<String>()).add(name);
+  }
+
+  /**
+   * Counts a name once less, removing it from the index once no entry has it
+   *
+   * @param name The case-folded name
+   */
+  void remove(String name) {
+    remove(name, 1);
+  }
+
+  /**
+   * Counts the last names of many entries less, removing the names no entry has any more
+   *
+   * @param addressEntries The entries
+   */
+  void removeAll(Collection<AddressEntry> addressEntries) {
+    countLastNames(addressEntries).forEach(this::remove);
+  }
+
+  /**
+   * Counts a name a number of times less, removing it from the index once no entry has it
+   *
+   * @param name The case-folded name
+   * @param times The number of times to count the name less
+   */
+  private void remove(String name, int times) {
+    Integer count = nameCounts.get(name);
+
+    if (count == null) {
+      return;
+    }
+
+    if (count > times) {
+      nameCounts.put(name, count - times);
+      return;
+    }
+
+    nameCounts.remove(name);
+    sortedNames.remove(name);
+    sortedNameSnapshot = null;
+    removeFrom(namesBySoundex, soundex(name), name);
+  }
+
+  /**
+   * Returns the names that are within an edit distance of a name, or have the same Soundex code and
+   * a length within that distance of the name's, best match first: by edit distance, then names
+   * that sound alike, then alphabetically
+   *
+   * @param name The case-folded name to match
+   * @param maximumDistance The largest edit distance of a match that doesn't sound alike
+   * @return The matching names
+   */
+  ArrayList<String> match(String name, int maximumDistance) {
+    String nameSoundex = soundex(name);
+    HashSet<String> soundAlikes =
+        nameSoundex.isEmpty()
+            ? new HashSet<String>()
+            : namesBySoundex.getOrDefault(nameSoundex, new HashSet<String>());
+    ArrayList<Match> matches = new ArrayList<Match>();
+    HashSet<String> matchedNames = new HashSet<String>();
+
+    // rows[i] is the last row of the edit distance table of the first i characters of a candidate
+    ArrayList<int[]> rows = new ArrayList<int[]>();
+    int[] firstRow = new int[name.length() + 1];
+
+    for (int j = 0; j <= name.length(); j++) {
+      firstRow[j] = j;
+    }
+
+    rows.add(firstRow);
+    int computedLength = 0;
+    SortedNameSnapshot snapshot = sortedNameSnapshot;
+
+    if (snapshot == null) {
+      snapshot = new SortedNameSnapshot(sortedNames);
+      sortedNameSnapshot = snapshot;
+    }
+
+    String[] names = snapshot.names;
+    int[] commonPrefixLengths = snapshot.commonPrefixLengths;
+    int index = 0;
+
+    while (index < names.length) {
+      String candidate = names[index];
+      // the rows of the prefix shared with the previous candidate are still valid
+      int length = Math.min(computedLength, commonPrefixLengths[index]);
+      boolean pruned = false;
+
+      while (length < candidate.length()) {
+        if (rows.size() == length + 1) {
+          rows.add(new int[name.length() + 1]);
+        }
+
+        int[] previousRow = rows.get(length);
+        int[] row = rows.get(length + 1);
+        char letter = candidate.charAt(length);
+        row[0] = length + 1;
+        int rowMinimum = row[0];
+
+        // only the band of columns within the largest distance of the diagonal can match, so the
+        // cells just outside it stand for every larger distance
+        int first = Math.max(1, length + 1 - maximumDistance);
+        int last = Math.min(name.length(), length + 1 + maximumDistance);
+
+        if (first > 1) {
+          row[first - 1] = maximumDistance + 1;
+        }
+
+        for (int j = first; j <= last; j++) {
+          int substitutionCost = (name.charAt(j - 1) == letter) ? 0 : 1;
+          row[j] =
+              Math.min(
+                  previousRow[j - 1] + substitutionCost,
+                  Math.min(previousRow[j] + 1, row[j - 1] + 1));
+          rowMinimum = Math.min(rowMinimum, row[j]);
+        }
+
+        if (last < name.length()) {
+          row[last + 1] = maximumDistance + 1;
+        }
+
+        length++;
+
+        // distances never shrink from one row to the next
+        if (rowMinimum > maximumDistance) {
+          pruned = true;
+          break;
+        }
+      }
+
+      computedLength = length;
+      index++;
+
+      if (pruned) {
+        // skip every name starting with the prefix that is already too far away, which leaves the
+        // next name sharing as much of it as the prefix lengths say
+        while ((index < names.length) && (commonPrefixLengths[index] >= length)) {
+          index++;
+        }
+
+        continue;
+      }
+
+      // the last column is only computed for names whose length is within the band
+      int distance =
+          (Math.abs(length - name.length()) > maximumDistance)
+              ? maximumDistance + 1
+              : rows.get(length)[name.length()];
+
+      if (distance <= maximumDistance) {
+        matches.add(new Match(candidate, distance, soundAlikes.contains(candidate)));
+        matchedNames.add(candidate);
+      }
+    }
+
+    for (String soundAlike : soundAlikes) {
+      if (!matchedNames.contains(soundAlike)
+          && (Math.abs(soundAlike.length() - name.length()) <= maximumDistance)) {
+        int bound = Math.max(soundAlike.length(), name.length());
+        matches.add(new Match(soundAlike, editDistance(name, soundAlike, bound), true));
+      }
+    }
+
+    matches.sort(null);
+    ArrayList<String> matchingNames = new ArrayList<String>(matches.size());
+
+    for (Match match : matches) {
+      matchingNames.add(match.name);
+    }
+
+    return matchingNames;
+  }
+
+  /**
+   * Counts how many entries have every case-folded last name
+   *
+   * @param addressEntries The entries
+   * @return The number of entries with every last name
+   */
+  private static HashMap<String, Integer> countLastNames(Collection<AddressEntry> addressEntries) {
+    HashMap<String, Integer> counts = new HashMap<String, Integer>();
+
+    for (AddressEntry addressEntry : addressEntries) {
+      counts.merge(addressEntry.getLastNameKey(), 1, Integer::sum);
+    }
+
+    return counts;
+  }
+
+  /**
+   * Returns the Levenshtein distance between two strings, or a number above a bound once it is
+   * clear that the distance is above it
+   *
+   * @param first The first string
+   * @param second The second string
+   * @param bound The largest distance of interest
+   * @return The distance, or {@code bound + 1} if it is larger than the bound
+   */
+  static int editDistance(String first, String second, int bound) {
+    if (Math.abs(first.length() - second.length()) > bound) {
+      return bound + 1;
+    }
+
+    int[] previousRow = new int[second.length() + 1];
+    int[] row = new int[second.length() + 1];
+
+    for (int j = 0; j <= second.length(); j++) {
+      previousRow[j] = j;
+    }
+
+    for (int i = 1; i <= first.length(); i++) {
+      row[0] = i;
+      int rowMinimum = row[0];
+
+      for (int j = 1; j <= second.length(); j++) {
+        int substitutionCost = (first.charAt(i - 1) == second.charAt(j - 1)) ? 0 : 1;
+        row[j] =
+            Math.min(
+                previousRow[j - 1] + substitutionCost,
+                Math.min(previousRow[j] + 1, row[j - 1] + 1));
+        rowMinimum = Math.min(rowMinimum, row[j]);
+      }
+
+      // distances never shrink from one row to the next
+      if (rowMinimum > bound) {
+        return bound + 1;
+      }
+
+      int[] swappedRow = previousRow;
+      previousRow = row;
+      row = swappedRow;
+    }
+
+    return Math.min(previousRow[second.length()], bound + 1);
+  }
+
+  /**
+   * Returns the American Soundex code of a name: its first letter followed by three digits for the
+   * sounds of the letters after it. Characters other than the letters a to z are ignored.
+   *
+   * @param name The case-folded name
+   * @return The Soundex code, or an empty string if the name has none of the letters a to z
+   */
+  static String soundex(String name) {
+    StringBuilder code = new StringBuilder(4);
+    char previousDigit = 0;
+
+    for (int i = 0; (i < name.length()) && (code.length() < 4); i++) {
+      char letter = name.charAt(i);
+
+      if ((letter < 'a') || (letter > 'z')) {
+        continue;
+      }
+
+      char digit = SOUNDEX_DIGITS.charAt(letter - 'a');
+
+      if (code.isEmpty()) {
+        code.append(Character.toUpperCase(letter));
+      } else if ((digit != '0') && (digit != previousDigit)) {
+        code.append(digit);
+      }
+
+      // h and w don't separate letters with the same digit, but vowels do
+      if ((letter != 'h') && (letter != 'w')) {
+        previousDigit = digit;
+      }
+    }
+
+    if (code.isEmpty()) {
+      return "";
+    }
+
+    while (code.length() < 4) {
+      code.append('0');
+    }
+
+    return code.toString();
+  }
+
+  /**
+   * Removes a name from a posting set, dropping the set once it is empty
+   *
+   * @param postings The posting sets
+   * @param key The key of the posting set
+   * @param name The name to remove
+   */
+  private static void removeFrom(
+      HashMap<String, HashSet<String>> postings, String key, String name) {
+    HashSet<String> names = postings.get(key);
+
+    if (names != null) {
+      names.remove(name);
+
+      if (names.isEmpty()) {
+        postings.remove(key);
+      }
+    }
+  }
+
+  /** The names in sorted order, with the length of the prefix each shares with the one before */
+  private static class SortedNameSnapshot {
+    /** The names */
+    private final String[] names;
+
+    /** The length of the common prefix of every name and the name before it, 0 for the first */
+    private final int[] commonPrefixLengths;
+
+    /**
+     * Copies sorted names
+     *
+     * @param sortedNames The names
+     */
+    private SortedNameSnapshot(TreeSet<String> sortedNames) {
+      names = sortedNames.toArray(new String[0]);
+      commonPrefixLengths = new int[names.length];
+
+      for (int i = 1; i < names.length; i++) {
+        String previous = names[i - 1];
+        int maximumLength = Math.min(previous.length(), names[i].length());
+        int length = 0;
+
+        while ((length < maximumLength) && (previous.charAt(length) == names[i].charAt(length))) {
+          length++;
+        }
+
+        commonPrefixLengths[i] = length;
+      }
+    }
+  }
+
+  /** A matching name and how well it matched */
+  private static class Match implements Comparable<Match> {
+    /** The name */
+    private final String name;
+
+    /** The edit distance from the query */
+    private final int distance;
+
+    /** If the name has the same Soundex code as the query */
+    private final boolean soundsAlike;
+
+    /**
+     * Creates a match
+     *
+     * @param name The name
+     * @param distance The edit distance from the query
+     * @param soundsAlike If the name has the same Soundex code as the query
+     */
+    private Match(String name, int distance, boolean soundsAlike) {
+      this.name = name;
+      this.distance = distance;
+      this.soundsAlike = soundsAlike;
+    }
+
+    @Override
+    public int compareTo(Match that) {
+      if (distance != that.distance) {
+        return Integer.compare(distance, that.distance);
+      }
+
+      if (soundsAlike != that.soundsAlike) {
+        return soundsAlike ? -1 : 1;
+      }
+
+      return name.compareTo(that.name);
+    }
+  }
+}
@@ -0,0 +1,147 @@
+package address.data;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts latencies in log-linear buckets, like an HDR histogram: every power of two is split into
+ * 16 equal buckets, so a percentile is off by at most 1/16 of its value however large it is, and
+ * the histogram has a fixed size of about 8 KB. It is safe to record into from multiple threads,
+ * without locking.
+ *
+ * @author Poleon Banouvong
+ * @since 2026-10-17
+ */
+class LatencyHistogram {
+  /** The number of bits of a latency kept beside its power of two */
+  private static final int SUB_BUCKET_BITS = 4;
+
+  /** The number of buckets every power of two is split into */
+  private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+  /** The number of buckets, enough for any non-negative long */
+  private static final int BUCKET_COUNT = (64 - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT;
+
+  /** The number of latencies in every bucket */
+  private final AtomicLongArray buckets;
+
+  /** The sum of every latency */
+  private final LongAdder totalNanos;
+
+  /** The largest latency */
+  private final LongAccumulator maximumNanos;
+
+  /** Creates an empty histogram */
+  LatencyHistogram() {
+    this.buckets = new AtomicLongArray(BUCKET_COUNT);
+    this.totalNanos = new LongAdder();
+    this.maximumNanos = new LongAccumulator(Math::max, 0);
+  }
+
+  /**
+   * Records a latency
+   *
+   * @param nanos The latency in nanoseconds; negative latencies are counted as 0
+   */
+  void record(long nanos) {
+    nanos = Math.max(nanos, 0);
+    buckets.incrementAndGet(bucket(nanos));
+    totalNanos.add(nanos);
+    maximumNanos.accumulate(nanos);
+  }
+
+  /** Removes every latency */
+  void reset() {
+    for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+      buckets.set(bucket, 0);
+    }
+
+    totalNanos.reset();
+    maximumNanos.reset();
+  }
+
+  /**
+   * Returns the statistics of the recorded latencies. Latencies recorded while this runs may be
+   * partly counted.
+   *
+   * @param operation The operation the latencies are of
+   * @return The statistics
+   */
+  OperationStatistics statistics(AddressOperation operation) {
+    long[] counts = new long[BUCKET_COUNT];
+    long count = 0;
+
+    for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+      counts[bucket] = buckets.get(bucket);
+      count += counts[bucket];
+    }
+
+    return new OperationStatistics(
+        operation.getMethodName(),
+        count,
+        totalNanos.sum(),
+        percentile(counts, count, 0.5),
+        percentile(counts, count, 0.9),
+        percentile(counts, count, 0.99),
+        percentile(counts, count, 0.999),
+        maximumNanos.get());
+  }
+
+  /**
+   * Returns the latency at or below which a share of the latencies are
+   *
+   * @param counts The number of latencies in every bucket
+   * @param count The number of latencies
+   * @param quantile The share of the latencies, from 0 to 1
+   * @return The largest latency of the bucket the percentile falls in, or 0 if there are none
+   */
+  private static long percentile(long[] counts, long count, double quantile) {
+    long rank = Math.max(1, (long) Math.ceil(quantile * count));
+    long seen = 0;
+
+    for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+      seen += counts[bucket];
+
+      if (seen >= rank) {
+        return highestValue(bucket);
+      }
+    }
+
+    return 0;
+  }
+
+  /**
+   * Returns the bucket of a latency
+   *
+   * @param nanos The latency, which isn't negative
+   * @return The bucket
+   */
+  static int bucket(long nanos) {
+    if (nanos < SUB_BUCKET_COUNT) {
+      return (int) nanos;
+    }
+
+    int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+    int subBucket = (int) (nanos >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKET_COUNT - 1);
+
+    return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT + subBucket;
+  }
+
+  /**
+   * Returns the largest latency counted in a bucket
+   *
+   * @param bucket The bucket
+   * @return The largest latency
+   */
+  static long highestValue(int bucket) {
+    if (bucket < SUB_BUCKET_COUNT) {
+      return bucket;
+    }
+
+    int shift = bucket / SUB_BUCKET_COUNT - 1;
+    long lowestValue = (long) (SUB_BUCKET_COUNT + bucket % SUB_BUCKET_COUNT) << shift;
+
+    return lowestValue + (1L << shift) - 1;
+  }
+}
@@ -0,0 +1,101 @@
+package address.data;
+
+/**
+ * Holds statistics about a bulk load of address entries from a file
+ *
+ * @author Poleon Banouvong
+ * @since 2026-10-17
+ */
+public class LoadStatistics {
+  /** The number of complete records read from the file */
+  private long recordsRead;
+
+  /** The number of entries added to the address book */
+  private long entriesAdded;
+
+  /** The number of records skipped because their ZIP code isn't a number */
+  private long malformedRecords;
+
+  /** The time the load took, in nanoseconds */
+  private long elapsedNanos;
+
+  /** Constructs empty load statistics */
+  public LoadStatistics() {
+    this.recordsRead = 0;
+    this.entriesAdded = 0;
+    this.malformedRecords = 0;
+    this.elapsedNanos = 0;
+  }
+
+  /**
+   * Returns the number of complete records read from the file, including duplicates that weren't
+   * added
+   *
+   * @return The number of records read
+   */
+  public long getRecordsRead() {
+    return recordsRead;
+  }
+
+  /**
+   * Returns the number of entries added to the address book
+   *
+   * @return The number of entries added
+   */
+  public long getEntriesAdded() {
+    return entriesAdded;
+  }
+
+  /**
+   * Returns the number of records that were skipped because their ZIP code isn't a number
+   *
+   * @return The number of malformed records
+   */
+  public long getMalformedRecords() {
+    return malformedRecords;
+  }
+
+  /**
+   * Returns the time the load took
+   *
+   * @return The elapsed time in nanoseconds
+   */
+  public long getElapsedNanos() {
+    return elapsedNanos;
+  }
+
+  /**
+   * Returns the load throughput
+   *
+   * @return The number of records read per second, or 0 if no time was recorded
+   */
+  public double getRecordsPerSecond() {
+    return (elapsedNanos > 0) ? (recordsRead * 1e9 / elapsedNanos) : 0;
+  }
+
+  /**
+   * Records the outcome of a load
+   *
+   * @param recordsRead The number of complete records read from the file
+   * @param entriesAdded The number of entries added to the address book
+   * @param malformedRecords The number of records skipped because their ZIP code isn't a number
+   * @param elapsedNanos The time the load took, in nanoseconds
+   */
+  void record(long recordsRead, long entriesAdded, long malformedRecords, long elapsedNanos) {
+    this.recordsRead = recordsRead;
+    this.entriesAdded = entriesAdded;
+    this.malformedRecords = malformedRecords;
+    this.elapsedNanos = elapsedNanos;
+  }
+
+  /**
+   * Converts the statistics into an output-friendly string
+   *
+   * @return The statistics
+   */
+  public String toString() {
+    return String.format(
+        "Read %d records (%d malformed) and added %d entries in %.1f ms (%.0f records/sec)",
+        recordsRead, malformedRecords, entriesAdded, elapsedNanos / 1e6, getRecordsPerSecond());
+  }
+}
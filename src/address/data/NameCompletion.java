@@ -0,0 +1,54 @@
+package address.data;
+
+/**
+ * A name suggested by {@link AddressBook#autocomplete}, with the number of entries that have it
+ *
+ * @author Poleon Banouvong
+ * @since 2026-10-17
+ */
+public class NameCompletion {
+  /** The name, as it was spelled by the first entry added with it */
+  private final String name;
+
+  /** The number of entries with the name */
+  private final int count;
+
+  /**
+   * Creates a completion
+   *
+   * @param name The name
+   * @param count The number of entries with the name
+   */
+  NameCompletion(String name, int count) {
+    this.name = name;
+    this.count = count;
+  }
+
+  /**
+   * Returns the name. Names are matched without regard to case, so this is the spelling of the
+   * first entry added with the name.
+   *
+   * @return The name
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Returns the number of entries with the name
+   *
+   * @return The number of entries
+   */
+  public int getCount() {
+    return count;
+  }
+
+  /**
+   * Converts the completion into an output-friendly string
+   *
+   * @return The name followed by its count
+   */
+  public String toString() {
+    return name + " (" + count + ")";
+  }
+}
@@ -0,0 +1,387 @@
+package address.data;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.PriorityQueue;
+
+/**
+ * Counts case-folded names in a trie, to suggest the most common names starting with a prefix.
+ *
+ * <p>Every node knows the largest count anywhere below it, so the most common completions are found
+ * best-first: nodes are expanded in order of that largest count, and the search stops as soon as
+ * enough names have been found, without visiting the rest of the subtree. Counts are updated along
+ * a single path when a name is added or removed, and nodes left without names are removed.
+ *
+ * @author Poleon Banouvong
+ * @since 2026-10-17
+ */
+class NameTrie {
+  /** The estimated size of a node object, not counting its arrays */
+  private static final int NODE_SIZE = 40;
+
+  /** The estimated size of an array object, not counting its elements */
+  private static final int ARRAY_HEADER_SIZE = 16;
+
+  /** The estimated size of a reference */
+  private static final int REFERENCE_SIZE = 4;
+
+  /** The root node, for the empty prefix */
+  private Node root;
+
+  /** Creates an empty trie */
+  NameTrie() {
+    root = new Node();
+  }
+
+  /** Removes every name */
+  void clear() {
+    root = new Node();
+  }
+
+  /**
+   * Counts a name once more
+   *
+   * @param key The case-folded name
+   * @param name The name as it is spelled, kept if this is the first time it is counted
+   */
+  void add(String key, String name) {
+    add(key, name, 1);
+  }
+
+  /**
+   * Counts the first or last names of many entries, walking the path of every distinct name once
+   * however many entries have it
+   *
+   * @param addressEntries The entries
+   * @param firstNames {@code true} to count first names, {@code false} to count last names
+   */
+  void addAll(Collection<AddressEntry> addressEntries, boolean firstNames) {
+    LinkedHashMap<String, Integer> counts = new LinkedHashMap<String, Integer>();
+    HashMap<String, String> names = new HashMap<String, String>();
+
+    for (AddressEntry addressEntry : addressEntries) {
+      String key = firstNames ? addressEntry.getFirstNameKey() : addressEntry.getLastNameKey();
+
+      if (counts.merge(key, 1, Integer::sum) == 1) {
+        names.put(key, firstNames ? addressEntry.getFirstName() : addressEntry.getLastName());
+      }
+    }
+
+    counts.forEach((key, count) -> add(key, names.get(key), count));
+  }
+
+  /**
+   * Counts a name a number of times more
+   *
+   * @param key The case-folded name
+   * @param name The name as it is spelled, kept if this is the first time it is counted
+   * @param times The number of times to count the name
+   */
+  private void add(String key, String name, int times) {
+    Node[] path = new Node[key.length() + 1];
+    Node node = root;
+    path[0] = node;
+
+    for (int i = 0; i < key.length(); i++) {
+      node = node.childFor(key.charAt(i), true);
+      path[i + 1] = node;
+    }
+
+    if (node.count == 0) {
+      node.name = name;
+    }
+
+    node.count += times;
+
+    for (Node pathNode : path) {
+      pathNode.maximumCount = Math.max(pathNode.maximumCount, node.count);
+    }
+  }
+
+  /**
+   * Counts a name once less
+   *
+   * @param key The case-folded name
+   */
+  void remove(String key) {
+    remove(key, 1);
+  }
+
+  /**
+   * Counts the first or last names of many entries less, walking the path of every distinct name
+   * once however many entries have it
+   *
+   * @param addressEntries The entries
+   * @param firstNames {@code true} to count first names, {@code false} to count last names
+   */
+  void removeAll(Collection<AddressEntry> addressEntries, boolean firstNames) {
+    HashMap<String, Integer> counts = new HashMap<String, Integer>();
+
+    for (AddressEntry addressEntry : addressEntries) {
+      String key = firstNames ? addressEntry.getFirstNameKey() : addressEntry.getLastNameKey();
+      counts.merge(key, 1, Integer::sum);
+    }
+
+    counts.forEach(this::remove);
+  }
+
+  /**
+   * Counts a name a number of times less, down to 0
+   *
+   * @param key The case-folded name
+   * @param times The number of times to count the name less
+   */
+  private void remove(String key, int times) {
+    Node[] path = new Node[key.length() + 1];
+    Node node = root;
+    path[0] = node;
+
+    for (int i = 0; i < key.length(); i++) {
+      node = node.childFor(key.charAt(i), false);
+
+      if (node == null) {
+        return;
+      }
+
+      path[i + 1] = node;
+    }
+
+    if (node.count == 0) {
+      return;
+    }
+
+    node.count = Math.max(node.count - times, 0);
+
+    if (node.count == 0) {
+      node.name = null;
+    }
+
+    for (int i = key.length(); i >= 0; i--) {
+      Node pathNode = path[i];
+      pathNode.updateMaximumCount();
+
+      if ((i > 0) && (pathNode.maximumCount == 0)) {
+        path[i - 1].removeChild(key.charAt(i - 1));
+      }
+    }
+  }
+
+  /**
+   * Returns the most common names starting with a prefix, most common first. Names with the same
+   * count are in alphabetical order of their case-folded names.
+   *
+   * @param prefix The case-folded prefix
+   * @param limit The maximum number of names to return
+   * @return The names and their counts
+   */
+  ArrayList<NameCompletion> complete(String prefix, int limit) {
+    ArrayList<NameCompletion> completions = new ArrayList<NameCompletion>();
+    Node node = root;
+
+    for (int i = 0; (node != null) && (i < prefix.length()); i++) {
+      node = node.childFor(prefix.charAt(i), false);
+    }
+
+    if ((node == null) || (node.maximumCount == 0) || (limit <= 0)) {
+      return completions;
+    }
+
+    // a name is a candidate whose priority is its own count, while a node is one whose priority
+    // bounds every name below it; on a tie, a node's key is a lower bound for the keys below it
+    PriorityQueue<Candidate> candidates = new PriorityQueue<Candidate>();
+    candidates.add(new Candidate(node, prefix, node.maximumCount, false));
+
+    while (!candidates.isEmpty() && (completions.size() < limit)) {
+      Candidate candidate = candidates.poll();
+
+      if (candidate.isName) {
+        completions.add(new NameCompletion(candidate.node.name, candidate.node.count));
+        continue;
+      }
+
+      if (candidate.node.count > 0) {
+        candidates.add(new Candidate(candidate.node, candidate.key, candidate.node.count, true));
+      }
+
+      for (int i = 0; i < candidate.node.childCount; i++) {
+        Node child = candidate.node.children[i];
+        candidates.add(
+            new Candidate(
+                child, candidate.key + candidate.node.labels[i], child.maximumCount, false));
+      }
+    }
+
+    return completions;
+  }
+
+  /**
+   * Returns an estimate of the heap used by the trie
+   *
+   * @return The estimated number of bytes
+   */
+  long memoryUsage() {
+    long memoryUsage = 0;
+    ArrayList<Node> nodes = new ArrayList<Node>();
+    nodes.add(root);
+
+    while (!nodes.isEmpty()) {
+      Node node = nodes.removeLast();
+      memoryUsage += NODE_SIZE;
+
+      if (node.labels.length > 0) {
+        memoryUsage += 2 * ARRAY_HEADER_SIZE;
+        memoryUsage += (long) node.labels.length * (Character.BYTES + REFERENCE_SIZE);
+      }
+
+      for (int i = 0; i < node.childCount; i++) {
+        nodes.add(node.children[i]);
+      }
+    }
+
+    return memoryUsage;
+  }
+
+  /** A node of the trie, for the prefix spelled by the path to it */
+  private static class Node {
+    /** The labels of the children, in ascending order */
+    private char[] labels;
+
+    /** The children, in the order of their labels */
+    private Node[] children;
+
+    /** The number of children */
+    private int childCount;
+
+    /** The number of times the prefix of this node was counted as a whole name */
+    private int count;
+
+    /** The largest count of this node and every node below it */
+    private int maximumCount;
+
+    /** The name as it was first spelled, or {@code null} if the count is 0 */
+    private String name;
+
+    /** Creates a node without children or names */
+    private Node() {
+      this.labels = new char[0];
+      this.children = new Node[0];
+      this.childCount = 0;
+      this.count = 0;
+      this.maximumCount = 0;
+      this.name = null;
+    }
+
+    /**
+     * Returns the child with a label
+     *
+     * @param label The label
+     * @param create {@code true} to create the child if it doesn't exist
+     * @return The child, or {@code null} if it doesn't exist and wasn't created
+     */
+    private Node childFor(char label, boolean create) {
+      int index = Arrays.binarySearch(labels, 0, childCount, label);
+
+      if (index >= 0) {
+        return children[index];
+      }
+
+      if (!create) {
+        return null;
+      }
+
+      index = -index - 1;
+
+      if (childCount == labels.length) {
+        int capacity = Math.max(2, 2 * childCount);
+        labels = Arrays.copyOf(labels, capacity);
+        children = Arrays.copyOf(children, capacity);
+      }
+
+      System.arraycopy(labels, index, labels, index + 1, childCount - index);
+      System.arraycopy(children, index, children, index + 1, childCount - index);
+
+      Node child = new Node();
+      labels[index] = label;
+      children[index] = child;
+      childCount++;
+
+      return child;
+    }
+
+    /**
+     * Removes the child with a label
+     *
+     * @param label The label
+     */
+    private void removeChild(char label) {
+      int index = Arrays.binarySearch(labels, 0, childCount, label);
+
+      if (index < 0) {
+        return;
+      }
+
+      System.arraycopy(labels, index + 1, labels, index, childCount - index - 1);
+      System.arraycopy(children, index + 1, children, index, childCount - index - 1);
+      childCount--;
+      children[childCount] = null;
+    }
+
+    /** Recomputes the largest count from this node and its children */
+    private void updateMaximumCount() {
+      maximumCount = count;
+
+      for (int i = 0; i < childCount; i++) {
+        maximumCount = Math.max(maximumCount, children[i].maximumCount);
+      }
+    }
+  }
+
+  /** A node or name waiting to be visited by the best-first search */
+  private static class Candidate implements Comparable<Candidate> {
+    /** The node */
+    private final Node node;
+
+    /** The prefix of the node */
+    private final String key;
+
+    /** The count of the name, or the largest count below the node */
+    private final int priority;
+
+    /** {@code true} for the name of the node, {@code false} for the node itself */
+    private final boolean isName;
+
+    /**
+     * Creates a candidate
+     *
+     * @param node The node
+     * @param key The prefix of the node
+     * @param priority The count of the name, or the largest count below the node
+     * @param isName {@code true} for the name of the node, {@code false} for the node itself
+     */
+    private Candidate(Node node, String key, int priority, boolean isName) {
+      this.node = node;
+      this.key = key;
+      this.priority = priority;
+      this.isName = isName;
+    }
+
+    @Override
+    public int compareTo(Candidate that) {
+      if (priority != that.priority) {
+        return Integer.compare(that.priority, priority);
+      }
+
+      int keyComparison = key.compareTo(that.key);
+
+      if (keyComparison != 0) {
+        return keyComparison;
+      }
+
+      // a node's own name comes before the longer names below it
+      return Boolean.compare(that.isName, isName);
+    }
+  }
+}
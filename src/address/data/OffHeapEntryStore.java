@@ -0,0 +1,793 @@
+package address.data;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.Spliterator;
+
+/**
+ * Stores address entries in columns of direct memory outside the heap. However many entries are
+ * stored, the heap only holds a few column buffers and the dictionary of distinct cities and
+ * states, so very large address books don't slow down garbage collection.
+ *
+ * <p>Every added entry becomes a row. The ZIP code and the dictionary ids of the city and state
+ * are kept in int columns, and the remaining fields in a record in the string pages: the
+ * case-folded last and first names as UTF-16, for comparisons without decoding, followed by the
+ * first name, last name, street, phone and e-mail as UTF-8. Each is preceded by its length as an
+ * int. A sorted int column of row numbers orders the rows, and is binary searched for lookups.
+ *
+ * <p>Entries are created from their row whenever they are returned, so while the store retains
+ * almost nothing on the heap (2 MB for ten million generated entries, where the heap store retains
+ * 489 MB for one million), scanning it allocates far more than scanning the heap store: listing a
+ * million entries allocated about 640 MB rather than 48 MB under {@code -prof gc}. It suits large
+ * address books that are looked up rather than listed. Adding or removing a single entry shifts the
+ * ordering column, which takes linear time; {@link #addAllSorted} merges a whole batch in one pass
+ * instead. The rows of removed entries are reclaimed once they outnumber the stored entries.
+ *
+ * <p>The heap stays small only while nothing holds on to the entries the store creates. The
+ * secondary indexes and the full-text index of {@link AddressBook} keep every entry they are built
+ * from, and each builds its own copies, so with both a million entries retain 1.6 GB, more than the
+ * 1.2 GB of the heap store, whose indexes share its entries. Lazily decoded views over the rows,
+ * with row numbers in the indexes, would avoid that but tie every index to this store. {@code
+ * LargeAddressBookPerfTest} measures the retained heap of both stores.
+ *
+ * @author Poleon Banouvong
+ * @since 2026-10-17
+ */
+class OffHeapEntryStore extends AbstractCollection<AddressEntry> implements EntryStore {
+  /** The number of rows the columns start with room for */
+  private static final int INITIAL_CAPACITY = 1024;
+
+  /** The size of the first string page */
+  private static final int INITIAL_PAGE_SIZE = 1 << 16;
+
+  /** The size string pages grow to */
+  private static final int MAXIMUM_PAGE_SIZE = 1 << 24;
+
+  /** The distinct cities and states, by dictionary id */
+  private final ArrayList<String> dictionaryValues;
+
+  /** The dictionary ids of the distinct cities and states */
+  private final HashMap<String, Integer> dictionaryIds;
+
+  /** The ZIP code of every row */
+  private Column zips;
+
+  /** The dictionary id of the city of every row */
+  private Column cities;
+
+  /** The dictionary id of the state of every row */
+  private Column states;
+
+  /** The address of the string record of every row: its page number, then its page offset */
+  private Column records;
+
+  /** The rows of the stored entries, in {@link AddressEntry#compareTo} order */
+  private Column order;
+
+  /** The pages holding the string records */
+  private ArrayList<ByteBuffer> pages;
+
+  /** The number of rows, including those of removed entries */
+  private int rowCount;
+
+  /** The number of stored entries */
+  private int size;
+
+  /** Creates an empty store */
+  OffHeapEntryStore() {
+    dictionaryValues = new ArrayList<String>();
+    dictionaryIds = new HashMap<String, Integer>();
+    clear();
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public Iterator<AddressEntry> iterator() {
+    return iteratorFrom(0);
+  }
+
+  @Override
+  public boolean contains(Object object) {
+    return (object instanceof AddressEntry addressEntry) && (position(addressEntry) >= 0);
+  }
+
+  @Override
+  public boolean add(AddressEntry addressEntry) {
+    int position = lowerBound(addressEntry);
+
+    if ((position < size) && (compareRow(order.getInt(position), addressEntry) == 0)) {
+      return false;
+    }
+
+    order.insertInt(position, appendRow(addressEntry), size);
+    size++;
+
+    return true;
+  }
+
+  @Override
+  public boolean remove(Object object) {
+    if (!(object instanceof AddressEntry addressEntry)) {
+      return false;
+    }
+
+    int position = position(addressEntry);
+
+    if (position < 0) {
+      return false;
+    }
+
+    order.deleteInt(position, size);
+    size--;
+    reclaimRemovedRows();
+
+    return true;
+  }
+
+  @Override
+  public void clear() {
+    dictionaryValues.clear();
+    dictionaryIds.clear();
+    zips = new Column(Integer.BYTES, INITIAL_CAPACITY);
+    cities = new Column(Integer.BYTES, INITIAL_CAPACITY);
+    states = new Column(Integer.BYTES, INITIAL_CAPACITY);
+    records = new Column(Long.BYTES, INITIAL_CAPACITY);
+    order = new Column(Integer.BYTES, INITIAL_CAPACITY);
+    pages = new ArrayList<ByteBuffer>();
+    rowCount = 0;
+    size = 0;
+  }
+
+  @Override
+  public AddressEntry ceiling(AddressEntry addressEntry) {
+    int position = lowerBound(addressEntry);
+
+    return (position < size) ? entry(order.getInt(position)) : null;
+  }
+
+  @Override
+  public Iterable<AddressEntry> tailSet(AddressEntry fromEntry) {
+    return () -> iteratorFrom(lowerBound(fromEntry));
+  }
+
+  /**
+   * Removes many entries at once, shifting each run of kept entries in the ordering column down
+   * once rather than shifting the whole column for every removed entry
+   */
+  @Override
+  public void removeAllSorted(List<AddressEntry> sortedEntries, List<AddressEntry> removedEntries) {
+    int keptSize = 0;
+    int position = 0;
+
+    for (AddressEntry addressEntry : sortedEntries) {
+      int nextPosition = lowerBound(addressEntry, position);
+      order.copyFrom(order, position, keptSize, nextPosition - position);
+      keptSize += nextPosition - position;
+      position = nextPosition;
+
+      if ((position < size) && (compareRow(order.getInt(position), addressEntry) == 0)) {
+        removedEntries.add(entry(order.getInt(position)));
+        position++;
+      }
+    }
+
+    order.copyFrom(order, position, keptSize, size - position);
+    size = keptSize + (size - position);
+    reclaimRemovedRows();
+  }
+
+  /**
+   * Returns a spliterator over the entries as they are now. Rows are never changed once written,
+   * and growing or compacting the columns and pages replaces them rather than overwriting them, so
+   * the spliterator reads the current ones directly. Only the ordering column, which is shifted in
+   * place, and the dictionary, which is emptied by {@link #clear}, are copied.
+   */
+  @Override
+  public Spliterator<AddressEntry> snapshotSpliterator() {
+    int[] rows = new int[size];
+
+    for (int position = 0; position < size; position++) {
+      rows[position] = order.getInt(position);
+    }
+
+    Column zipsSnapshot = new Column(zips);
+    Column citiesSnapshot = new Column(cities);
+    Column statesSnapshot = new Column(states);
+    Column recordsSnapshot = new Column(records);
+    List<ByteBuffer> pagesSnapshot = List.copyOf(pages);
+    List<String> dictionarySnapshot = List.copyOf(dictionaryValues);
+
+    return new EntrySpliterator(
+        position ->
+            entry(
+                rows[position],
+                zipsSnapshot,
+                citiesSnapshot,
+                statesSnapshot,
+                recordsSnapshot,
+                pagesSnapshot,
+                dictionarySnapshot),
+        0,
+        rows.length);
+  }
+
+  /**
+   * Adds many entries at once, merging them with the ordering column in a single pass. The stored
+   * entries are compared straight from their rows, so none of them are created.
+   */
+  @Override
+  public void addAllSorted(List<AddressEntry> sortedEntries, Set<AddressEntry> rejectedEntries) {
+    if (sortedEntries.isEmpty()) {
+      return;
+    }
+
+    Column mergedOrder = new Column(Integer.BYTES, size + sortedEntries.size());
+    int mergedSize = 0;
+    int existingPosition = 0;
+
+    for (AddressEntry addressEntry : sortedEntries) {
+      int comparison = 1;
+
+      while (existingPosition < size) {
+        comparison = compareRow(order.getInt(existingPosition), addressEntry);
+
+        if (comparison >= 0) {
+          break;
+        }
+
+        mergedOrder.setInt(mergedSize++, order.getInt(existingPosition++));
+      }
+
+      if ((existingPosition < size) && (comparison == 0)) {
+        rejectedEntries.add(addressEntry);
+      } else {
+        mergedOrder.setInt(mergedSize++, appendRow(addressEntry));
+      }
+    }
+
+    mergedOrder.copyFrom(order, existingPosition, mergedSize, size - existingPosition);
+    mergedSize += size - existingPosition;
+
+    order = mergedOrder;
+    size = mergedSize;
+  }
+
+  /**
+   * Returns an iterator over the stored entries from a position in the ordering column on
+   *
+   * @param startPosition The position of the first entry
+   * @return The iterator
+   */
+  private Iterator<AddressEntry> iteratorFrom(int startPosition) {
+    return new Iterator<AddressEntry>() {
+      /** The position of the next entry */
+      private int position = startPosition;
+
+      @Override
+      public boolean hasNext() {
+        return position < size;
+      }
+
+      @Override
+      public AddressEntry next() {
+        if (position >= size) {
+          throw new NoSuchElementException();
+        }
+
+        return entry(order.getInt(position++));
+      }
+    };
+  }
+
+  /**
+   * Returns the position in the ordering column of the first entry equal to or after an entry
+   *
+   * @param addressEntry The entry to search for
+   * @return The position, which is the number of stored entries if they are all before the entry
+   */
+  private int lowerBound(AddressEntry addressEntry) {
+    return lowerBound(addressEntry, 0);
+  }
+
+  /**
+   * Returns the position in the ordering column of the first entry equal to or after an entry,
+   * searching from a position on
+   *
+   * @param addressEntry The entry to search for
+   * @param fromPosition The first position to search
+   * @return The position, which is the number of stored entries if they are all before the entry
+   */
+  private int lowerBound(AddressEntry addressEntry, int fromPosition) {
+    int low = fromPosition;
+    int high = size;
+
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+
+      if (compareRow(order.getInt(middle), addressEntry) < 0) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+
+    return low;
+  }
+
+  /**
+   * Returns the position in the ordering column of the entry equal to an entry
+   *
+   * @param addressEntry The entry to search for
+   * @return The position, or -1 if no stored entry is equal to the entry
+   */
+  private int position(AddressEntry addressEntry) {
+    int position = lowerBound(addressEntry);
+
+    if ((position < size) && (compareRow(order.getInt(position), addressEntry) == 0)) {
+      return position;
+    }
+
+    return -1;
+  }
+
+  /**
+   * Compares the entry in a row to an entry, like {@link AddressEntry#compareTo}
+   *
+   * @param row The row
+   * @param addressEntry The entry to compare to
+   * @return A negative integer, zero, or a positive integer if the entry in the row is less than,
+   *     equal to, or greater than the entry
+   */
+  private int compareRow(int row, AddressEntry addressEntry) {
+    long address = records.getLong(row);
+    ByteBuffer page = pages.get((int) (address >>> 32));
+    int offset = (int) address;
+
+    int lastNameKeyLength = page.getInt(offset);
+    int comparison =
+        compareChars(
+            page, offset + Integer.BYTES, lastNameKeyLength, addressEntry.getLastNameKey());
+
+    if (comparison != 0) {
+      return comparison;
+    }
+
+    offset += Integer.BYTES + Character.BYTES * lastNameKeyLength;
+
+    return compareChars(
+        page, offset + Integer.BYTES, page.getInt(offset), addressEntry.getFirstNameKey());
+  }
+
+  /**
+   * Compares UTF-16 characters in a page to a string, like {@link String#compareTo}
+   *
+   * @param page The page holding the characters
+   * @param offset The offset of the first character
+   * @param length The number of characters
+   * @param key The string to compare to
+   * @return A negative integer, zero, or a positive integer if the characters are less than, equal
+   *     to, or greater than the string
+   */
+  private static int compareChars(ByteBuffer page, int offset, int length, String key) {
+    int commonLength = Math.min(length, key.length());
+
+    for (int i = 0; i < commonLength; i++) {
+      char character = page.getChar(offset + Character.BYTES * i);
+      char keyCharacter = key.charAt(i);
+
+      if (character != keyCharacter) {
+        return character - keyCharacter;
+      }
+    }
+
+    return length - key.length();
+  }
+
+  /**
+   * Creates the entry in a row
+   *
+   * @param row The row
+   * @return The entry
+   */
+  private AddressEntry entry(int row) {
+    return entry(row, zips, cities, states, records, pages, dictionaryValues);
+  }
+
+  /**
+   * Creates the entry in a row of a set of columns and pages
+   *
+   * @param row The row
+   * @param zips The ZIP code column
+   * @param cities The city id column
+   * @param states The state id column
+   * @param records The string record address column
+   * @param pages The string pages
+   * @param dictionaryValues The cities and states of every dictionary id
+   * @return The entry
+   */
+  private static AddressEntry entry(
+      int row,
+      Column zips,
+      Column cities,
+      Column states,
+      Column records,
+      List<ByteBuffer> pages,
+      List<String> dictionaryValues) {
+    long address = records.getLong(row);
+    ByteBuffer page = pages.get((int) (address >>> 32));
+    int offset = (int) address;
+
+    // skip the case-folded names
+    offset += Integer.BYTES + Character.BYTES * page.getInt(offset);
+    offset += Integer.BYTES + Character.BYTES * page.getInt(offset);
+
+    // copy the UTF-8 fields out in one go, and decode each straight from the copy
+    int fieldsStart = offset;
+    int fieldsEnd = offset;
+
+    for (int i = 0; i < 5; i++) {
+      fieldsEnd += Integer.BYTES + page.getInt(fieldsEnd);
+    }
+
+    byte[] fields = new byte[fieldsEnd - fieldsStart];
+    page.get(fieldsStart, fields);
+
+    String firstName = decode(page, offset, fields, fieldsStart);
+    offset += Integer.BYTES + page.getInt(offset);
+    String lastName = decode(page, offset, fields, fieldsStart);
+    offset += Integer.BYTES + page.getInt(offset);
+    String street = decode(page, offset, fields, fieldsStart);
+    offset += Integer.BYTES + page.getInt(offset);
+    String phone = decode(page, offset, fields, fieldsStart);
+    offset += Integer.BYTES + page.getInt(offset);
+    String email = decode(page, offset, fields, fieldsStart);
+
+    // the dictionary already shares cities and states
+    return AddressEntry.unpooled(
+        firstName,
+        lastName,
+        street,
+        dictionaryValues.get(cities.getInt(row)),
+        dictionaryValues.get(states.getInt(row)),
+        zips.getInt(row),
+        phone,
+        email);
+  }
+
+  /**
+   * Decodes a UTF-8 field of a string record from a copy of the record's fields
+   *
+   * @param page The page holding the record
+   * @param offset The offset of the field's length in the page
+   * @param fields The copied fields
+   * @param fieldsStart The offset in the page the copy starts at
+   * @return The field
+   */
+  private static String decode(ByteBuffer page, int offset, byte[] fields, int fieldsStart) {
+    return new String(
+        fields, offset + Integer.BYTES - fieldsStart, page.getInt(offset), StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Writes an entry to a new row
+   *
+   * @param addressEntry The entry to write
+   * @return The row
+   */
+  private int appendRow(AddressEntry addressEntry) {
+    String lastNameKey = addressEntry.getLastNameKey();
+    String firstNameKey = addressEntry.getFirstNameKey();
+    byte[][] fields = {
+      addressEntry.getFirstName().getBytes(StandardCharsets.UTF_8),
+      addressEntry.getLastName().getBytes(StandardCharsets.UTF_8),
+      addressEntry.getStreet().getBytes(StandardCharsets.UTF_8),
+      addressEntry.getPhone().getBytes(StandardCharsets.UTF_8),
+      addressEntry.getEmail().getBytes(StandardCharsets.UTF_8)
+    };
+
+    int recordLength =
+        2 * Integer.BYTES + Character.BYTES * (lastNameKey.length() + firstNameKey.length());
+
+    for (byte[] field : fields) {
+      recordLength += Integer.BYTES + field.length;
+    }
+
+    long address = allocateRecord(recordLength);
+    ByteBuffer page = pages.get((int) (address >>> 32));
+    int offset = putChars(page, (int) address, lastNameKey);
+    offset = putChars(page, offset, firstNameKey);
+
+    for (byte[] field : fields) {
+      page.putInt(offset, field.length);
+      page.put(offset + Integer.BYTES, field);
+      offset += Integer.BYTES + field.length;
+    }
+
+    int row = rowCount++;
+    records.setLong(row, address);
+    zips.setInt(row, addressEntry.getZip());
+    cities.setInt(row, dictionaryId(addressEntry.getCity()));
+    states.setInt(row, dictionaryId(addressEntry.getState()));
+
+    return row;
+  }
+
+  /**
+   * Writes a string as its length followed by its UTF-16 characters
+   *
+   * @param page The page to write to
+   * @param offset The offset to write at
+   * @param value The string to write
+   * @return The offset after the string
+   */
+  private static int putChars(ByteBuffer page, int offset, String value) {
+    page.putInt(offset, value.length());
+    offset += Integer.BYTES;
+
+    for (int i = 0; i < value.length(); i++) {
+      page.putChar(offset, value.charAt(i));
+      offset += Character.BYTES;
+    }
+
+    return offset;
+  }
+
+  /**
+   * Returns the dictionary id of a city or state, adding it to the dictionary if it is new
+   *
+   * @param value The city or state
+   * @return The dictionary id
+   */
+  private int dictionaryId(String value) {
+    Integer id = dictionaryIds.get(value);
+
+    if (id == null) {
+      id = dictionaryValues.size();
+      dictionaryValues.add(value);
+      dictionaryIds.put(value, id);
+    }
+
+    return id;
+  }
+
+  /**
+   * Reserves room for a string record at the end of the last page, starting a new page if it
+   * doesn't fit. Pages double in size up to {@link #MAXIMUM_PAGE_SIZE}, or are as large as a record
+   * that doesn't fit in that.
+   *
+   * @param length The length of the record
+   * @return The address of the record
+   */
+  private long allocateRecord(int length) {
+    ByteBuffer page = pages.isEmpty() ? null : pages.getLast();
+
+    if ((page == null) || (page.remaining() < length)) {
+      int pageSize =
+          (page == null) ? INITIAL_PAGE_SIZE : Math.min(2 * page.capacity(), MAXIMUM_PAGE_SIZE);
+      page = ByteBuffer.allocateDirect(Math.max(pageSize, length)).order(ByteOrder.nativeOrder());
+      pages.add(page);
+    }
+
+    int offset = page.position();
+    page.position(offset + length);
+
+    return ((long) (pages.size() - 1) << 32) | offset;
+  }
+
+  /**
+   * Returns the length of a string record
+   *
+   * @param page The page holding the record
+   * @param offset The offset of the record
+   * @return The length in bytes
+   */
+  private static int recordLength(ByteBuffer page, int offset) {
+    int start = offset;
+    offset += Integer.BYTES + Character.BYTES * page.getInt(offset);
+    offset += Integer.BYTES + Character.BYTES * page.getInt(offset);
+
+    for (int i = 0; i < 5; i++) {
+      offset += Integer.BYTES + page.getInt(offset);
+    }
+
+    return offset - start;
+  }
+
+  /** Compacts the store once the rows of removed entries outnumber the stored entries */
+  private void reclaimRemovedRows() {
+    int removedRows = rowCount - size;
+
+    if ((removedRows > size) && (removedRows > INITIAL_CAPACITY)) {
+      compact();
+    }
+  }
+
+  /** Copies the rows of the stored entries into new columns and pages, in order */
+  private void compact() {
+    Column oldZips = zips;
+    Column oldCities = cities;
+    Column oldStates = states;
+    Column oldRecords = records;
+    Column oldOrder = order;
+    ArrayList<ByteBuffer> oldPages = pages;
+    int capacity = Math.max(size, INITIAL_CAPACITY);
+
+    zips = new Column(Integer.BYTES, capacity);
+    cities = new Column(Integer.BYTES, capacity);
+    states = new Column(Integer.BYTES, capacity);
+    records = new Column(Long.BYTES, capacity);
+    order = new Column(Integer.BYTES, capacity);
+    pages = new ArrayList<ByteBuffer>();
+
+    for (int row = 0; row < size; row++) {
+      int oldRow = oldOrder.getInt(row);
+      long oldAddress = oldRecords.getLong(oldRow);
+      ByteBuffer oldPage = oldPages.get((int) (oldAddress >>> 32));
+      int length = recordLength(oldPage, (int) oldAddress);
+
+      long address = allocateRecord(length);
+      pages.get((int) (address >>> 32)).put((int) address, oldPage, (int) oldAddress, length);
+
+      records.setLong(row, address);
+      zips.setInt(row, oldZips.getInt(oldRow));
+      cities.setInt(row, oldCities.getInt(oldRow));
+      states.setInt(row, oldStates.getInt(oldRow));
+      order.setInt(row, row);
+    }
+
+    rowCount = size;
+  }
+
+  /** A growable column of ints or longs in direct memory */
+  private static class Column {
+    /** The size of a value in bytes */
+    private final int width;
+
+    /** The values */
+    private ByteBuffer values;
+
+    /**
+     * Creates an empty column
+     *
+     * @param width The size of a value in bytes
+     * @param capacity The number of values to make room for
+     */
+    private Column(int width, int capacity) {
+      this.width = width;
+      this.values = allocate((long) width * capacity);
+    }
+
+    /**
+     * Creates a column sharing the values of another, as they are now. This column keeps the
+     * values even once the other column grows, so it can be read without a lock as long as those
+     * values are never overwritten.
+     *
+     * @param source The column to share the values of
+     */
+    private Column(Column source) {
+      this.width = source.width;
+      this.values = source.values;
+    }
+
+    /**
+     * Returns an int value
+     *
+     * @param index The index of the value
+     * @return The value
+     */
+    private int getInt(int index) {
+      return values.getInt(index * width);
+    }
+
+    /**
+     * Sets an int value, growing the column if needed
+     *
+     * @param index The index of the value
+     * @param value The value
+     */
+    private void setInt(int index, int value) {
+      ensureCapacity(index + 1);
+      values.putInt(index * width, value);
+    }
+
+    /**
+     * Returns a long value
+     *
+     * @param index The index of the value
+     * @return The value
+     */
+    private long getLong(int index) {
+      return values.getLong(index * width);
+    }
+
+    /**
+     * Sets a long value, growing the column if needed
+     *
+     * @param index The index of the value
+     * @param value The value
+     */
+    private void setLong(int index, long value) {
+      ensureCapacity(index + 1);
+      values.putLong(index * width, value);
+    }
+
+    /**
+     * Inserts an int value, shifting the values after it up
+     *
+     * @param index The index to insert at
+     * @param value The value
+     * @param length The number of values in use
+     */
+    private void insertInt(int index, int value, int length) {
+      ensureCapacity(length + 1);
+      values.put((index + 1) * width, values, index * width, (length - index) * width);
+      values.putInt(index * width, value);
+    }
+
+    /**
+     * Deletes a value, shifting the values after it down
+     *
+     * @param index The index to delete
+     * @param length The number of values in use
+     */
+    private void deleteInt(int index, int length) {
+      values.put(index * width, values, (index + 1) * width, (length - index - 1) * width);
+    }
+
+    /**
+     * Copies values from another column
+     *
+     * @param source The column to copy from
+     * @param sourceIndex The index of the first value to copy
+     * @param index The index to copy the first value to
+     * @param length The number of values to copy
+     */
+    private void copyFrom(Column source, int sourceIndex, int index, int length) {
+      ensureCapacity(index + length);
+      values.put(index * width, source.values, sourceIndex * width, length * width);
+    }
+
+    /**
+     * Makes sure the column has room for some values, doubling it if it doesn't
+     *
+     * @param capacity The number of values that need room
+     */
+    private void ensureCapacity(int capacity) {
+      if ((long) capacity * width <= values.capacity()) {
+        return;
+      }
+
+      long grownSize = Math.min(2L * values.capacity(), Integer.MAX_VALUE);
+      ByteBuffer grownValues = allocate(Math.max((long) capacity * width, grownSize));
+      grownValues.put(0, values, 0, values.capacity());
+      values = grownValues;
+    }
+
+    /**
+     * Allocates direct memory for values
+     *
+     * @param size The size in bytes
+     * @return The buffer
+     * @throws IllegalStateException If the column would be larger than a buffer can be
+     */
+    private static ByteBuffer allocate(long size) {
+      if (size > Integer.MAX_VALUE) {
+        throw new IllegalStateException("Too many rows for an off-heap column");
+      }
+
+      return ByteBuffer.allocateDirect((int) size).order(ByteOrder.nativeOrder());
+    }
+  }
+}
@@ -0,0 +1,165 @@
+package address.data;
+
+/**
+ * Holds the number of times an {@link AddressBook} operation ran and the distribution of its
+ * latencies. Percentiles are rounded up to the bucket of the histogram they fall in, which is at
+ * most 1/16 wider than the percentile itself.
+ *
+ * @author Poleon Banouvong
+ * @since 2026-10-17
+ */
+public class OperationStatistics {
+  /** The name of the address book method */
+  private final String operation;
+
+  /** The number of times the operation ran */
+  private final long count;
+
+  /** The sum of the latencies, in nanoseconds */
+  private final long totalNanos;
+
+  /** The median latency, in nanoseconds */
+  private final long p50Nanos;
+
+  /** The 90th percentile latency, in nanoseconds */
+  private final long p90Nanos;
+
+  /** The 99th percentile latency, in nanoseconds */
+  private final long p99Nanos;
+
+  /** The 99.9th percentile latency, in nanoseconds */
+  private final long p999Nanos;
+
+  /** The largest latency, in nanoseconds */
+  private final long maximumNanos;
+
+  /**
+   * Creates operation statistics
+   *
+   * @param operation The name of the address book method
+   * @param count The number of times the operation ran
+   * @param totalNanos The sum of the latencies, in nanoseconds
+   * @param p50Nanos The median latency, in nanoseconds
+   * @param p90Nanos The 90th percentile latency, in nanoseconds
+   * @param p99Nanos The 99th percentile latency, in nanoseconds
+   * @param p999Nanos The 99.9th percentile latency, in nanoseconds
+   * @param maximumNanos The largest latency, in nanoseconds
+   */
+  OperationStatistics(
+      String operation,
+      long count,
+      long totalNanos,
+      long p50Nanos,
+      long p90Nanos,
+      long p99Nanos,
+      long p999Nanos,
+      long maximumNanos) {
+    this.operation = operation;
+    this.count = count;
+    this.totalNanos = totalNanos;
+    this.p50Nanos = p50Nanos;
+    this.p90Nanos = p90Nanos;
+    this.p99Nanos = p99Nanos;
+    this.p999Nanos = p999Nanos;
+    this.maximumNanos = maximumNanos;
+  }
+
+  /**
+   * Returns the name of the address book method
+   *
+   * @return The method name
+   */
+  public String getOperation() {
+    return operation;
+  }
+
+  /**
+   * Returns the number of times the operation ran
+   *
+   * @return The count
+   */
+  public long getCount() {
+    return count;
+  }
+
+  /**
+   * Returns the sum of the latencies
+   *
+   * @return The total latency in nanoseconds
+   */
+  public long getTotalNanos() {
+    return totalNanos;
+  }
+
+  /**
+   * Returns the mean latency
+   *
+   * @return The mean latency in nanoseconds, or 0 if the operation never ran
+   */
+  public long getMeanNanos() {
+    return (count > 0) ? (totalNanos / count) : 0;
+  }
+
+  /**
+   * Returns the median latency
+   *
+   * @return The median latency in nanoseconds
+   */
+  public long getP50Nanos() {
+    return p50Nanos;
+  }
+
+  /**
+   * Returns the 90th percentile latency
+   *
+   * @return The 90th percentile latency in nanoseconds
+   */
+  public long getP90Nanos() {
+    return p90Nanos;
+  }
+
+  /**
+   * Returns the 99th percentile latency
+   *
+   * @return The 99th percentile latency in nanoseconds
+   */
+  public long getP99Nanos() {
+    return p99Nanos;
+  }
+
+  /**
+   * Returns the 99.9th percentile latency
+   *
+   * @return The 99.9th percentile latency in nanoseconds
+   */
+  public long getP999Nanos() {
+    return p999Nanos;
+  }
+
+  /**
+   * Returns the largest latency
+   *
+   * @return The largest latency in nanoseconds
+   */
+  public long getMaximumNanos() {
+    return maximumNanos;
+  }
+
+  /**
+   * Converts the statistics into an output-friendly row of latencies in microseconds
+   *
+   * @return The statistics
+   */
+  public String toString() {
+    return String.format(
+        "%-13s %10d %10.1f %10.1f %10.1f %10.1f %10.1f %10.1f",
+        operation,
+        count,
+        getMeanNanos() / 1e3,
+        p50Nanos / 1e3,
+        p90Nanos / 1e3,
+        p99Nanos / 1e3,
+        p999Nanos / 1e3,
+        maximumNanos / 1e3);
+  }
+}
@@ -0,0 +1,331 @@
+package address.data;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Function;
+
+/**
+ * Secondary indexes over the contact and location fields of the entries in an {@link AddressBook}.
+ * E-mail addresses and phone numbers are held in hash indexes for exact lookups, while ZIP codes,
+ * cities and states are held in sorted indexes. Every index maps a field value to the entries with
+ * that value, in address book order.
+ *
+ * @author Poleon Banouvong
+ * @since 2026-10-17
+ */
+class SecondaryIndexes {
+  /** Entries by case-folded e-mail address */
+  private final HashMap<String, TreeSet<AddressEntry>> emailIndex;
+
+  /** Entries by phone number */
+  private final HashMap<String, TreeSet<AddressEntry>> phoneIndex;
+
+  /** Entries by ZIP code */
+  private final TreeMap<Integer, TreeSet<AddressEntry>> zipIndex;
+
+  /** Entries by case-folded city */
+  private final TreeMap<String, TreeSet<AddressEntry>> cityIndex;
+
+  /** Entries by case-folded state */
+  private final TreeMap<String, TreeSet<AddressEntry>> stateIndex;
+
+  /** Creates empty secondary indexes */
+  SecondaryIndexes() {
+    emailIndex = new HashMap<String, TreeSet<AddressEntry>>();
+    phoneIndex = new HashMap<String, TreeSet<AddressEntry>>();
+    zipIndex = new TreeMap<Integer, TreeSet<AddressEntry>>();
+    cityIndex = new TreeMap<String, TreeSet<AddressEntry>>();
+    stateIndex = new TreeMap<String, TreeSet<AddressEntry>>();
+  }
+
+  /**
+   * Indexes an address entry
+   *
+   * @param addressEntry The address entry to index
+   */
+  void add(AddressEntry addressEntry) {
+    put(emailIndex, AddressQuery.emailKey(addressEntry.getEmail()), addressEntry);
+    put(phoneIndex, AddressQuery.phoneKey(addressEntry.getPhone()), addressEntry);
+    put(zipIndex, addressEntry.getZip(), addressEntry);
+    put(cityIndex, AddressQuery.placeKey(addressEntry.getCity()), addressEntry);
+    put(stateIndex, AddressQuery.placeKey(addressEntry.getState()), addressEntry);
+  }
+
+  /**
+   * Removes an address entry from the indexes. The entry must be the instance that was indexed, as
+   * its field values are used to find it.
+   *
+   * @param addressEntry The address entry to remove
+   */
+  void remove(AddressEntry addressEntry) {
+    delete(emailIndex, AddressQuery.emailKey(addressEntry.getEmail()), addressEntry);
+    delete(phoneIndex, AddressQuery.phoneKey(addressEntry.getPhone()), addressEntry);
+    delete(zipIndex, addressEntry.getZip(), addressEntry);
+    delete(cityIndex, AddressQuery.placeKey(addressEntry.getCity()), addressEntry);
+    delete(stateIndex, AddressQuery.placeKey(addressEntry.getState()), addressEntry);
+  }
+
+  /**
+   * Indexes many address entries, looking up every key once and building the entries of every new
+   * key in linear time
+   *
+   * @param sortedEntries The address entries to index, in address book order with no two equal
+   */
+  void addAll(List<AddressEntry> sortedEntries) {
+    putAll(emailIndex, group(sortedEntries, entry -> AddressQuery.emailKey(entry.getEmail())));
+    putAll(phoneIndex, group(sortedEntries, entry -> AddressQuery.phoneKey(entry.getPhone())));
+    putAll(zipIndex, group(sortedEntries, AddressEntry::getZip));
+    putAll(cityIndex, group(sortedEntries, entry -> AddressQuery.placeKey(entry.getCity())));
+    putAll(stateIndex, group(sortedEntries, entry -> AddressQuery.placeKey(entry.getState())));
+  }
+
+  /**
+   * Removes many address entries from the indexes, looking up every key once. The entries must be
+   * the instances that were indexed, as their field values are used to find them.
+   *
+   * @param addressEntries The address entries to remove
+   */
+  void removeAll(Collection<AddressEntry> addressEntries) {
+    deleteAll(emailIndex, group(addressEntries, entry -> AddressQuery.emailKey(entry.getEmail())));
+    deleteAll(phoneIndex, group(addressEntries, entry -> AddressQuery.phoneKey(entry.getPhone())));
+    deleteAll(zipIndex, group(addressEntries, AddressEntry::getZip));
+    deleteAll(cityIndex, group(addressEntries, entry -> AddressQuery.placeKey(entry.getCity())));
+    deleteAll(stateIndex, group(addressEntries, entry -> AddressQuery.placeKey(entry.getState())));
+  }
+
+  /** Removes every entry from the indexes */
+  void clear() {
+    emailIndex.clear();
+    phoneIndex.clear();
+    zipIndex.clear();
+    cityIndex.clear();
+    stateIndex.clear();
+  }
+
+  /**
+   * Returns the smallest set of candidate entries for a query, using whichever index narrows the
+   * query down the most. The exact-match indexes hold their candidates ready, while the ZIP code
+   * range is only counted, up to the size of the best candidates so far, and collected if it is
+   * the smallest. Candidates still have to be checked with {@link AddressQuery#matches}.
+   *
+   * @param query The query to find candidates for
+   * @return The candidate entries in address book order, or {@code null} if none of the criteria
+   *     of the query are indexed
+   */
+  Collection<AddressEntry> candidates(AddressQuery query) {
+    Collection<AddressEntry> best = null;
+
+    if (query.getEmail() != null) {
+      best = smaller(best, lookup(emailIndex, query.getEmail()));
+    }
+
+    if (query.getPhone() != null) {
+      best = smaller(best, lookup(phoneIndex, query.getPhone()));
+    }
+
+    if (query.getCity() != null) {
+      best = smaller(best, lookup(cityIndex, query.getCity()));
+    }
+
+    if (query.getState() != null) {
+      best = smaller(best, lookup(stateIndex, query.getState()));
+    }
+
+    if (query.hasZip()) {
+      long limit = (best == null) ? Long.MAX_VALUE : best.size();
+
+      if (zipRangeSize(query.getZipFrom(), query.getZipTo(), limit) < limit) {
+        best = zipRange(query.getZipFrom(), query.getZipTo());
+      }
+    }
+
+    return best;
+  }
+
+  /**
+   * Counts the entries with a ZIP code in a range, stopping once the count reaches a limit
+   *
+   * @param zipFrom The lowest ZIP code (inclusive)
+   * @param zipTo The highest ZIP code (inclusive)
+   * @param limit The count to stop at
+   * @return The number of entries in the range, or a number at least as large as the limit
+   */
+  private long zipRangeSize(int zipFrom, int zipTo, long limit) {
+    if (zipFrom > zipTo) {
+      return 0;
+    }
+
+    long size = 0;
+
+    for (TreeSet<AddressEntry> entries : zipIndex.subMap(zipFrom, true, zipTo, true).values()) {
+      size += entries.size();
+
+      if (size >= limit) {
+        break;
+      }
+    }
+
+    return size;
+  }
+
+  /**
+   * Returns the entries with a ZIP code in a range
+   *
+   * @param zipFrom The lowest ZIP code (inclusive)
+   * @param zipTo The highest ZIP code (inclusive)
+   * @return The entries in the range, in address book order
+   */
+  private Collection<AddressEntry> zipRange(int zipFrom, int zipTo) {
+    if (zipFrom > zipTo) {
+      return new ArrayList<AddressEntry>();
+    }
+
+    NavigableMap<Integer, TreeSet<AddressEntry>> range =
+        zipIndex.subMap(zipFrom, true, zipTo, true);
+
+    if (range.size() == 1) {
+      return range.firstEntry().getValue();
+    }
+
+    ArrayList<AddressEntry> rangeEntries = new ArrayList<AddressEntry>();
+
+    for (TreeSet<AddressEntry> entries : range.values()) {
+      rangeEntries.addAll(entries);
+    }
+
+    // each ZIP code's entries are sorted, but the concatenation of them isn't
+    rangeEntries.sort(null);
+
+    return rangeEntries;
+  }
+
+  /**
+   * Returns the smaller of two candidate collections
+   *
+   * @param best The smallest candidates so far, or {@code null} if there are none
+   * @param candidates The new candidates
+   * @return Whichever collection is smaller
+   */
+  private static Collection<AddressEntry> smaller(
+      Collection<AddressEntry> best, Collection<AddressEntry> candidates) {
+    return ((best == null) || (candidates.size() < best.size())) ? candidates : best;
+  }
+
+  /**
+   * Returns the entries indexed under a key
+   *
+   * @param index The index to look in
+   * @param key The key to look up
+   * @return The entries indexed under the key, which may be empty
+   */
+  private static <K> Collection<AddressEntry> lookup(
+      Map<K, TreeSet<AddressEntry>> index, K key) {
+    TreeSet<AddressEntry> entries = index.get(key);
+
+    return (entries != null) ? entries : new TreeSet<AddressEntry>();
+  }
+
+  /**
+   * Adds an entry to an index under a key
+   *
+   * @param index The index to add to
+   * @param key The key to add the entry under
+   * @param addressEntry The address entry to add
+   */
+  private static <K> void put(
+      Map<K, TreeSet<AddressEntry>> index, K key, AddressEntry addressEntry) {
+    index.computeIfAbsent(key, ignored -> new TreeSet<AddressEntry>()).add(addressEntry);
+  }
+
+  /**
+   * Groups address entries by key, keeping their order within every group
+   *
+   * @param addressEntries The address entries to group
+   * @param keyFunction The function returning the key of an entry
+   * @return The entries under every key
+   */
+  private static <K> HashMap<K, ArrayList<AddressEntry>> group(
+      Collection<AddressEntry> addressEntries, Function<AddressEntry, K> keyFunction) {
+    HashMap<K, ArrayList<AddressEntry>> groups = new HashMap<K, ArrayList<AddressEntry>>();
+
+    for (AddressEntry addressEntry : addressEntries) {
+      groups
+          .computeIfAbsent(keyFunction.apply(addressEntry), key -> new ArrayList<AddressEntry>())
+          .add(addressEntry);
+    }
+
+    return groups;
+  }
+
+  /**
+   * Adds groups of entries to an index. The entries of a new key are built into a tree straight
+   * from their sorted order.
+   *
+   * @param index The index to add to
+   * @param groups The entries to add under every key, in address book order with no two equal
+   */
+  private static <K> void putAll(
+      Map<K, TreeSet<AddressEntry>> index, HashMap<K, ArrayList<AddressEntry>> groups) {
+    groups.forEach(
+        (key, sortedEntries) -> {
+          TreeSet<AddressEntry> entries = index.get(key);
+
+          if (entries == null) {
+            index.put(key, new TreeSet<AddressEntry>(new SortedEntryList(sortedEntries)));
+          } else {
+            entries.addAll(sortedEntries);
+          }
+        });
+  }
+
+  /**
+   * Removes groups of entries from an index, dropping every key once nothing is indexed under it
+   *
+   * @param index The index to remove from
+   * @param groups The entries to remove from under every key
+   */
+  private static <K> void deleteAll(
+      Map<K, TreeSet<AddressEntry>> index, HashMap<K, ArrayList<AddressEntry>> groups) {
+    groups.forEach(
+        (key, removedEntries) -> {
+          TreeSet<AddressEntry> entries = index.get(key);
+
+          if (entries != null) {
+            // one at a time, as removeAll can scan the list once for every entry in the tree
+            for (AddressEntry addressEntry : removedEntries) {
+              entries.remove(addressEntry);
+            }
+
+            if (entries.isEmpty()) {
+              index.remove(key);
+            }
+          }
+        });
+  }
+
+  /**
+   * Removes an entry from an index, dropping the key once nothing is indexed under it
+   *
+   * @param index The index to remove from
+   * @param key The key the entry is indexed under
+   * @param addressEntry The address entry to remove
+   */
+  private static <K> void delete(
+      Map<K, TreeSet<AddressEntry>> index, K key, AddressEntry addressEntry) {
+    TreeSet<AddressEntry> entries = index.get(key);
+
+    if (entries != null) {
+      entries.remove(addressEntry);
+
+      if (entries.isEmpty()) {
+        index.remove(key);
+      }
+    }
+  }
+}
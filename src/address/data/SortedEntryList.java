@@ -0,0 +1,108 @@
+package address.data;
+
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.SortedSet;
+
+/**
+ * A read-only {@link SortedSet} view of a list of address entries that is already sorted and free
+ * of duplicates. Adding this view to an empty {@link java.util.TreeSet} builds the tree in linear
+ * time instead of inserting the entries one by one.
+ *
+ * <p>Lookups and range views binary search the list, and range views are views of sublists, so
+ * none of them copy entries.
+ *
+ * @author Poleon Banouvong
+ * @since 2026-10-17
+ */
+class SortedEntryList extends AbstractSet<AddressEntry> implements SortedSet<AddressEntry> {
+  /** The sorted, distinct entries */
+  private final List<AddressEntry> sortedEntries;
+
+  /**
+   * Creates a sorted set view of a list
+   *
+   * @param sortedEntries The entries, which must be in {@link AddressEntry#compareTo} order with no
+   *     two entries equal
+   */
+  SortedEntryList(List<AddressEntry> sortedEntries) {
+    this.sortedEntries = sortedEntries;
+  }
+
+  @Override
+  public Iterator<AddressEntry> iterator() {
+    return sortedEntries.iterator();
+  }
+
+  @Override
+  public int size() {
+    return sortedEntries.size();
+  }
+
+  @Override
+  public boolean contains(Object object) {
+    return (object instanceof AddressEntry addressEntry) && (position(addressEntry) >= 0);
+  }
+
+  /** Returns {@code null}, as the entries are in their natural order */
+  @Override
+  public Comparator<? super AddressEntry> comparator() {
+    return null;
+  }
+
+  @Override
+  public AddressEntry first() {
+    return sortedEntries.getFirst();
+  }
+
+  @Override
+  public AddressEntry last() {
+    return sortedEntries.getLast();
+  }
+
+  @Override
+  public SortedSet<AddressEntry> subSet(AddressEntry fromElement, AddressEntry toElement) {
+    if (fromElement.compareTo(toElement) > 0) {
+      throw new IllegalArgumentException("fromElement is after toElement");
+    }
+
+    return new SortedEntryList(
+        sortedEntries.subList(lowerBound(fromElement), lowerBound(toElement)));
+  }
+
+  @Override
+  public SortedSet<AddressEntry> headSet(AddressEntry toElement) {
+    return new SortedEntryList(sortedEntries.subList(0, lowerBound(toElement)));
+  }
+
+  @Override
+  public SortedSet<AddressEntry> tailSet(AddressEntry fromElement) {
+    return new SortedEntryList(
+        sortedEntries.subList(lowerBound(fromElement), sortedEntries.size()));
+  }
+
+  /**
+   * Returns the position of an entry in the list
+   *
+   * @param addressEntry The entry to look for
+   * @return The position of the entry, or {@code -(insertion point) - 1} if it isn't in the list
+   */
+  private int position(AddressEntry addressEntry) {
+    return Collections.binarySearch(sortedEntries, addressEntry);
+  }
+
+  /**
+   * Returns the position of the first entry at or after an entry
+   *
+   * @param addressEntry The entry
+   * @return The position, which is the size of the list if every entry is before the given one
+   */
+  private int lowerBound(AddressEntry addressEntry) {
+    int position = position(addressEntry);
+
+    return (position >= 0) ? position : (-position - 1);
+  }
+}
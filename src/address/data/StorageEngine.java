@@ -0,0 +1,21 @@
+package address.data;
+
+/**
+ * The ways an {@link AddressBook} can store its entries
+ *
+ * @author Poleon Banouvong
+ * @since 2026-10-17
+ */
+public enum StorageEngine {
+  /** Entries are kept as objects in a balanced tree on the heap */
+  HEAP,
+
+  /**
+   * Entry fields are kept in columns of direct memory outside the heap, and entries are created on
+   * access. This keeps the retained heap, and so full garbage collections, small for very large
+   * address books, at the cost of slower single-entry changes and lookups and of allocating every
+   * entry a scan returns or lists. The secondary and full-text indexes keep the entries they are
+   * built from on the heap, so they give up most of the saving.
+   */
+  OFF_HEAP
+}
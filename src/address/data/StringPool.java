@@ -0,0 +1,160 @@
+package address.data;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Canonicalizes repeated field values, so that equal values share one {@link String} instance. In
+ * a large address book, a few thousand distinct cities and states are repeated across millions of
+ * entries; without pooling, every entry keeps its own copy of each.
+ *
+ * <p>The pool is bounded: once it holds its maximum number of values, new values are returned as
+ * they are rather than added. It is safe to use from multiple threads.
+ *
+ * @author Poleon Banouvong
+ * @since 2026-10-17
+ */
+public class StringPool {
+  /** The maximum number of values held by the shared pool */
+  static final int DEFAULT_MAXIMUM_SIZE = 1 << 16;
+
+  /** The estimated size of a {@link String} and its array, not counting the characters */
+  private static final int STRING_OVERHEAD = 40;
+
+  /** The canonical instance of every pooled value */
+  private final ConcurrentHashMap<String, String> values;
+
+  /** The maximum number of values held */
+  private final int maximumSize;
+
+  /** The number of values that were replaced by a pooled instance */
+  private final LongAdder hits;
+
+  /** The number of values that weren't pooled yet */
+  private final LongAdder misses;
+
+  /** The estimated number of bytes saved by replacing values with pooled instances */
+  private final LongAdder bytesSaved;
+
+  /** Holds the shared pool, which is created when this class is first used */
+  private static class Holder {
+    /** The shared pool */
+    private static final StringPool STRING_POOL = new StringPool(DEFAULT_MAXIMUM_SIZE);
+  }
+
+  /**
+   * Creates an empty pool
+   *
+   * @param maximumSize The maximum number of values held
+   */
+  StringPool(int maximumSize) {
+    this.values = new ConcurrentHashMap<String, String>();
+    this.maximumSize = maximumSize;
+    this.hits = new LongAdder();
+    this.misses = new LongAdder();
+    this.bytesSaved = new LongAdder();
+  }
+
+  /**
+   * Returns the pool shared by every {@link AddressEntry}
+   *
+   * @return The shared pool
+   */
+  public static StringPool getStringPool() {
+    return Holder.STRING_POOL;
+  }
+
+  /**
+   * Returns the canonical instance of a value, adding the value to the pool if it isn't pooled yet
+   * and the pool isn't full
+   *
+   * @param value The value
+   * @return The pooled instance equal to the value, or the value itself
+   */
+  public String canonicalize(String value) {
+    if (value == null) {
+      return null;
+    }
+
+    String pooledValue = values.get(value);
+
+    if (pooledValue == null) {
+      misses.increment();
+
+      if (values.size() >= maximumSize) {
+        return value;
+      }
+
+      pooledValue = values.putIfAbsent(value, value);
+
+      if (pooledValue == null) {
+        return value;
+      }
+    } else {
+      hits.increment();
+    }
+
+    if (pooledValue != value) {
+      // compact strings store most text as one byte per character
+      bytesSaved.add(STRING_OVERHEAD + value.length());
+    }
+
+    return pooledValue;
+  }
+
+  /**
+   * Returns the number of values held
+   *
+   * @return The number of values
+   */
+  public int size() {
+    return values.size();
+  }
+
+  /**
+   * Returns the number of values that were replaced by a pooled instance
+   *
+   * @return The number of hits
+   */
+  public long getHits() {
+    return hits.sum();
+  }
+
+  /**
+   * Returns the number of values that weren't pooled yet
+   *
+   * @return The number of misses
+   */
+  public long getMisses() {
+    return misses.sum();
+  }
+
+  /**
+   * Returns an estimate of the heap saved by replacing values with pooled instances, assuming the
+   * replaced values would otherwise have been kept
+   *
+   * @return The estimated number of bytes saved
+   */
+  public long getBytesSaved() {
+    return bytesSaved.sum();
+  }
+
+  /** Removes every value and resets the statistics */
+  public void clear() {
+    values.clear();
+    hits.reset();
+    misses.reset();
+    bytesSaved.reset();
+  }
+
+  /**
+   * Converts the pool statistics into an output-friendly string
+   *
+   * @return The statistics
+   */
+  public String toString() {
+    return String.format(
+        "%d pooled values, %d hits, %d misses, about %d bytes saved",
+        size(), getHits(), getMisses(), getBytesSaved());
+  }
+}
@@ -0,0 +1,129 @@
+package address.data;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.TreeSet;
+
+/**
+ * Stores address entries as objects in a {@link TreeSet}
+ *
+ * @author Poleon Banouvong
+ * @since 2026-10-17
+ */
+class TreeEntryStore extends TreeSet<AddressEntry> implements EntryStore {
+  /** The serialization version, as {@link TreeSet} is serializable */
+  private static final long serialVersionUID = 1L;
+
+  /** Creates an empty store */
+  TreeEntryStore() {
+    super();
+  }
+
+  /**
+   * Adds many entries at once. Entries are inserted one at a time when that takes fewer
+   * comparisons than a merge; otherwise they are merged with the stored entries and the tree is
+   * rebuilt in linear time.
+   */
+  @Override
+  public void addAllSorted(List<AddressEntry> sortedEntries, Set<AddressEntry> rejectedEntries) {
+    int storeSize = size();
+    long insertCost =
+        (long) sortedEntries.size() * (Integer.SIZE - Integer.numberOfLeadingZeros(storeSize));
+
+    if (insertCost < storeSize) {
+      for (AddressEntry addressEntry : sortedEntries) {
+        if (!add(addressEntry)) {
+          rejectedEntries.add(addressEntry);
+        }
+      }
+
+      return;
+    }
+
+    ArrayList<AddressEntry> mergedEntries =
+        new ArrayList<AddressEntry>(storeSize + sortedEntries.size());
+    Iterator<AddressEntry> existingEntries = iterator();
+    AddressEntry existingEntry = existingEntries.hasNext() ? existingEntries.next() : null;
+
+    for (AddressEntry addressEntry : sortedEntries) {
+      while ((existingEntry != null) && (existingEntry.compareTo(addressEntry) < 0)) {
+        mergedEntries.add(existingEntry);
+        existingEntry = existingEntries.hasNext() ? existingEntries.next() : null;
+      }
+
+      if ((existingEntry != null) && (existingEntry.compareTo(addressEntry) == 0)) {
+        rejectedEntries.add(addressEntry);
+      } else {
+        mergedEntries.add(addressEntry);
+      }
+    }
+
+    while (existingEntry != null) {
+      mergedEntries.add(existingEntry);
+      existingEntry = existingEntries.hasNext() ? existingEntries.next() : null;
+    }
+
+    // adding a sorted set to an empty TreeSet builds the tree without comparisons
+    clear();
+    addAll(new SortedEntryList(mergedEntries));
+  }
+
+  /**
+   * Removes many entries at once. Entries are removed one at a time when that takes fewer
+   * comparisons than a pass over the stored entries; otherwise the stored entries are filtered in
+   * one pass and the tree is rebuilt in linear time.
+   */
+  @Override
+  public void removeAllSorted(List<AddressEntry> sortedEntries, List<AddressEntry> removedEntries) {
+    int storeSize = size();
+    long removeCost =
+        (long) sortedEntries.size() * (Integer.SIZE - Integer.numberOfLeadingZeros(storeSize));
+
+    if (removeCost < storeSize) {
+      for (AddressEntry addressEntry : sortedEntries) {
+        AddressEntry storedEntry = ceiling(addressEntry);
+
+        if ((storedEntry != null) && storedEntry.equals(addressEntry)) {
+          remove(storedEntry);
+          removedEntries.add(storedEntry);
+        }
+      }
+
+      return;
+    }
+
+    ArrayList<AddressEntry> keptEntries = new ArrayList<AddressEntry>(storeSize);
+    Iterator<AddressEntry> entriesToRemove = sortedEntries.iterator();
+    AddressEntry entryToRemove = entriesToRemove.hasNext() ? entriesToRemove.next() : null;
+
+    for (AddressEntry existingEntry : this) {
+      while ((entryToRemove != null) && (entryToRemove.compareTo(existingEntry) < 0)) {
+        entryToRemove = entriesToRemove.hasNext() ? entriesToRemove.next() : null;
+      }
+
+      if ((entryToRemove != null) && (entryToRemove.compareTo(existingEntry) == 0)) {
+        removedEntries.add(existingEntry);
+      } else {
+        keptEntries.add(existingEntry);
+      }
+    }
+
+    clear();
+    addAll(new SortedEntryList(keptEntries));
+  }
+
+  /**
+   * Returns a spliterator over the entries as they are now. A tree can't be split by position, so
+   * the entries are copied into an array first; entries are immutable, so only the references to
+   * them are copied.
+   */
+  @Override
+  public Spliterator<AddressEntry> snapshotSpliterator() {
+    AddressEntry[] entries = toArray(new AddressEntry[0]);
+
+    return new EntrySpliterator(position -> entries[position], 0, entries.length);
+  }
+}
@@ -0,0 +1,586 @@
+package address.data;
+
+import java.io.IOException;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Locale;
+
+/**
+ * Generates reproducible address data for benchmarks, soak tests and loading, in the 8-line record
+ * format read by {@link AddressBook#readFromFile}. Every record is a function of the seed and its
+ * index alone, so the same settings always generate the same records, and any range of records
+ * can be generated without the ones before it.
+ *
+ * <p>Last names are drawn from a pool of synthesized names with a Zipf distribution, so a few last
+ * names are very common and most are rare, as in real address books; a skew of 0 draws them
+ * uniformly. A share of the records can repeat the names of an earlier record, have a ZIP code
+ * that isn't a number, or have non-ASCII names in Latin, Cyrillic, Greek and Han scripts.
+ *
+ * @author Poleon Banouvong
+ * @since 2026-10-17
+ */
+public class AddressDataGenerator {
+  /** The number of distinct last names to draw from */
+  private static final int LAST_NAME_POOL_SIZE = 1 << 16;
+
+  /** The number of distinct first names to draw from */
+  private static final int FIRST_NAME_POOL_SIZE = 1 << 10;
+
+  /** The syllables ASCII names are made of */
+  private static final String[] SYLLABLES = {
+    "an", "bar", "ber", "cia", "do", "el", "gar", "ger", "ko", "lee", "mar", "mi", "na", "ron",
+    "sa", "ski", "smi", "son", "th", "tin", "wal", "ra", "chen", "ly"
+  };
+
+  /** The syllables non-ASCII names are made of */
+  private static final String[] UNICODE_SYLLABLES = {
+    "mü", "ller", "sø", "ren", "łu", "kasz", "jo", "sé", "zo", "ë", "ngu", "yễn", "王", "李", "张",
+    "оль", "га", "иван", "σο", "φία", "νί", "ko", "ñu", "ça", "ő", "ß"
+  };
+
+  /** Street names */
+  private static final String[] STREETS = {
+    "Main Street", "Side Street", "Inner Ring", "Oak Avenue", "Elm Road", "Hill Drive",
+    "Park Lane", "Lake Shore", "Mill Road", "Church Street"
+  };
+
+  /** The endings of city names */
+  private static final String[] CITY_ENDINGS = {"town", "ville", "ton", " City", "field", "ford"};
+
+  /** The number of distinct cities */
+  private static final int CITY_COUNT = 500;
+
+  /** States */
+  private static final String[] STATES = {
+    "Mainstate", "Melona", "Westland", "Northland", "Eastmark", "Southmoor", "Lakeshire", "Hillria"
+  };
+
+  /** The letters a ZIP code digit is mistyped as in a malformed record */
+  private static final String ZIP_TYPOS = "OIlSBZ";
+
+  /** The seed of the generated data */
+  private long seed = 1;
+
+  /** The share of records that repeat the names of an earlier record */
+  private double duplicateRate = 0;
+
+  /** The Zipf exponent of the last name distribution, with 0 for a uniform distribution */
+  private double nameSkew = 0;
+
+  /** The share of records whose ZIP code isn't a number */
+  private double malformedRate = 0;
+
+  /** The share of names that aren't ASCII */
+  private double unicodeRate = 0;
+
+  /** Whether records that aren't duplicates are given distinct first names */
+  private boolean distinctNames = true;
+
+  /**
+   * Sets the seed of the generated data
+   *
+   * @param seed The seed
+   * @return This generator
+   */
+  public AddressDataGenerator seed(long seed) {
+    this.seed = seed;
+    return this;
+  }
+
+  /**
+   * Sets the share of records that repeat the names of an earlier record, so the address book
+   * rejects them. Their other fields are generated anew.
+   *
+   * @param duplicateRate The share, from 0 to 1
+   * @return This generator
+   * @throws IllegalArgumentException If the share isn't from 0 to 1
+   */
+  public AddressDataGenerator duplicateRate(double duplicateRate) {
+    this.duplicateRate = checkRate(duplicateRate);
+    return this;
+  }
+
+  /**
+   * Sets how skewed the distribution of last names is. The {@code k}-th most common last name is
+   * drawn with a probability proportional to {@code 1 / k^skew}.
+   *
+   * @param nameSkew The Zipf exponent, with 0 for a uniform distribution
+   * @return This generator
+   * @throws IllegalArgumentException If the exponent is negative
+   */
+  public AddressDataGenerator nameSkew(double nameSkew) {
+    if (!(nameSkew >= 0)) {
+      throw new IllegalArgumentException("Name skew must not be negative: " + nameSkew);
+    }
+
+    this.nameSkew = nameSkew;
+    return this;
+  }
+
+  /**
+   * Sets the share of records whose ZIP code has a digit mistyped as a letter, which loading skips
+   *
+   * @param malformedRate The share, from 0 to 1
+   * @return This generator
+   * @throws IllegalArgumentException If the share isn't from 0 to 1
+   */
+  public AddressDataGenerator malformedRate(double malformedRate) {
+    this.malformedRate = checkRate(malformedRate);
+    return this;
+  }
+
+  /**
+   * Sets the share of first and last names that are made of non-ASCII syllables
+   *
+   * @param unicodeRate The share, from 0 to 1
+   * @return This generator
+   * @throws IllegalArgumentException If the share isn't from 0 to 1
+   */
+  public AddressDataGenerator unicodeRate(double unicodeRate) {
+    this.unicodeRate = checkRate(unicodeRate);
+    return this;
+  }
+
+  /**
+   * Sets whether records that aren't duplicates are given distinct first names, by appending a
+   * suffix to the drawn name. Without it, drawn names can repeat by chance.
+   *
+   * @param distinctNames {@code true} to make the names of records that aren't duplicates distinct
+   * @return This generator
+   */
+  public AddressDataGenerator distinctNames(boolean distinctNames) {
+    this.distinctNames = distinctNames;
+    return this;
+  }
+
+  /**
+   * Writes generated records to a file, replacing it atomically
+   *
+   * @param fileName The file to write
+   * @param count The number of records
+   * @return {@code true} if the file was written
+   */
+  public boolean writeFile(String fileName, long count) {
+    if (fileName.isBlank()) {
+      return false;
+    }
+
+    double[] lastNameWeights = cumulativeWeights();
+
+    try {
+      BufferedFileOutput.replace(
+          Path.of(fileName),
+          output -> {
+            for (long index = 0; index < count; index++) {
+              record(index, lastNameWeights).writeTo(output);
+            }
+          });
+
+      return true;
+    } catch (IOException | InvalidPathException exception) {
+      return false;
+    }
+  }
+
+  /**
+   * Returns the entries of a range of generated records. Malformed records have no entry, so they
+   * are left out.
+   *
+   * @param firstIndex The index of the first record
+   * @param count The number of records
+   * @return An {@link ArrayList} containing the entries, in record order
+   */
+  public ArrayList<AddressEntry> entries(long firstIndex, int count) {
+    double[] lastNameWeights = cumulativeWeights();
+    ArrayList<AddressEntry> addressEntries = new ArrayList<AddressEntry>(count);
+
+    for (long index = firstIndex; index < firstIndex + count; index++) {
+      Record record = record(index, lastNameWeights);
+
+      if (!record.malformed) {
+        addressEntries.add(record.toEntry());
+      }
+    }
+
+    return addressEntries;
+  }
+
+  /**
+   * Generates a record
+   *
+   * @param index The index of the record
+   * @param lastNameWeights The cumulative weights of the last names
+   * @return The record
+   */
+  private Record record(long index, double[] lastNameWeights) {
+    // a duplicate repeats the names of an earlier record, which may itself be a duplicate
+    long nameIndex = index;
+
+    while (nameIndex > 0) {
+      RecordRandom duplicateRandom = new RecordRandom(seed, nameIndex, 0);
+
+      if (duplicateRandom.nextDouble() >= duplicateRate) {
+        break;
+      }
+
+      nameIndex = duplicateRandom.nextLong(nameIndex);
+    }
+
+    RecordRandom nameRandom = new RecordRandom(seed, nameIndex, 1);
+    boolean unicodeFirstName = nameRandom.nextDouble() < unicodeRate;
+    boolean unicodeLastName = nameRandom.nextDouble() < unicodeRate;
+    String firstName =
+        capitalize(
+            syllables(
+                nameRandom.nextInt(FIRST_NAME_POOL_SIZE),
+                unicodeFirstName ? UNICODE_SYLLABLES : SYLLABLES));
+
+    if (distinctNames) {
+      firstName += suffix(nameIndex);
+    }
+
+    String lastName =
+        capitalize(
+            syllables(
+                lastNameRank(nameRandom.nextDouble(), lastNameWeights),
+                unicodeLastName ? UNICODE_SYLLABLES : SYLLABLES));
+
+    RecordRandom random = new RecordRandom(seed, index, 2);
+    int city = random.nextInt(CITY_COUNT);
+    char[] phone = new char[10];
+
+    for (int i = 0; i < phone.length; i++) {
+      phone[i] = (char) ('0' + random.nextInt(10));
+    }
+
+    Record record = new Record();
+    record.firstName = firstName;
+    record.lastName = lastName;
+    record.street = (1 + random.nextInt(9999)) + " " + STREETS[random.nextInt(STREETS.length)];
+    record.city = capitalize(syllables(city, SYLLABLES)) + CITY_ENDINGS[city % CITY_ENDINGS.length];
+    record.state = STATES[random.nextInt(STATES.length)];
+    record.zip = 10000 + random.nextInt(90000);
+    record.phone = new String(phone);
+    record.email =
+        (firstName + "." + lastName).toLowerCase(Locale.ROOT).replace(' ', '_') + "@example.com";
+
+    String zip = Integer.toString(record.zip);
+    boolean malformed = random.nextDouble() < malformedRate;
+
+    if (malformed) {
+      int typoPosition = random.nextInt(zip.length());
+      zip =
+          zip.substring(0, typoPosition)
+              + ZIP_TYPOS.charAt(random.nextInt(ZIP_TYPOS.length()))
+              + zip.substring(typoPosition + 1);
+    }
+
+    record.writtenZip = zip;
+    record.malformed = malformed;
+
+    return record;
+  }
+
+  /**
+   * Returns the cumulative Zipf weights of the last names, most common first
+   *
+   * @return The weights
+   */
+  private double[] cumulativeWeights() {
+    double[] weights = new double[LAST_NAME_POOL_SIZE];
+    double total = 0;
+
+    for (int rank = 0; rank < weights.length; rank++) {
+      total += Math.pow(rank + 1, -nameSkew);
+      weights[rank] = total;
+    }
+
+    return weights;
+  }
+
+  /**
+   * Returns the rank of the last name at a point of the cumulative weights
+   *
+   * @param point A number from 0 (inclusive) to 1 (exclusive)
+   * @param cumulativeWeights The cumulative weights of the last names
+   * @return The rank of the last name
+   */
+  private static int lastNameRank(double point, double[] cumulativeWeights) {
+    double weight = point * cumulativeWeights[cumulativeWeights.length - 1];
+    int low = 0;
+    int high = cumulativeWeights.length - 1;
+
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+
+      if (cumulativeWeights[middle] <= weight) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+
+    return low;
+  }
+
+  /**
+   * Spells a number as syllables, with at least two of them
+   *
+   * @param number The number
+   * @param syllables The syllables to spell it with
+   * @return The syllables of the number, least significant first
+   */
+  private static String syllables(int number, String[] syllables) {
+    StringBuilder name = new StringBuilder();
+    int value = number + syllables.length;
+
+    while (value > 0) {
+      name.append(syllables[value % syllables.length]);
+      value /= syllables.length;
+    }
+
+    return name.toString();
+  }
+
+  /**
+   * Returns a name with its first letter in upper case
+   *
+   * @param name The name
+   * @return The capitalized name
+   */
+  private static String capitalize(String name) {
+    return name.substring(0, 1).toUpperCase(Locale.ROOT) + name.substring(1);
+  }
+
+  /**
+   * Returns a distinct lowercase suffix for a record index
+   *
+   * @param index The index
+   * @return The index written in base 26 with the letters a to z
+   */
+  private static String suffix(long index) {
+    StringBuilder suffix = new StringBuilder();
+
+    do {
+      suffix.append((char) ('a' + index % 26));
+      index /= 26;
+    } while (index > 0);
+
+    return suffix.toString();
+  }
+
+  /**
+   * Checks that a share is from 0 to 1
+   *
+   * @param rate The share
+   * @return The share
+   * @throws IllegalArgumentException If the share isn't from 0 to 1
+   */
+  private static double checkRate(double rate) {
+    if (!(rate >= 0 && rate <= 1)) {
+      throw new IllegalArgumentException("Rate must be from 0 to 1: " + rate);
+    }
+
+    return rate;
+  }
+
+  /**
+   * Writes a file of generated records. Usage: {@code <file> <count> [--seed N] [--duplicates
+   * RATE] [--skew EXPONENT] [--malformed RATE] [--unicode RATE]}
+   *
+   * @param args The file, the number of records and the options
+   */
+  public static void main(String[] args) {
+    AddressDataGenerator generator = new AddressDataGenerator();
+    String fileName;
+    long count;
+
+    try {
+      if (args.length < 2) {
+        throw new IllegalArgumentException("Expected a file and a number of records");
+      }
+
+      fileName = args[0];
+      count = Long.parseLong(args[1]);
+
+      for (int i = 2; i < args.length; i += 2) {
+        if (i + 1 == args.length) {
+          throw new IllegalArgumentException("Missing value for " + args[i]);
+        }
+
+        String value = args[i + 1];
+
+        switch (args[i]) {
+          case "--seed" -> generator.seed(Long.parseLong(value));
+          case "--duplicates" -> generator.duplicateRate(Double.parseDouble(value));
+          case "--skew" -> generator.nameSkew(Double.parseDouble(value));
+          case "--malformed" -> generator.malformedRate(Double.parseDouble(value));
+          case "--unicode" -> generator.unicodeRate(Double.parseDouble(value));
+          default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+        }
+      }
+    } catch (IllegalArgumentException exception) {
+      System.out.println(exception.getMessage());
+      System.out.println(
+          "Usage: AddressDataGenerator <file> <count> [--seed N] [--duplicates RATE]"
+              + " [--skew EXPONENT] [--malformed RATE] [--unicode RATE]");
+      return;
+    }
+
+    long startTime = System.nanoTime();
+
+    if (!generator.writeFile(fileName, count)) {
+      System.out.printf("Could not write %s\n", fileName);
+      return;
+    }
+
+    double seconds = (System.nanoTime() - startTime) / 1e9;
+    System.out.printf("Wrote %d records to %s in %.2f s\n", count, fileName, seconds);
+  }
+
+  /**
+   * The fields of a generated record, as drawn. Files are written straight from them, so writing a
+   * file doesn't build an {@link AddressEntry} for every record.
+   */
+  private static class Record {
+    /** The first name */
+    private String firstName;
+
+    /** The last name */
+    private String lastName;
+
+    /** The street */
+    private String street;
+
+    /** The city */
+    private String city;
+
+    /** The state */
+    private String state;
+
+    /** The ZIP code */
+    private int zip;
+
+    /** The ZIP code as written to the file */
+    private String writtenZip;
+
+    /** The phone number */
+    private String phone;
+
+    /** The e-mail address */
+    private String email;
+
+    /** Whether the ZIP code isn't a number */
+    private boolean malformed;
+
+    /**
+     * Writes the record in the 8-line record format, followed by a blank line
+     *
+     * @param output The file to write to
+     * @throws IOException If the file could not be written
+     */
+    private void writeTo(BufferedFileOutput output) throws IOException {
+      String[] fields = {firstName, lastName, street, city, state, writtenZip, phone, email};
+
+      for (String field : fields) {
+        output.putString(field);
+        output.putByte((byte) '\n');
+      }
+
+      output.putByte((byte) '\n');
+    }
+
+    /**
+     * Returns the entry of the record, which must not be malformed
+     *
+     * @return The entry
+     */
+    private AddressEntry toEntry() {
+      return AddressEntry.builder()
+          .firstName(firstName)
+          .lastName(lastName)
+          .street(street)
+          .city(city)
+          .state(state)
+          .zip(zip)
+          .phone(phone)
+          .email(email)
+          .build();
+    }
+  }
+
+  /**
+   * Random numbers for one record, from a SplitMix64 sequence started from the seed, the index of
+   * the record and a stream number, so records can be generated in any order
+   */
+  private static class RecordRandom {
+    /** The increment of the SplitMix64 sequence */
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    /** The state of the sequence */
+    private long state;
+
+    /**
+     * Starts a sequence
+     *
+     * @param seed The seed of the generated data
+     * @param index The index of the record
+     * @param stream The stream number, to draw unrelated numbers for the same record
+     */
+    private RecordRandom(long seed, long index, int stream) {
+      this.state = mix(mix(seed + stream * GOLDEN_GAMMA) + index);
+    }
+
+    /**
+     * Returns the next random long
+     *
+     * @return The long
+     */
+    private long nextLong() {
+      state += GOLDEN_GAMMA;
+      return mix(state);
+    }
+
+    /**
+     * Returns a random long from 0 up to a bound
+     *
+     * @param bound The bound (exclusive), which must be positive
+     * @return The long
+     */
+    private long nextLong(long bound) {
+      return Math.floorMod(nextLong(), bound);
+    }
+
+    /**
+     * Returns a random int from 0 up to a bound
+     *
+     * @param bound The bound (exclusive), which must be positive
+     * @return The int
+     */
+    private int nextInt(int bound) {
+      return (int) nextLong(bound);
+    }
+
+    /**
+     * Returns a random double from 0 (inclusive) to 1 (exclusive)
+     *
+     * @return The double
+     */
+    private double nextDouble() {
+      return (nextLong() >>> 11) * 0x1.0p-53;
+    }
+
+    /**
+     * Scrambles the bits of a long, with the SplitMix64 finalizer
+     *
+     * @param value The long
+     * @return The scrambled long
+     */
+    private static long mix(long value) {
+      value = (value ^ (value >>> 30)) * 0xbf58476d1ce4e5b9L;
+      value = (value ^ (value >>> 27)) * 0x94d049bb133111ebL;
+      return value ^ (value >>> 31);
+    }
+  }
+}
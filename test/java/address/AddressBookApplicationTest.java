@@ -0,0 +1,150 @@
+package address;
+
+import address.data.AddressBook;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * AddressBookApplication class unit tests, which drive the menu with simulated keystrokes
+ *
+ * @author Poleon Banouvong
+ * @since 2026-10-17
+ */
+class AddressBookApplicationTest {
+  /** Captures the output of the application */
+  private final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+  /** {@link AddressBook} singleton the application works on */
+  private final AddressBook addressBook = AddressBook.getAddressBook();
+
+  /** For each test, replace the output with a readable output and clear the address book */
+  @BeforeEach
+  public void setup() {
+    System.setOut(new PrintStream(outputStream));
+    addressBook.clear();
+  }
+
+  /**
+   * Runs the application with no arguments, typing lines of input into the menu
+   *
+   * @param lines The lines of input
+   */
+  private void runApplication(String... lines) {
+    runApplication(new String[0], lines);
+  }
+
+  /**
+   * Runs the application, typing lines of input into the menu
+   *
+   * @param args The command-line arguments
+   * @param lines The lines of input
+   */
+  private void runApplication(String[] args, String... lines) {
+    String input = String.join(System.lineSeparator(), lines) + System.lineSeparator();
+    System.setIn(new ByteArrayInputStream(input.getBytes()));
+
+    AddressBookApplication.main(args);
+  }
+
+  /** Tests that the menu quits with the key it has always quit with */
+  @Test
+  public void testQuit() {
+    runApplication("f");
+
+    assertTrue(outputStream.toString().contains("f) Quit"));
+    assertTrue(outputStream.toString().contains("Exiting..."));
+  }
+
+  /** Tests that the original menu keys still do what they did */
+  @Test
+  public void testOriginalKeys() {
+    runApplication("a", "test/resources/addressBook.txt", "e", "f");
+
+    assertEquals(5, addressBook.size());
+    assertTrue(outputStream.toString().contains("Aaron Baron"));
+    assertTrue(outputStream.toString().contains("Exiting..."));
+  }
+
+  /** Tests that saving, added after the original keys, saves the address book */
+  @Test
+  public void testSave(@TempDir Path directory) {
+    Path file = directory.resolve("addressBook.txt");
+    runApplication("a", "test/resources/addressBook.txt", "g", file.toString(), "f");
+
+    assertTrue(Files.exists(file));
+    assertTrue(outputStream.toString().contains("Exiting..."));
+  }
+
+  /** Tests that searching, added after saving, searches without quitting */
+  @Test
+  public void testSearch() {
+    runApplication("a", "test/resources/addressBook.txt", "h", "aaron", "y", "f");
+
+    String output = outputStream.toString();
+    assertTrue(output.contains("h) Search all fields"));
+    assertTrue(output.contains("Found the following entries"));
+    assertTrue(output.indexOf("Found the following entries") < output.indexOf("Exiting..."));
+  }
+
+  /** Tests that showing statistics, added after searching, shows them without quitting */
+  @Test
+  public void testShowStatistics() {
+    runApplication("a", "test/resources/addressBook.txt", "i", "e", "f");
+
+    String output = outputStream.toString();
+    assertTrue(output.contains("i) Show statistics"));
+    assertTrue(output.contains("Entries: 5"));
+    assertTrue(output.indexOf("Entries: 5") < output.lastIndexOf("Aaron Baron"));
+    assertTrue(output.lastIndexOf("Aaron Baron") < output.indexOf("Exiting..."));
+  }
+
+  /** Tests that an unknown key is rejected without quitting */
+  @Test
+  public void testInvalidSelection() {
+    runApplication("z", "f");
+
+    assertTrue(outputStream.toString().contains("Please make a valid selection!"));
+    assertTrue(outputStream.toString().contains("Exiting..."));
+  }
+
+  /** Tests that a snapshot that can't be restored isn't overwritten on exit */
+  @Test
+  public void testUnreadableSnapshotIsKept(@TempDir Path directory) throws IOException {
+    Path snapshot = directory.resolve("addressBook.snapshot");
+    Files.writeString(snapshot, "not a snapshot");
+
+    runApplication(
+        new String[] {"--snapshot", snapshot.toString()},
+        "a",
+        "test/resources/addressBook.txt",
+        "f");
+
+    assertTrue(outputStream.toString().contains("it will not be saved on exit"));
+    assertEquals("not a snapshot", Files.readString(snapshot));
+  }
+
+  /** Tests that --storage without an engine doesn't swallow the argument after it */
+  @Test
+  public void testStorageWithoutEngine(@TempDir Path directory) throws IOException {
+    Path snapshot = directory.resolve("addressBook.snapshot");
+
+    runApplication(
+        new String[] {"--storage", "--snapshot", snapshot.toString()},
+        "a",
+        "test/resources/addressBook.txt",
+        "f");
+
+    assertTrue(outputStream.toString().contains("Ignoring unknown storage engine"));
+    assertFalse(outputStream.toString().contains("Ignoring unknown argument"));
+    assertTrue(Files.exists(snapshot));
+  }
+}
@@ -3,9 +3,13 @@ package address;
 import address.data.AddressBook;
 import address.data.AddressEntry;
 import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Scanner;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -432,4 +436,159 @@ class MenuTest {
     String output = outputStream.toString();
     assertTrue(output.contains("There are no matching entries"));
   }
+
+  /** Tests that {@link Menu#promptFindEntries} pages through many entries */
+  @Test
+  public void testPromptFindEntriesPaged() {
+    for (int i = 0; i < Menu.FIND_PAGE_SIZE + 5; i++) {
+      addressBook.add(new AddressEntry("Person" + i, "Doe", "", "", "", 0, "", ""));
+    }
+
+    simulateInput("Doe" + System.lineSeparator() + "n" + System.lineSeparator());
+    Menu.promptFindEntries(inputScanner, addressBook);
+    assertTrue(outputStream.toString().contains(Menu.FIND_PAGE_SIZE + ": "));
+    assertFalse(outputStream.toString().contains((Menu.FIND_PAGE_SIZE + 1) + ": "));
+
+    outputStream.reset();
+    simulateInput("Doe" + System.lineSeparator() + "y" + System.lineSeparator());
+    Menu.promptFindEntries(inputScanner, addressBook);
+    assertTrue(outputStream.toString().contains((Menu.FIND_PAGE_SIZE + 5) + ": "));
+  }
+
+  /** Tests that {@link Menu#promptSearchEntries} works as intended */
+  @Test
+  public void testPromptSearchEntries() {
+    addressBook.add(johnDoe);
+    addressBook.add(janeDoe);
+
+    simulateInput("john maintown" + System.lineSeparator() + "y" + System.lineSeparator());
+    Menu.promptSearchEntries(inputScanner, addressBook);
+
+    String output = outputStream.toString();
+    assertTrue(output.contains(johnDoe.toString()));
+    assertFalse(output.contains(janeDoe.toString()));
+  }
+
+  /** Tests that {@link Menu#promptSaveEntriesToFile} works as intended */
+  @Test
+  public void testPromptSaveEntriesToFile(@TempDir Path directory) {
+    addressBook.add(johnDoe);
+    addressBook.add(janeDoe);
+
+    Path file = directory.resolve("addressBook.txt");
+    simulateInput(file + System.lineSeparator());
+    Menu.promptSaveEntriesToFile(inputScanner, addressBook);
+
+    String output = outputStream.toString();
+    assertTrue(output.contains("Saved 2 entries"));
+    assertTrue(Files.exists(file));
+  }
+
+  /** Tests that {@link Menu#displayStatistics} works as intended */
+  @Test
+  public void testDisplayStatistics() {
+    addressBook.add(johnDoe);
+    Menu.displayStatistics(addressBook);
+    assertTrue(outputStream.toString().contains("Entries: 1"));
+    assertTrue(outputStream.toString().contains("Latencies aren't measured"));
+
+    addressBook.getMetrics().setEnabled(true);
+
+    try {
+      addressBook.find("doe");
+      Menu.displayStatistics(addressBook);
+    } finally {
+      addressBook.getMetrics().setEnabled(false);
+      addressBook.getMetrics().reset();
+    }
+
+    assertTrue(outputStream.toString().contains("Latencies in microseconds"));
+    assertTrue(outputStream.toString().contains("find "));
+  }
+
+  /** Tests that {@link Menu#runCommands} runs every kind of command and reports bad ones */
+  @Test
+  public void testRunCommands(@TempDir Path directory) throws IOException {
+    Path file = directory.resolve("addressBook.txt");
+    String commands =
+        """
+        # comments and blank lines are skipped
+
+        add John|Doe|1234 Main Street|Maintown|Mainstate|12345|1234567890|johndoe@example.com
+        add Jane | Doe | 5678 Main Street | Maintown | Mainstate | 12345 | 0987654321 | jd@x.com
+        add john|doe|1 Other Street|Othertown|Otherstate|54321|1111111111|other@example.com
+        add John|Smith|9012 Main Street|Maintown|Mainstate|NotAZip|1234567890|js@example.com
+        find do
+        remove Jane|Doe
+        remove Jane|Doe
+        list
+        save %s
+        remove John|Doe
+        load %s
+        frobnicate
+        add John|Smith
+        find
+        """
+            .formatted(file, file);
+    StringBuilder output = new StringBuilder();
+
+    int failedCommands =
+        Menu.runCommands(new BufferedReader(new StringReader(commands)), output, addressBook);
+
+    String outcomes = output.toString();
+    assertEquals(4, failedCommands);
+    assertTrue(outcomes.contains("Added John Doe\n"));
+    assertTrue(outcomes.contains("Added Jane Doe\n"));
+    assertTrue(outcomes.contains("Could not add john doe; this may be a duplicate entry\n"));
+    assertTrue(outcomes.contains("Line 6: ZIP code must be a number: NotAZip\n"));
+    assertTrue(outcomes.contains("Found 2 entries\n1: "));
+    assertTrue(outcomes.contains("Removed Jane Doe\n"));
+    assertTrue(outcomes.contains("No entry for Jane Doe\n"));
+    assertTrue(outcomes.contains("1: " + johnDoe + "\n\n"));
+    assertTrue(outcomes.contains("Saved 1 entry to " + file + "\n"));
+    assertTrue(outcomes.contains("Read 1 records (0 malformed) and added 1 entries"));
+    assertTrue(outcomes.contains("Line 14: Unknown command: frobnicate\n"));
+    assertTrue(outcomes.contains("Line 15: add takes 8 fields separated by |, not 2\n"));
+    assertTrue(outcomes.contains("Line 16: Missing argument for find\n"));
+    assertTrue(addressBook.contains(johnDoe));
+    assertEquals(1, addressBook.size());
+  }
+
+  /** Tests that {@link Menu#displayListing} prints every entry in one buffered listing */
+  @Test
+  public void testDisplayListing() {
+    addressBook.add(johnDoe);
+    addressBook.add(janeDoe);
+    Menu.displayListing(addressBook);
+
+    assertEquals("1: " + janeDoe + "\n\n2: " + johnDoe + "\n", outputStream.toString());
+  }
+
+  /**
+   * Tests that {@link ConsoleOutput} writes text longer than its buffer intact, including
+   * characters that take several bytes or two chars, and follows {@link System#setOut}
+   */
+  @Test
+  public void testConsoleOutput() {
+    System.setOut(new PrintStream(outputStream, false, StandardCharsets.UTF_8));
+    ConsoleOutput output = new ConsoleOutput();
+    StringBuilder expected = new StringBuilder();
+
+    for (int i = -5; expected.length() < 100_000; i += 7919) {
+      String text = "Zoë 王 \uD83D\uDE00 " + i + "\n";
+      output.append("Zoë 王 \uD83D\uDE00 ").append(i).append('\n');
+      expected.append(text);
+    }
+
+    output.append(Integer.MIN_VALUE).append(new StringBuilder(" ")).append(johnDoe);
+    expected.append(Integer.MIN_VALUE).append(' ').append(johnDoe);
+    output.flush();
+
+    assertEquals(expected.toString(), outputStream.toString(StandardCharsets.UTF_8));
+
+    ByteArrayOutputStream otherStream = new ByteArrayOutputStream();
+    System.setOut(new PrintStream(otherStream, false, StandardCharsets.US_ASCII));
+    output.append("Zoë elsewhere").flush();
+    assertEquals("Zo? elsewhere", otherStream.toString(StandardCharsets.US_ASCII));
+  }
 }
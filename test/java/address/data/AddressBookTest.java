@@ -1,11 +1,33 @@
 package address.data;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.PosixFilePermissions;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.Spliterator;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import javax.management.ObjectName;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 
 /**
  * AddressBook class unit tests
@@ -81,6 +103,8 @@ class AddressBookTest {
   @BeforeEach
   public void resetAddressBook() {
     addressBook.clear();
+    addressBook.setIndexingEnabled(false);
+    addressBook.setStorageEngine(StorageEngine.HEAP);
   }
 
   /** Tests that only one {@link AddressBook} exists at a time */
@@ -309,4 +333,1165 @@ class AddressBookTest {
     assertFalse(addressBook.contains(johnDoe));
     assertFalse(addressBook.contains(janeDoe));
   }
+
+  /** Tests that streaming a listing into an {@link Appendable} matches {@link AddressBook#list} */
+  @Test
+  public void testListingAppendable() throws IOException {
+    addressBook.add(johnDoe);
+    addressBook.add(janeDoe);
+    addressBook.add(aaronBaron);
+
+    StringBuilder listing = new StringBuilder();
+    addressBook.list(listing);
+
+    assertEquals(addressBook.list(), listing.toString());
+    assertTrue(listing.toString().startsWith("1: " + aaronBaron.toString()));
+    assertTrue(listing.toString().endsWith("3: " + johnDoe.toString()));
+  }
+
+  /** Tests that a listing can be written to an {@link java.io.OutputStream} */
+  @Test
+  public void testWriteListing() throws IOException {
+    addressBook.add(johnDoe);
+    addressBook.add(janeDoe);
+
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    addressBook.writeListing(outputStream);
+
+    assertEquals(addressBook.list(), outputStream.toString(StandardCharsets.UTF_8));
+  }
+
+  /** Tests that finding only returns the entries within the matching range of last names */
+  @Test
+  public void testFindRange() {
+    addressBook.add(aaronBaron);
+    addressBook.add(johnDoe);
+    addressBook.add(janeDoe);
+    addressBook.add(johnSmith);
+
+    ArrayList<AddressEntry> foundEntries = addressBook.find("do");
+    ArrayList<AddressEntry> foundEntriesLongerThanNames = addressBook.find("Does");
+    ArrayList<AddressEntry> foundEntriesAfterAll = addressBook.find("Zz");
+
+    assertEquals(2, foundEntries.size());
+    assertEquals(janeDoe, foundEntries.get(0));
+    assertEquals(johnDoe, foundEntries.get(1));
+    assertEquals(0, foundEntriesLongerThanNames.size());
+    assertEquals(0, foundEntriesAfterAll.size());
+  }
+
+  /** Tests that querying by contact and location fields works without indexes */
+  @Test
+  public void testQuery() {
+    addressBook.add(johnDoe);
+    addressBook.add(janeDoe);
+    addressBook.add(aaronBaron);
+
+    assertEquals(2, addressBook.query(new AddressQuery().city("maintown")).size());
+    assertEquals(3, addressBook.query(new AddressQuery().state("Mainstate")).size());
+    assertEquals(1, addressBook.query(new AddressQuery().email("JOHNDOE@example.com")).size());
+    assertEquals(1, addressBook.query(new AddressQuery().phone("0987654321")).size());
+    assertEquals(3, addressBook.query(new AddressQuery().zipRange(12345, 12356)).size());
+    assertEquals(
+        aaronBaron, addressBook.query(new AddressQuery().zip(12356).state("Mainstate")).get(0));
+    assertEquals(0, addressBook.query(new AddressQuery().zip(12356).city("Maintown")).size());
+  }
+
+  /** Tests that indexed queries return the same results, in order, as unindexed ones */
+  @Test
+  public void testQueryIndexed() {
+    addressBook.add(johnDoe);
+    addressBook.add(aaronBaron);
+    addressBook.setIndexingEnabled(true);
+    addressBook.add(janeDoe);
+    addressBook.add(johnSmith);
+
+    ArrayList<AddressEntry> maintown = addressBook.query(new AddressQuery().city("Maintown"));
+    ArrayList<AddressEntry> zipRange = addressBook.query(new AddressQuery().zipRange(0, 99999));
+
+    assertTrue(addressBook.isIndexingEnabled());
+    assertEquals(3, maintown.size());
+    assertEquals(janeDoe, maintown.get(0));
+    assertEquals(johnDoe, maintown.get(1));
+    assertEquals(johnSmith, maintown.get(2));
+    assertEquals(4, zipRange.size());
+    assertEquals(aaronBaron, zipRange.get(0));
+    assertEquals(1, addressBook.query(new AddressQuery().email("abaron@example.com")).size());
+    assertEquals(0, addressBook.query(new AddressQuery().zipRange(12356, 12345)).size());
+  }
+
+  /** Tests that the sorted set view of a sorted list supports lookups and range views */
+  @Test
+  public void testSortedEntryList() {
+    ArrayList<AddressEntry> sortedEntries =
+        new ArrayList<AddressEntry>(Arrays.asList(aaronBaron, janeDoe, johnDoe, johnSmith));
+    SortedEntryList sortedEntryList = new SortedEntryList(sortedEntries);
+    AddressEntry doe = AddressEntry.builder().lastName("Doe").build();
+
+    assertTrue(sortedEntryList.contains(johnDoe));
+    assertFalse(sortedEntryList.contains(doe));
+    assertEquals(
+        Arrays.asList(janeDoe, johnDoe),
+        new ArrayList<AddressEntry>(sortedEntryList.subSet(doe, johnSmith)));
+    assertEquals(
+        Arrays.asList(aaronBaron), new ArrayList<AddressEntry>(sortedEntryList.headSet(janeDoe)));
+    assertEquals(johnDoe, sortedEntryList.tailSet(johnDoe).first());
+    assertEquals(johnSmith, sortedEntryList.tailSet(doe).last());
+    assertTrue(sortedEntryList.tailSet(johnSmith).headSet(johnSmith).isEmpty());
+    assertThrows(IllegalArgumentException.class, () -> sortedEntryList.subSet(johnSmith, doe));
+  }
+
+  /** Tests that a wide ZIP code range isn't collected when another index is more selective */
+  @Test
+  public void testQueryIndexedPicksSmallestIndex() {
+    SecondaryIndexes indexes = new SecondaryIndexes();
+
+    for (AddressEntry addressEntry : new AddressEntry[] {johnDoe, janeDoe, johnSmith, aaronBaron}) {
+      indexes.add(addressEntry);
+    }
+
+    AddressQuery emailAndZip = new AddressQuery().email("abaron@example.com").zipRange(0, 99999);
+    AddressQuery narrowZip =
+        new AddressQuery().state("Mainstate").zipRange(aaronBaron.getZip(), aaronBaron.getZip());
+
+    assertEquals(1, indexes.candidates(emailAndZip).size());
+    assertTrue(indexes.candidates(emailAndZip) instanceof TreeSet);
+    assertEquals(1, indexes.candidates(narrowZip).size());
+    assertEquals(4, indexes.candidates(new AddressQuery().zipRange(0, 99999)).size());
+  }
+
+  /** Tests that the indexes stay consistent when entries are removed, cleared and read */
+  @Test
+  public void testQueryIndexedAfterChanges() {
+    addressBook.setIndexingEnabled(true);
+    addressBook.add(johnDoe);
+
+    // same names as John Doe, so removing it removes John Doe despite the other fields differing
+    assertTrue(addressBook.remove(johnDoe2));
+    assertEquals(0, addressBook.query(new AddressQuery().email("johndoe@example.com")).size());
+
+    addressBook.readFromFile("test/resources/addressBook.txt");
+    assertEquals(3, addressBook.query(new AddressQuery().zip(12345)).size());
+
+    addressBook.clear();
+    assertEquals(0, addressBook.query(new AddressQuery().zip(12345)).size());
+  }
+
+  /** Tests that concurrent adds, finds and removes from many threads leave the book consistent */
+  @Test
+  public void testConcurrentAccess() throws Exception {
+    int threadCount = 8;
+    int entriesPerThread = 2000;
+    ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+    ArrayList<Future<Integer>> results = new ArrayList<Future<Integer>>();
+
+    for (int thread = 0; thread < threadCount; thread++) {
+      String lastName = "Thread" + thread;
+
+      results.add(
+          executor.submit(
+              () -> {
+                int failures = 0;
+
+                for (int i = 0; i < entriesPerThread; i++) {
+                  AddressEntry entry =
+                      AddressEntry.builder().firstName("First" + i).lastName(lastName).build();
+
+                  if (!addressBook.add(entry) || !addressBook.contains(entry)) {
+                    failures++;
+                  }
+
+                  if ((i % 2 == 1) && !addressBook.remove(entry)) {
+                    failures++;
+                  }
+
+                  if (addressBook.find(lastName).size() != (i / 2) + 1) {
+                    failures++;
+                  }
+                }
+
+                return failures;
+              }));
+    }
+
+    for (Future<Integer> result : results) {
+      assertEquals(0, result.get());
+    }
+
+    executor.shutdown();
+
+    assertEquals(threadCount * entriesPerThread / 2, addressBook.size());
+  }
+
+  /** Tests that bulk loading a file adds the same entries, in the same order, as reading it */
+  @Test
+  public void testLoadFromFile() {
+    String fileName = "test/resources/addressBook.txt";
+    LoadStatistics statistics = new LoadStatistics();
+
+    ArrayList<AddressEntry> loadedEntries = addressBook.loadFromFile(fileName, statistics);
+    ArrayList<AddressEntry> duplicateLoadedEntries = addressBook.loadFromFile(fileName);
+
+    assertEquals(5, loadedEntries.size());
+    assertEquals(johnDoe, loadedEntries.get(0));
+    assertEquals(aaronBaron, loadedEntries.get(4));
+    assertEquals("1234 Main Street", loadedEntries.get(0).getStreet());
+    assertEquals(5, statistics.getRecordsRead());
+    assertEquals(5, statistics.getEntriesAdded());
+    assertEquals(0, duplicateLoadedEntries.size());
+    assertEquals(5, addressBook.size());
+  }
+
+  /** Tests that bulk loading malformed, incomplete, empty and missing files matches reading them */
+  @Test
+  public void testLoadMalformedFile() {
+    assertEquals(1, addressBook.loadFromFile("test/resources/addressBookMalformed.txt").size());
+    assertEquals(0, addressBook.loadFromFile("test/resources/addressBookIncomplete.txt").size());
+    assertEquals(0, addressBook.loadFromFile("test/resources/addressBookEmpty.txt").size());
+    assertEquals(0, addressBook.loadFromFile("test/resources/addressBookNonExistent.txt").size());
+    assertEquals(0, addressBook.loadFromFile("").size());
+    assertEquals(1, addressBook.size());
+  }
+
+  /**
+   * Tests that bulk loading skips records with a malformed ZIP code instead of stopping, and that a
+   * skipped record doesn't stop a later record with the same names from being added
+   */
+  @Test
+  public void testLoadSkipsMalformedRecords(@TempDir Path directory) throws IOException {
+    Path file = directory.resolve("addressBook.txt");
+    Files.writeString(
+        file,
+        """
+        John
+        Doe
+        1234 Main Street
+        Maintown
+        Mainstate
+        NotAZipCode
+        1234567890
+        johndoe@example.com
+
+        Jane
+        Doe
+        5678 Main Street
+        Maintown
+        Mainstate
+        99999999999
+        0987654321
+        janedoe@example.com
+
+        JOHN
+        DOE
+        1234 Main Street
+        Maintown
+        Mainstate
+        -12345
+        1234567890
+        johndoe@example.com
+        """);
+
+    LoadStatistics statistics = new LoadStatistics();
+    ArrayList<AddressEntry> loadedEntries = addressBook.loadFromFile(file.toString(), statistics);
+
+    assertEquals(1, loadedEntries.size());
+    assertEquals("JOHN", loadedEntries.getFirst().getFirstName());
+    assertEquals(-12345, loadedEntries.getFirst().getZip());
+    assertEquals(3, statistics.getRecordsRead());
+    assertEquals(2, statistics.getMalformedRecords());
+  }
+
+  /** Tests that a file split into many chunks parses into the same entries as reading it */
+  @Test
+  public void testLoadChunkedFile(@TempDir Path directory) throws IOException {
+    Path file = directory.resolve("addressBook.txt");
+    StringBuilder contents = new StringBuilder();
+
+    for (int i = 0; i < 500; i++) {
+      // duplicate every tenth name, mix line endings and sprinkle in blank lines
+      String newLine = (i % 3 == 0) ? "\r\n" : "\n";
+      int nameNumber = (i % 10 == 9) ? i - 1 : i;
+      contents.append("First").append(nameNumber).append(newLine);
+      contents.append("Last").append(nameNumber % 7).append(newLine).append(" \t").append(newLine);
+      contents.append(i).append(" Main Street").append(newLine);
+      contents.append("Maintown").append(newLine).append("Mainstate").append(newLine);
+      contents.append(10000 + i).append(newLine).append("555").append(i).append(newLine);
+      contents.append("person").append(i).append("@example.com").append(newLine).append(newLine);
+    }
+
+    contents.append("Incomplete\nRecord");
+    Files.writeString(file, contents);
+
+    AddressFileLoader.Result result =
+        AddressFileLoader.parse(file, ForkJoinPool.commonPool(), 7, entry -> false);
+    ArrayList<AddressEntry> readEntries = addressBook.readFromFile(file.toString());
+
+    assertEquals(500, result.records);
+    assertEquals(450, readEntries.size());
+    assertEquals(
+        readEntries.stream().map(AddressEntry::toString).toList(),
+        result.entries.stream().map(AddressEntry::toString).toList());
+
+    addressBook.clear();
+    assertEquals(readEntries, addressBook.loadFromFile(file.toString()));
+    assertEquals(readEntries.size(), addressBook.size());
+  }
+
+  /** Tests that writing the address book to a file can be read back into the same entries */
+  @Test
+  public void testWriteToFile(@TempDir Path directory) throws IOException {
+    Path file = directory.resolve("addressBook.txt");
+    Files.writeString(file, "old contents");
+    addressBook.readFromFile("test/resources/addressBook.txt");
+    String listing = addressBook.list();
+
+    assertTrue(addressBook.writeToFile(file.toString()));
+
+    addressBook.clear();
+    ArrayList<AddressEntry> readEntries = addressBook.readFromFile(file.toString());
+
+    assertEquals(5, readEntries.size());
+    assertEquals(listing, addressBook.list());
+    assertEquals(1, Files.list(directory).count()); // no temporary file is left behind
+  }
+
+  /** Tests that writing over a file keeps its permissions, and a new file gets default ones */
+  @Test
+  public void testWriteToFileKeepsPermissions(@TempDir Path directory) throws IOException {
+    assumeTrue(Files.getFileStore(directory).supportsFileAttributeView("posix"));
+
+    Path file = directory.resolve("addressBook.txt");
+    Files.writeString(file, "old contents");
+    Files.setPosixFilePermissions(file, PosixFilePermissions.fromString("rw-r-----"));
+    addressBook.readFromFile("test/resources/addressBook.txt");
+
+    assertTrue(addressBook.writeToFile(file.toString()));
+    assertEquals("rw-r-----", PosixFilePermissions.toString(Files.getPosixFilePermissions(file)));
+
+    Path newFile = directory.resolve("newAddressBook.txt");
+    Path plainFile = Files.createFile(directory.resolve("plain.txt"));
+
+    assertTrue(addressBook.writeToFile(newFile.toString()));
+    assertEquals(
+        Files.getPosixFilePermissions(plainFile), Files.getPosixFilePermissions(newFile));
+  }
+
+  /** Tests that writing to a blank or unwritable file name fails */
+  @Test
+  public void testWriteToBadFile(@TempDir Path directory) {
+    addressBook.add(johnDoe);
+
+    assertFalse(addressBook.writeToFile(""));
+    assertFalse(addressBook.writeToFile(directory.resolve("missing/addressBook.txt").toString()));
+  }
+
+  /** Tests that a snapshot restores the same entries, with all of their fields */
+  @Test
+  public void testSnapshot(@TempDir Path directory) {
+    String fileName = directory.resolve("addressBook.snapshot").toString();
+    AddressEntry unicodeEntry =
+        new AddressEntry("Zoë", "Ångström", "1 Straße", "Köln", "NRW", 50667, "+49 221", "z@ä.de");
+
+    addressBook.readFromFile("test/resources/addressBook.txt");
+    addressBook.add(unicodeEntry);
+    String listing = addressBook.list();
+
+    assertTrue(addressBook.saveSnapshot(fileName));
+
+    addressBook.clear();
+    addressBook.add(johnDoe2); // replaced by the snapshot
+    addressBook.setIndexingEnabled(true);
+
+    assertTrue(addressBook.loadSnapshot(fileName));
+    assertEquals(6, addressBook.size());
+    assertEquals(listing, addressBook.list());
+    assertEquals(1, addressBook.query(new AddressQuery().city("köln")).size());
+  }
+
+  /** Tests that loading a missing or invalid snapshot fails and leaves the address book unchanged */
+  @Test
+  public void testSnapshotInvalid(@TempDir Path directory) throws IOException {
+    Path truncatedFile = directory.resolve("truncated.snapshot");
+    addressBook.add(johnDoe);
+    addressBook.add(janeDoe);
+    assertTrue(addressBook.saveSnapshot(truncatedFile.toString()));
+
+    byte[] snapshotBytes = Files.readAllBytes(truncatedFile);
+    Files.write(truncatedFile, Arrays.copyOf(snapshotBytes, snapshotBytes.length - 1));
+    addressBook.remove(janeDoe);
+
+    assertFalse(addressBook.loadSnapshot(truncatedFile.toString()));
+    assertFalse(addressBook.loadSnapshot("test/resources/addressBook.txt"));
+    assertFalse(addressBook.loadSnapshot(directory.resolve("missing.snapshot").toString()));
+    assertFalse(addressBook.loadSnapshot(""));
+    assertEquals(1, addressBook.size());
+  }
+
+  /** Tests that replaying a journal rebuilds the changes made while it was open */
+  @Test
+  public void testJournal(@TempDir Path directory) {
+    String fileName = directory.resolve("addressBook.journal").toString();
+    addressBook.add(johnDoe);
+
+    assertTrue(addressBook.openJournal(fileName, 5, Long.MAX_VALUE));
+    assertFalse(addressBook.openJournal(fileName));
+    addressBook.add(janeDoe);
+    addressBook.loadFromFile("test/resources/addressBook.txt");
+    addressBook.remove(johnDoe);
+    String listing = addressBook.list();
+    assertTrue(addressBook.closeJournal());
+    assertFalse(addressBook.closeJournal());
+
+    // replaying on top of the starting state
+    addressBook.clear();
+    addressBook.add(johnDoe);
+    assertTrue(addressBook.openJournal(fileName, 0, Long.MAX_VALUE));
+    assertEquals(listing, addressBook.list());
+    assertTrue(addressBook.closeJournal());
+
+    // replaying on top of the final state
+    assertTrue(addressBook.openJournal(fileName, 0, Long.MAX_VALUE));
+    assertEquals(listing, addressBook.list());
+    assertTrue(addressBook.closeJournal());
+  }
+
+  /** Tests that a compacted journal rebuilds the same entries from any starting state */
+  @Test
+  public void testJournalCompaction(@TempDir Path directory) throws IOException {
+    Path file = directory.resolve("addressBook.journal");
+    assertTrue(addressBook.openJournal(file.toString(), 0, Long.MAX_VALUE));
+
+    for (int i = 0; i < 10; i++) {
+      addressBook.add(johnDoe);
+      addressBook.remove(johnDoe);
+    }
+
+    addressBook.add(janeDoe);
+    long journalSize = Files.size(file);
+    assertTrue(addressBook.compactJournal());
+    assertTrue(Files.size(file) < journalSize);
+    addressBook.add(johnDoe2);
+    String listing = addressBook.list();
+    assertTrue(addressBook.closeJournal());
+    assertFalse(addressBook.compactJournal());
+
+    addressBook.clear();
+    addressBook.add(johnDoe);
+    assertTrue(addressBook.openJournal(file.toString(), 0, Long.MAX_VALUE));
+    assertEquals(listing, addressBook.list());
+    assertTrue(addressBook.closeJournal());
+  }
+
+  /** Tests that replay stops at a torn record, which is dropped from the journal */
+  @Test
+  public void testJournalTornRecord(@TempDir Path directory) throws IOException {
+    Path file = directory.resolve("addressBook.journal");
+    assertTrue(addressBook.openJournal(file.toString(), 0, Long.MAX_VALUE));
+    addressBook.add(johnDoe);
+    long firstRecordSize = Files.size(file);
+    addressBook.add(janeDoe);
+    assertTrue(addressBook.closeJournal());
+
+    byte[] journalBytes = Files.readAllBytes(file);
+    Files.write(file, Arrays.copyOf(journalBytes, journalBytes.length - 3));
+    addressBook.clear();
+
+    assertTrue(addressBook.openJournal(file.toString(), 0, Long.MAX_VALUE));
+    assertEquals(1, addressBook.size());
+    assertTrue(addressBook.contains(johnDoe));
+    assertEquals(firstRecordSize, Files.size(file));
+    assertTrue(addressBook.closeJournal());
+  }
+
+  /** Tests that the flusher compacts a journal after writing to it, until it has grown again */
+  @Test
+  public void testJournalBackgroundCompaction(@TempDir Path directory)
+      throws IOException, InterruptedException {
+    Path file = directory.resolve("addressBook.journal");
+    assertTrue(addressBook.openJournal(file.toString(), 0, Long.MAX_VALUE));
+
+    for (int i = 0; i < 10; i++) {
+      addressBook.add(johnDoe);
+      addressBook.remove(johnDoe);
+    }
+
+    addressBook.add(janeDoe);
+    assertTrue(addressBook.closeJournal());
+    long uncompactedSize = Files.size(file);
+
+    // the first batch written past the threshold compacts the journal
+    assertTrue(addressBook.openJournal(file.toString(), 1, 1));
+    addressBook.add(johnDoe2);
+    awaitCondition(() -> Files.size(file) < uncompactedSize);
+    long compactedSize = Files.size(file);
+    Object compactedFile = Files.readAttributes(file, BasicFileAttributes.class).fileKey();
+
+    // a batch that doesn't double the compacted journal is appended to it
+    addressBook.add(aaronBaron);
+    awaitCondition(() -> Files.size(file) > compactedSize);
+    assertEquals(compactedFile, Files.readAttributes(file, BasicFileAttributes.class).fileKey());
+    String listing = addressBook.list();
+    assertTrue(addressBook.closeJournal());
+
+    addressBook.clear();
+    addressBook.add(johnDoe);
+    assertTrue(addressBook.openJournal(file.toString(), 0, Long.MAX_VALUE));
+    assertEquals(3, addressBook.size());
+    assertEquals(listing, addressBook.list());
+    assertTrue(addressBook.closeJournal());
+  }
+
+  /**
+   * Waits for a condition set by a background thread, failing if it isn't set within 10 seconds
+   *
+   * @param condition The condition to wait for
+   * @throws IOException If the condition could not be checked
+   * @throws InterruptedException If the wait was interrupted
+   */
+  private static void awaitCondition(IoCondition condition)
+      throws IOException, InterruptedException {
+    long deadline = System.nanoTime() + 10_000_000_000L;
+
+    while (!condition.isMet()) {
+      assertTrue(System.nanoTime() < deadline, "Timed out waiting for a background thread");
+      Thread.sleep(5);
+    }
+  }
+
+  /** A condition on files that a background thread eventually makes true */
+  private interface IoCondition {
+    /**
+     * Returns if the condition is met
+     *
+     * @return {@code true} if the condition is met
+     * @throws IOException If the files could not be read
+     */
+    boolean isMet() throws IOException;
+  }
+
+  /** Tests that changes are refused once the journal can't be written */
+  @Test
+  public void testJournalFailure() {
+    Path fullDevice = Path.of("/dev/full");
+    assumeTrue(Files.isWritable(fullDevice));
+    assertTrue(addressBook.openJournal(fullDevice.toString(), 0, Long.MAX_VALUE));
+
+    // the first change is made, but can't be forced to the journal
+    assertTrue(addressBook.add(johnDoe));
+    assertFalse(addressBook.add(janeDoe));
+    assertFalse(addressBook.remove(johnDoe));
+    assertFalse(addressBook.addAll(Arrays.asList(janeDoe))[0]);
+    assertEquals(1, addressBook.size());
+    assertFalse(addressBook.closeJournal());
+  }
+
+  /** Tests that the off-heap storage engine behaves like the heap one */
+  @Test
+  public void testOffHeapStorage(@TempDir Path directory) {
+    String snapshotFileName = directory.resolve("addressBook.snapshot").toString();
+    addressBook.add(johnDoe);
+    addressBook.readFromFile("test/resources/addressBook.txt");
+    addressBook.setIndexingEnabled(true);
+    String listing = addressBook.list();
+    ArrayList<AddressEntry> foundEntries = addressBook.find("d");
+
+    addressBook.setStorageEngine(StorageEngine.OFF_HEAP);
+
+    assertEquals(StorageEngine.OFF_HEAP, addressBook.getStorageEngine());
+    assertEquals(listing, addressBook.list());
+    assertEquals(foundEntries.toString(), addressBook.find("d").toString());
+    assertTrue(addressBook.contains(johnDoe2));
+    assertFalse(addressBook.add(johnDoe2));
+    assertEquals(1, addressBook.query(new AddressQuery().email("JaneDoe@example.com")).size());
+
+    assertTrue(addressBook.saveSnapshot(snapshotFileName));
+    assertTrue(addressBook.remove(johnDoe2));
+    assertFalse(addressBook.contains(johnDoe));
+    assertTrue(addressBook.remove(janeDoe));
+    assertTrue(addressBook.add(janeDoe));
+    assertEquals(4, addressBook.size());
+    assertTrue(addressBook.loadSnapshot(snapshotFileName));
+    assertEquals(listing, addressBook.list());
+
+    addressBook.clear();
+    addressBook.loadFromFile("test/resources/addressBook.txt");
+    addressBook.add(johnDoe);
+    assertEquals(listing, addressBook.list());
+
+    addressBook.setStorageEngine(StorageEngine.HEAP);
+    assertEquals(listing, addressBook.list());
+  }
+
+  /** Tests that the off-heap storage engine keeps its order as removed rows are reclaimed */
+  @Test
+  public void testOffHeapStorageRemoveMany() {
+    addressBook.setStorageEngine(StorageEngine.OFF_HEAP);
+    ArrayList<AddressEntry> keptEntries = new ArrayList<AddressEntry>();
+
+    for (int i = 0; i < 3000; i++) {
+      AddressEntry addressEntry =
+          new AddressEntry("First" + i, "Last" + (i * 7919 % 3000), "", "City", "", i, "", "");
+      addressBook.add(addressEntry);
+
+      if (i % 5 == 0) {
+        keptEntries.add(addressEntry);
+      }
+    }
+
+    for (int i = 0; i < 3000; i++) {
+      if (i % 5 != 0) {
+        assertTrue(
+            addressBook.remove(
+                new AddressEntry("first" + i, "last" + (i * 7919 % 3000), "", "", "", 0, "", "")));
+      }
+    }
+
+    keptEntries.sort(null);
+    assertEquals(keptEntries.size(), addressBook.size());
+    assertEquals(keptEntries, addressBook.query(new AddressQuery()));
+    assertEquals(1200, addressBook.query(new AddressQuery().zip(1200)).getFirst().getZip());
+  }
+
+  /** Tests that autocompletion returns the most common names and follows changes */
+  @Test
+  public void testAutocomplete() {
+    addressBook.readFromFile("test/resources/addressBook.txt");
+
+    assertEquals("[Doe (2), Smith (2), Baron (1)]", addressBook.autocomplete("", 10).toString());
+    assertEquals("[Doe (2)]", addressBook.autocomplete(" D", 10).toString());
+    assertEquals("[Jane (2), John (2)]", addressBook.autocompleteFirstName("j", 2).toString());
+    assertTrue(addressBook.autocomplete("x", 10).isEmpty());
+    assertTrue(addressBook.autocomplete("", 0).isEmpty());
+
+    addressBook.add(AddressEntry.builder().firstName("Al").lastName("DOE").build());
+    addressBook.add(AddressEntry.builder().firstName("Al").lastName("Doering").build());
+    addressBook.remove(AddressEntry.builder().firstName("John").lastName("Smith").build());
+    addressBook.remove(AddressEntry.builder().firstName("Aaron").lastName("Baron").build());
+
+    assertEquals(
+        "[Doe (3), Doering (1), Smith (1)]", addressBook.autocomplete("", 10).toString());
+    assertEquals("[Doe (3), Doering (1)]", addressBook.autocomplete("do", 10).toString());
+    assertEquals("[Al (2), Jane (2)]", addressBook.autocompleteFirstName("", 2).toString());
+    assertTrue(addressBook.getAutocompleteMemoryUsage() > 0);
+
+    addressBook.clear();
+    assertTrue(addressBook.autocomplete("", 10).isEmpty());
+  }
+
+  /** Tests that fuzzy finding ranks misspelled and sound-alike last names */
+  @Test
+  public void testFuzzyFind() {
+    addressBook.readFromFile("test/resources/addressBook.txt");
+    AddressEntry johnSmyth = AddressEntry.builder().firstName("John").lastName("Smyth").build();
+    AddressEntry annSchmidt = AddressEntry.builder().firstName("Ann").lastName("Schmidt").build();
+    addressBook.add(johnSmyth);
+    addressBook.add(annSchmidt);
+
+    ArrayList<AddressEntry> foundEntries = addressBook.fuzzyFind("SMITH", 2, 10);
+    assertEquals(4, foundEntries.size());
+    assertEquals("Smith", foundEntries.getFirst().getLastName());
+    assertEquals("Smith", foundEntries.get(1).getLastName());
+    assertEquals(johnSmyth, foundEntries.get(2));
+    assertEquals(annSchmidt, foundEntries.get(3)); // same Soundex code, S530
+
+    // sound-alikes must still be within the distance in length
+    assertEquals(3, addressBook.fuzzyFind("smith", 1, 10).size());
+
+    assertEquals(2, addressBook.fuzzyFind("smith", 1, 2).size());
+    assertEquals(2, addressBook.fuzzyFind("do", 1, 10).size());
+    assertEquals(1, addressBook.fuzzyFind("Barron", 1, 10).size());
+    assertTrue(addressBook.fuzzyFind("Xyz", 1, 10).isEmpty());
+    assertTrue(addressBook.fuzzyFind(" ", 1, 10).isEmpty());
+
+    addressBook.remove(johnSmyth);
+    addressBook.add(AddressEntry.builder().firstName("Jo").lastName("Smit").build());
+    foundEntries = addressBook.fuzzyFind("smith", 2, 10);
+    assertEquals(4, foundEntries.size());
+    assertEquals("Smit", foundEntries.get(2).getLastName()); // also S530
+    assertEquals(annSchmidt, foundEntries.get(3));
+  }
+
+  /** Tests that names with repeated trigrams and no Soundex code still match themselves */
+  @Test
+  public void testFuzzyFindRepeatedGrams() {
+    AddressEntry repeatedName = AddressEntry.builder().firstName("Α").lastName("Αβαβαβ").build();
+    addressBook.add(repeatedName);
+    addressBook.add(AddressEntry.builder().firstName("Β").lastName("Αβαβαγ").build());
+
+    ArrayList<AddressEntry> foundEntries = addressBook.fuzzyFind("αβαβαβ", 0, 10);
+    assertEquals(1, foundEntries.size());
+    assertEquals(repeatedName, foundEntries.getFirst());
+    assertEquals(2, addressBook.fuzzyFind("αβαβαβ", 1, 10).size());
+  }
+
+  /** Tests that skipping names by prefix finds every name a full scan finds */
+  @Test
+  public void testFuzzyNameIndexMatchesScan() {
+    FuzzyNameIndex fuzzyNameIndex = new FuzzyNameIndex();
+    ArrayList<String> names = new ArrayList<String>();
+    Random random = new Random(7);
+
+    for (int i = 0; i < 2000; i++) {
+      StringBuilder name = new StringBuilder();
+
+      for (int length = 1 + random.nextInt(8); name.length() < length; ) {
+        name.append("abcdez".charAt(random.nextInt(6)));
+      }
+
+      names.add(name.toString());
+      fuzzyNameIndex.add(name.toString());
+    }
+
+    assertMatchesScan(fuzzyNameIndex, names);
+
+    // a name added in both halves is still counted by the first half once the second is removed
+    for (String name : names.subList(1000, 2000)) {
+      fuzzyNameIndex.remove(name);
+    }
+
+    names.subList(1000, 2000).clear();
+    assertMatchesScan(fuzzyNameIndex, names);
+  }
+
+  /**
+   * Asserts that a fuzzy name index matches the same names as scanning every name
+   *
+   * @param fuzzyNameIndex The index
+   * @param names The names in the index, which may repeat
+   */
+  private void assertMatchesScan(FuzzyNameIndex fuzzyNameIndex, ArrayList<String> names) {
+    for (int i = 0; i < 50; i++) {
+      String query = names.get(i);
+
+      for (int maximumDistance = 0; maximumDistance <= 2; maximumDistance++) {
+        TreeSet<String> scannedNames = new TreeSet<String>();
+
+        for (String name : names) {
+          if (FuzzyNameIndex.editDistance(query, name, maximumDistance) <= maximumDistance) {
+            scannedNames.add(name);
+          }
+        }
+
+        TreeSet<String> matchedNames = new TreeSet<String>();
+
+        for (String name : fuzzyNameIndex.match(query, maximumDistance)) {
+          if (FuzzyNameIndex.editDistance(query, name, maximumDistance) <= maximumDistance) {
+            matchedNames.add(name);
+          } else {
+            assertEquals(FuzzyNameIndex.soundex(query), FuzzyNameIndex.soundex(name));
+            assertTrue(Math.abs(query.length() - name.length()) <= maximumDistance);
+          }
+        }
+
+        assertEquals(scannedNames, matchedNames);
+      }
+    }
+  }
+
+  /** Tests the edit distance and Soundex codes used by fuzzy finding */
+  @Test
+  public void testFuzzyNameIndexHelpers() {
+    assertEquals(3, FuzzyNameIndex.editDistance("kitten", "sitting", 5));
+    assertEquals(3, FuzzyNameIndex.editDistance("kitten", "sitting", 2));
+    assertEquals(0, FuzzyNameIndex.editDistance("", "", 0));
+    assertEquals("R163", FuzzyNameIndex.soundex("robert"));
+    assertEquals("R163", FuzzyNameIndex.soundex("rupert"));
+    assertEquals("A261", FuzzyNameIndex.soundex("ashcraft"));
+    assertEquals("T522", FuzzyNameIndex.soundex("tymczak"));
+    assertEquals("P236", FuzzyNameIndex.soundex("pfister"));
+    assertEquals("", FuzzyNameIndex.soundex("ångström".substring(0, 1)));
+  }
+
+  /** Tests that searching matches words starting with every, or any, of the given words */
+  @Test
+  public void testSearch() {
+    addressBook.readFromFile("test/resources/addressBook.txt");
+
+    assertEquals(4, addressBook.search("main", true).size());
+    assertEquals(2, addressBook.search("JOHN, Main", true).size());
+    assertEquals(3, addressBook.search("12345", true).size());
+    assertEquals("Baron", addressBook.search("1029384756", true).getFirst().getLastName());
+    assertTrue(addressBook.search("john strasas", true).isEmpty());
+    assertTrue(addressBook.search(" - ", false).isEmpty());
+
+    ArrayList<AddressEntry> foundEntries = addressBook.search("strasas sidetown", false);
+    assertEquals(2, foundEntries.size());
+    assertEquals("Baron", foundEntries.getFirst().getLastName()); // in address book order
+    assertEquals("Smith", foundEntries.get(1).getLastName());
+
+    addressBook.remove(addressBook.search("janedoe", true).getFirst());
+    AddressEntry janeRoe =
+        AddressEntry.builder().firstName("Jane").lastName("Roe").phone("(555) 010-9999").build();
+    addressBook.add(janeRoe);
+    foundEntries = addressBook.search("jane", true);
+    assertEquals(2, foundEntries.size());
+    assertEquals(janeRoe, foundEntries.getFirst());
+    assertEquals(janeRoe, addressBook.search("5550109999", true).getFirst());
+
+    addressBook.clear();
+    assertTrue(addressBook.search("jane", false).isEmpty());
+  }
+
+  /** Tests that searching still works once most indexed entries have been removed */
+  @Test
+  public void testSearchAfterRemovingMany() {
+    ArrayList<AddressEntry> addressEntries = new ArrayList<AddressEntry>();
+
+    for (int i = 0; i < 3000; i++) {
+      addressEntries.add(
+          AddressEntry.builder().firstName("First" + i).lastName("Person").zip(i).build());
+    }
+
+    for (AddressEntry addressEntry : addressEntries) {
+      addressBook.add(addressEntry);
+    }
+
+    assertEquals(3000, addressBook.search("person", true).size());
+
+    for (int i = 0; i < 2500; i++) {
+      addressBook.remove(addressEntries.get(i));
+    }
+
+    assertEquals(500, addressBook.search("person", true).size());
+    assertEquals(1, addressBook.search("person 2999", true).size());
+    assertTrue(addressBook.search("first1", true).isEmpty());
+  }
+
+  /** Tests that listing page by page returns every entry once, in address book order */
+  @Test
+  public void testListPage() {
+    addressBook.readFromFile("test/resources/addressBook.txt");
+
+    ArrayList<AddressEntry> pagedEntries = new ArrayList<AddressEntry>();
+    AddressPage page = addressBook.listPage(null, 2);
+    pagedEntries.addAll(page.getEntries());
+
+    while (page.hasNextPage()) {
+      assertEquals(2, page.getEntries().size());
+      page = addressBook.listPage(page.getNextCursor(), 2);
+      pagedEntries.addAll(page.getEntries());
+    }
+
+    assertEquals(1, page.getEntries().size());
+    assertEquals(5, pagedEntries.size());
+    assertEquals("Baron", pagedEntries.getFirst().getLastName());
+    assertEquals("Smith", pagedEntries.getLast().getLastName());
+
+    page = addressBook.listPage(null, 5);
+    assertEquals(5, page.getEntries().size());
+    assertFalse(page.hasNextPage());
+
+    assertThrows(IllegalArgumentException.class, () -> addressBook.listPage(null, 0));
+    assertThrows(IllegalArgumentException.class, () -> addressBook.listPage("!", 2));
+  }
+
+  /** Tests that finding page by page continues after the last entry even if it was removed */
+  @Test
+  public void testFindPage() {
+    addressBook.readFromFile("test/resources/addressBook.txt");
+
+    AddressPage page = addressBook.findPage("d", null, 1);
+    assertEquals("Jane", page.getEntries().getFirst().getFirstName());
+    assertTrue(page.hasNextPage());
+
+    addressBook.remove(page.getEntries().getFirst());
+    page = addressBook.findPage("d", page.getNextCursor(), 1);
+    assertEquals("John", page.getEntries().getFirst().getFirstName());
+    assertFalse(page.hasNextPage());
+
+    page = addressBook.findPage("SMITH", null, 10);
+    assertEquals(2, page.getEntries().size());
+    assertFalse(page.hasNextPage());
+    assertTrue(addressBook.findPage(" ", null, 10).getEntries().isEmpty());
+    assertTrue(addressBook.findPage("xyz", null, 10).getEntries().isEmpty());
+  }
+
+  /** Tests that streams see every entry in order and split in balanced halves */
+  @Test
+  public void testStream() {
+    for (StorageEngine storageEngine : StorageEngine.values()) {
+      addressBook.clear();
+      addressBook.setStorageEngine(storageEngine);
+
+      for (int i = 0; i < 1001; i++) {
+        addressBook.add(
+            AddressEntry.builder().firstName("First" + i).lastName("Last" + i).zip(i).build());
+      }
+
+      assertEquals(1001, addressBook.stream().count());
+      assertEquals(addressBook.listPage(null, 1001).getEntries(), addressBook.stream().toList());
+      assertEquals(addressBook.stream().toList(), addressBook.parallelStream().sorted().toList());
+      assertEquals(
+          1001L * 1000 / 2,
+          addressBook.parallelStream().mapToLong(AddressEntry::getZip).sum());
+
+      Spliterator<AddressEntry> secondHalf = addressBook.stream().spliterator();
+      assertTrue(secondHalf.hasCharacteristics(Spliterator.SORTED | Spliterator.DISTINCT));
+      assertNull(secondHalf.getComparator());
+      Spliterator<AddressEntry> firstHalf = secondHalf.trySplit();
+      assertEquals(500, firstHalf.getExactSizeIfKnown());
+      assertEquals(501, secondHalf.getExactSizeIfKnown());
+    }
+  }
+
+  /** Tests that a stream isn't affected by changes made while it runs */
+  @Test
+  public void testStreamSnapshot() {
+    for (StorageEngine storageEngine : StorageEngine.values()) {
+      addressBook.clear();
+      addressBook.setStorageEngine(storageEngine);
+      addressBook.readFromFile("test/resources/addressBook.txt");
+
+      Iterator<AddressEntry> addressEntries = addressBook.stream().iterator();
+      assertEquals("Baron", addressEntries.next().getLastName());
+
+      addressBook.add(AddressEntry.builder().firstName("Zed").lastName("Zulu").build());
+      addressBook.remove(addressBook.find("doe").getFirst());
+      addressBook.clear();
+
+      int remainingEntries = 0;
+
+      while (addressEntries.hasNext()) {
+        assertNotNull(addressEntries.next().getStreet());
+        remainingEntries++;
+      }
+
+      assertEquals(4, remainingEntries);
+    }
+  }
+
+  /** Tests that adding and removing in batches reports the outcome of every entry */
+  @Test
+  public void testAddAllRemoveAll() {
+    for (StorageEngine storageEngine : StorageEngine.values()) {
+      addressBook.clear();
+      addressBook.setStorageEngine(storageEngine);
+      addressBook.add(johnDoe);
+      assertEquals(1, addressBook.search("doe", true).size());
+
+      AddressEntry janeDoe2 = janeDoe.toBuilder().street("1 Other Street").build();
+      boolean[] outcomes = addressBook.addAll(Arrays.asList(janeDoe, johnDoe2, janeDoe2, janeDoe));
+      assertArrayEquals(new boolean[] {true, false, false, false}, outcomes);
+      assertEquals(2, addressBook.size());
+      assertEquals(2, addressBook.search("doe", true).size());
+
+      outcomes = addressBook.removeAll(Arrays.asList(johnSmith, janeDoe2, janeDoe));
+      assertArrayEquals(new boolean[] {false, true, false}, outcomes);
+      assertFalse(addressBook.contains(janeDoe));
+      assertEquals(1, addressBook.search("doe", true).size());
+
+      // large enough batches are merged in a single pass
+      ArrayList<AddressEntry> addressEntries = new ArrayList<AddressEntry>();
+
+      for (int i = 0; i < 2000; i++) {
+        addressEntries.add(AddressEntry.builder().firstName("First" + i).lastName("Last").build());
+      }
+
+      addressBook.addAll(addressEntries);
+      assertEquals(2001, addressBook.size());
+      assertEquals(2000, addressBook.autocomplete("last", 1).getFirst().getCount());
+
+      addressEntries.add(johnDoe);
+      addressEntries.add(janeDoe);
+      outcomes = addressBook.removeAll(addressEntries);
+      assertTrue(outcomes[1999]);
+      assertTrue(outcomes[2000]);
+      assertFalse(outcomes[2001]);
+      assertEquals(0, addressBook.size());
+      assertTrue(addressBook.autocomplete("", 10).isEmpty());
+      assertTrue(addressBook.fuzzyFind("last", 1, 10).isEmpty());
+    }
+  }
+
+  /** Tests that batches leave every index as adding and removing one entry at a time does */
+  @Test
+  public void testAddAllRemoveAllIndexes() {
+    ArrayList<AddressEntry> addressEntries = new ArrayList<AddressEntry>();
+
+    for (int i = 0; i < 300; i++) {
+      addressEntries.add(
+          AddressEntry.builder()
+              .firstName("First" + (i % 7))
+              .lastName("Last" + (i % 11))
+              .street(i + " Main Street")
+              .city("City" + (i % 5))
+              .state("ST")
+              .zip(i % 13)
+              .email("person" + i + "@example.com")
+              .phone("555-" + (i % 17))
+              .build());
+    }
+
+    List<AddressEntry> removedEntries = addressEntries.subList(0, 200);
+    ArrayList<String> expectedResults = new ArrayList<String>();
+    ArrayList<String> results = new ArrayList<String>();
+    addressBook.setIndexingEnabled(true);
+
+    for (AddressEntry addressEntry : addressEntries) {
+      addressBook.add(addressEntry);
+    }
+
+    collectIndexResults(expectedResults);
+
+    for (AddressEntry addressEntry : removedEntries) {
+      addressBook.remove(addressEntry);
+    }
+
+    collectIndexResults(expectedResults);
+    addressBook.clear();
+
+    addressBook.addAll(addressEntries);
+    collectIndexResults(results);
+    addressBook.removeAll(removedEntries);
+    collectIndexResults(results);
+
+    assertEquals(expectedResults, results);
+  }
+
+  /**
+   * Collects what every index of the address book returns for a few lookups
+   *
+   * @param results The list to add the results to
+   */
+  private void collectIndexResults(ArrayList<String> results) {
+    results.add(addressBook.query(new AddressQuery().city("city3")).toString());
+    results.add(addressBook.query(new AddressQuery().state("st").zipRange(2, 4)).toString());
+    results.add(addressBook.query(new AddressQuery().email("PERSON250@example.com")).toString());
+    results.add(addressBook.query(new AddressQuery().phone("555-9")).toString());
+    results.add(addressBook.autocomplete("last1", 10).toString());
+    results.add(addressBook.autocompleteFirstName("", 10).toString());
+    results.add(addressBook.fuzzyFind("lust1", 1, 100).toString());
+    results.add(addressBook.search("main 12", true).toString());
+  }
+
+  /** Tests that a batch of changes applies removals before additions */
+  @Test
+  public void testApplyChanges() {
+    addressBook.add(johnDoe);
+    addressBook.add(janeDoe);
+    AddressEntry movedJohnDoe = johnDoe.toBuilder().city("Elsewhere").build();
+
+    boolean[] outcomes =
+        addressBook.applyChanges(
+            Arrays.asList(
+                AddressChange.add(movedJohnDoe),
+                AddressChange.remove(johnDoe),
+                AddressChange.remove(johnSmith),
+                AddressChange.add(janeDoe)));
+
+    assertArrayEquals(new boolean[] {true, true, false, false}, outcomes);
+    assertEquals(2, addressBook.size());
+    assertEquals("Elsewhere", addressBook.find("doe").getLast().getCity());
+    assertEquals("+ John Doe", AddressChange.add(johnDoe).toString());
+    assertEquals("- John Doe", AddressChange.remove(johnDoe).toString());
+  }
+
+  /**
+   * Tests that generated data is reproducible, and that a generated file loads into the entries
+   * the generator returns, skipping its malformed records and duplicates
+   */
+  @Test
+  public void testDataGenerator(@TempDir Path directory) {
+    AddressDataGenerator generator =
+        new AddressDataGenerator()
+            .seed(7)
+            .duplicateRate(0.1)
+            .nameSkew(1)
+            .malformedRate(0.05)
+            .unicodeRate(0.2);
+    ArrayList<AddressEntry> generatedEntries = generator.entries(0, 2000);
+
+    assertEquals(generatedEntries, generator.entries(0, 2000));
+    int headSize = generator.entries(0, 1000).size();
+    ArrayList<AddressEntry> range = generator.entries(1000, 10);
+    assertEquals(generatedEntries.subList(headSize, headSize + range.size()), range);
+    assertNotEquals(generatedEntries, new AddressDataGenerator().seed(8).entries(0, 2000));
+    assertTrue(generatedEntries.size() < 2000);
+    assertTrue(
+        generatedEntries.stream()
+            .anyMatch(addressEntry -> addressEntry.getLastName().chars().anyMatch(c -> c > 127)));
+    assertTrue(
+        generatedEntries.stream()
+                .filter(
+                    addressEntry ->
+                        addressEntry.getLastName().equals(generatedEntries.get(0).getLastName()))
+                .count()
+            > 1);
+
+    Path file = directory.resolve("generated.txt");
+    assertTrue(generator.writeFile(file.toString(), 2000));
+
+    LoadStatistics statistics = new LoadStatistics();
+    ArrayList<AddressEntry> loadedEntries = addressBook.loadFromFile(file.toString(), statistics);
+    ArrayList<AddressEntry> expectedEntries = new ArrayList<AddressEntry>();
+
+    for (AddressEntry addressEntry : generatedEntries) {
+      if (!expectedEntries.contains(addressEntry)) {
+        expectedEntries.add(addressEntry);
+      }
+    }
+
+    assertEquals(2000, statistics.getRecordsRead());
+    assertEquals(2000 - generatedEntries.size(), statistics.getMalformedRecords());
+    assertEquals(expectedEntries.size(), loadedEntries.size());
+    assertTrue(expectedEntries.size() < generatedEntries.size());
+    assertTrue(expectedEntries.stream().allMatch(addressBook::contains));
+    assertThrows(IllegalArgumentException.class, () -> generator.duplicateRate(1.5));
+  }
+
+  /** Tests that operation latencies are only measured while metrics are enabled */
+  @Test
+  public void testMetrics() throws Exception {
+    AddressBookMetrics metrics = addressBook.getMetrics();
+    metrics.reset();
+    addressBook.find("doe");
+    assertEquals(0, metrics.getStatistics(AddressOperation.FIND).getCount());
+
+    metrics.setEnabled(true);
+
+    try {
+      addressBook.add(johnDoe);
+      addressBook.add(johnDoe);
+      addressBook.remove(johnDoe);
+      addressBook.find("doe");
+      addressBook.readFromFile("test/resources/addressBook.txt");
+    } finally {
+      metrics.setEnabled(false);
+    }
+
+    // readFromFile adds its entries in one batch rather than through add
+    OperationStatistics addStatistics = metrics.getStatistics(AddressOperation.ADD);
+    assertEquals(2, addStatistics.getCount());
+    assertTrue(addStatistics.getP50Nanos() <= addStatistics.getP99Nanos());
+    assertTrue(addStatistics.getMeanNanos() <= addStatistics.getMaximumNanos());
+    assertEquals(1, metrics.getStatistics(AddressOperation.REMOVE).getCount());
+    assertEquals(1, metrics.getStatistics(AddressOperation.FIND).getCount());
+    assertEquals(1, metrics.getStatistics(AddressOperation.READ_FROM_FILE).getCount());
+    assertEquals(4, metrics.getOperationStatistics().size());
+    assertEquals(5, metrics.getEntryCount());
+    assertTrue(metrics.report().contains("readFromFile"));
+
+    assertTrue(metrics.registerMBean());
+    assertEquals(
+        5,
+        ManagementFactory.getPlatformMBeanServer()
+            .getAttribute(new ObjectName(AddressBookMetrics.OBJECT_NAME), "EntryCount"));
+
+    metrics.reset();
+    assertEquals(0, metrics.getStatistics(AddressOperation.ADD).getCount());
+    assertTrue(metrics.getOperationStatistics().isEmpty());
+  }
+
+  /** Tests that latencies are counted in buckets at most 1/16 wider than their value */
+  @Test
+  public void testLatencyHistogramBuckets() {
+    for (long nanos : new long[] {0, 1, 15, 16, 17, 31, 32, 1000, 123456789, Long.MAX_VALUE}) {
+      long highestValue = LatencyHistogram.highestValue(LatencyHistogram.bucket(nanos));
+      assertTrue(highestValue >= nanos);
+      assertTrue(highestValue - nanos <= nanos / 16);
+    }
+
+    assertEquals(16, LatencyHistogram.bucket(16));
+    assertTrue(LatencyHistogram.bucket(Long.MAX_VALUE) < 64 * 16);
+  }
 }
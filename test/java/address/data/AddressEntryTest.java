@@ -1,5 +1,8 @@
 package address.data;
 
+import java.io.IOException;
+import java.util.Arrays;
+
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -12,93 +15,85 @@ import static org.junit.jupiter.api.Assertions.*;
  */
 class AddressEntryTest {
   /**
-   * Tests that {@link AddressEntry#setFirstName setFirstName} and {@link AddressEntry#getFirstName
-   * getFirstName} work as expected
+   * Tests that {@link AddressEntry.Builder#firstName firstName} and {@link
+   * AddressEntry#getFirstName getFirstName} work as expected
    */
   @Test
   public void testFirstName() {
-    AddressEntry entry = new AddressEntry();
-    entry.setFirstName("John");
+    AddressEntry entry = AddressEntry.builder().firstName("John").build();
 
     assertEquals("John", entry.getFirstName());
   }
 
   /**
-   * Tests that {@link AddressEntry#setLastName setLastName} and {@link AddressEntry#getLastName
+   * Tests that {@link AddressEntry.Builder#lastName lastName} and {@link AddressEntry#getLastName
    * getLastName} work as expected
    */
   @Test
   public void testLastName() {
-    AddressEntry entry = new AddressEntry();
-    entry.setLastName("Doe");
+    AddressEntry entry = AddressEntry.builder().lastName("Doe").build();
 
     assertEquals("Doe", entry.getLastName());
   }
 
   /**
-   * Test that {@link AddressEntry#setStreet setStreet} and {@link AddressEntry#getStreet getStreet}
-   * work as expected
+   * Test that {@link AddressEntry.Builder#street street} and {@link AddressEntry#getStreet
+   * getStreet} work as expected
    */
   @Test
   public void testStreet() {
-    AddressEntry entry = new AddressEntry();
-    entry.setStreet("1234 Main Street");
+    AddressEntry entry = AddressEntry.builder().street("1234 Main Street").build();
 
     assertEquals("1234 Main Street", entry.getStreet());
   }
 
   /**
-   * Test that {@link AddressEntry#setCity setCity} and {@link AddressEntry#getCity getCity} work as
-   * expected
+   * Test that {@link AddressEntry.Builder#city city} and {@link AddressEntry#getCity getCity} work
+   * as expected
    */
   @Test
   public void testCity() {
-    AddressEntry entry = new AddressEntry();
-    entry.setCity("Maintown");
+    AddressEntry entry = AddressEntry.builder().city("Maintown").build();
 
     assertEquals("Maintown", entry.getCity());
   }
 
   @Test
   public void testState() {
-    AddressEntry entry = new AddressEntry();
-    entry.setState("Mainstate");
+    AddressEntry entry = AddressEntry.builder().state("Mainstate").build();
 
     assertEquals("Mainstate", entry.getState());
   }
 
   /**
-   * Test that {@link AddressEntry#setZip setZip} and {@link AddressEntry#getZip getZip} work as
+   * Test that {@link AddressEntry.Builder#zip zip} and {@link AddressEntry#getZip getZip} work as
    * expected
    */
   @Test
   public void testZip() {
-    AddressEntry entry = new AddressEntry();
-    entry.setZip(12345);
+    AddressEntry entry = AddressEntry.builder().zip(12345).build();
 
     assertEquals(12345, entry.getZip());
   }
 
   /**
-   * Test that {@link AddressEntry#setPhone setPhone} and {@link AddressEntry#getPhone getPhone}
+   * Test that {@link AddressEntry.Builder#phone phone} and {@link AddressEntry#getPhone getPhone}
    * work as expected
    */
   @Test
   public void testPhone() {
-    AddressEntry entry = new AddressEntry();
-    entry.setPhone("1234567890");
+    AddressEntry entry = AddressEntry.builder().phone("1234567890").build();
 
     assertEquals("1234567890", entry.getPhone());
   }
 
   /**
-   * Test that {@link AddressEntry#setEmail setEmail} and {@link AddressEntry#getEmail getEmail}
+   * Test that {@link AddressEntry.Builder#email email} and {@link AddressEntry#getEmail getEmail}
    * work as expected
    */
   @Test
   public void testEmail() {
-    AddressEntry entry = new AddressEntry();
-    entry.setEmail("johndoe@example.com");
+    AddressEntry entry = AddressEntry.builder().email("johndoe@example.com").build();
 
     assertEquals("johndoe@example.com", entry.getEmail());
   }
@@ -377,4 +372,124 @@ class AddressEntryTest {
 
     assertTrue(janeSmith.compareTo(johnDoe) > 0);
   }
+
+  /** Tests that copies made through {@link AddressEntry#toBuilder} compare by their new names */
+  @Test
+  public void testCompareAfterToBuilder() {
+    AddressEntry entry = AddressEntry.builder().lastName("Doe").build();
+    AddressEntry entry2 = AddressEntry.builder().lastName("DOE").build();
+    assertEquals(0, entry.compareTo(entry2));
+
+    AddressEntry entry3 = entry.toBuilder().firstName("Jane").build();
+    AddressEntry entry4 = entry2.toBuilder().firstName("JOHN").build();
+    assertTrue(entry3.compareTo(entry4) < 0);
+    assertEquals("Doe", entry3.getLastName());
+
+    AddressEntry entry5 = entry3.toBuilder().lastName("Smith").build();
+    assertTrue(entry5.compareTo(entry4) > 0);
+    assertEquals("Jane", entry5.getFirstName());
+    assertEquals("Doe", entry3.getLastName());
+  }
+
+  /**
+   * Tests that two address entries whose concatenated names collide are not equal, even though
+   * they have the same hash code
+   */
+  @Test
+  public void testEqualsNameCollision() {
+    AddressEntry entry = AddressEntry.builder().firstName("Jo").lastName("Hndoe").build();
+
+    AddressEntry entry2 = AddressEntry.builder().firstName("John").lastName("Doe").build();
+
+    assertEquals(entry.hashCode(), entry2.hashCode());
+    assertNotEquals(entry, entry2);
+  }
+
+  /** Tests that an address entry is not equal to an object of another type */
+  @Test
+  public void testEqualsOtherType() {
+    AddressEntry entry = AddressEntry.builder().firstName("John").lastName("Doe").build();
+
+    assertNotEquals(entry, "johndoe");
+  }
+
+  /** Tests that equal cities and states share one instance, while streets aren't pooled */
+  @Test
+  public void testPooledFields() {
+    AddressEntry entry =
+        AddressEntry.builder()
+            .street(new String("1234 Main Street"))
+            .city(new String("Maintown"))
+            .state(new String("Mainstate"))
+            .build();
+    AddressEntry otherEntry =
+        new AddressEntry(
+            "Jane",
+            "Doe",
+            new String("1234 Main Street"),
+            new String("Maintown"),
+            new String("Mainstate"),
+            12345,
+            "0987654321",
+            "janedoe@example.com");
+
+    assertNotSame(entry.getStreet(), otherEntry.getStreet());
+    assertSame(entry.getCity(), otherEntry.getCity());
+    assertSame(entry.getState(), otherEntry.getState());
+  }
+
+  /** Tests that a full pool stops adding values, and that its statistics add up */
+  @Test
+  public void testStringPoolBounded() {
+    StringPool stringPool = new StringPool(1);
+    String city = stringPool.canonicalize(new String("Maintown"));
+
+    assertSame(city, stringPool.canonicalize(new String("Maintown")));
+    assertNotSame(
+        stringPool.canonicalize("Othertown"), stringPool.canonicalize(new String("Othertown")));
+    assertEquals(1, stringPool.size());
+    assertEquals(1, stringPool.getHits());
+    assertEquals(3, stringPool.getMisses());
+    assertEquals(40 + city.length(), stringPool.getBytesSaved());
+    assertNull(stringPool.canonicalize(null));
+  }
+
+  /** Tests that packed bytes decode to an entry with the same fields */
+  @Test
+  public void testPackedBytes() {
+    AddressEntry entry =
+        new AddressEntry("Zoë", "Ångström", "1 Straße", "Köln", "NRW", -50667, "+49 221", "z@ä.de");
+    AddressEntry emptyEntry = new AddressEntry();
+
+    byte[] packedBytes = entry.toPackedBytes();
+    AddressEntry decodedEntry = AddressEntry.fromPackedBytes(packedBytes);
+
+    assertEquals(entry.toString(), decodedEntry.toString());
+    assertEquals(entry, decodedEntry);
+    assertEquals(8, emptyEntry.toPackedBytes().length);
+    assertEquals(
+        emptyEntry.toString(), AddressEntry.fromPackedBytes(emptyEntry.toPackedBytes()).toString());
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> AddressEntry.fromPackedBytes(Arrays.copyOf(packedBytes, packedBytes.length - 1)));
+  }
+
+  /** Tests that {@link AddressEntry#appendTo} formats entries exactly as {@link String#format} */
+  @Test
+  public void testAppendTo() throws IOException {
+    for (int zip : new int[] {0, 7, 12345, -12345, Integer.MAX_VALUE, Integer.MIN_VALUE}) {
+      AddressEntry entry =
+          new AddressEntry(
+              "Jöhn", "Doe", "1234 Main Street", "Maintown", "Mainstate", zip, "123", "j@x.com");
+      StringBuilder output = new StringBuilder("1: ");
+      entry.appendTo(output);
+
+      String expected =
+          String.format(
+              "%s %s\n%s\n%s %s, %d\n%s\n%s",
+              "Jöhn", "Doe", "1234 Main Street", "Maintown", "Mainstate", zip, "123", "j@x.com");
+      assertEquals(expected, entry.toString());
+      assertEquals("1: " + expected, output.toString());
+    }
+  }
 }